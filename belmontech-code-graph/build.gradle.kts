@@ -2,6 +2,7 @@
 plugins {
     id("org.springframework.boot") version "3.4.1" apply false
     id("io.spring.dependency-management") version "1.1.6" apply false
+    id("me.champeau.jmh") version "0.7.2" apply false
 }
 
 allprojects {
@@ -1,7 +1,7 @@
 package com.belmonttech.graph.backend;
 
-import com.belmonttech.graph.model.GraphSnapshot;
-import com.belmonttech.graph.model.io.DataLoader;
+import com.belmonttech.graph.backend.registry.SnapshotRegistry;
+import com.belmonttech.graph.backend.reload.SnapshotReloader;
 
 import jakarta.annotation.PostConstruct;
 
@@ -16,9 +16,9 @@ import java.nio.file.Path;
 public class Application {
 
     @Autowired
-    private GraphService graphService;
+    private SnapshotReloader snapshotReloader;
     @Autowired
-    private DataLoader dataLoader;
+    private SnapshotRegistry snapshotRegistry;
 
     public static void main(String[] args) {
         SpringApplication.run(Application.class, args);
@@ -26,6 +26,7 @@ public class Application {
 
     @PostConstruct
     public void loadInitialSnapshot() {
+        watchConfiguredSnapshots();
         String pathProp = System.getProperty("toon.file");
         if (pathProp == null || pathProp.isBlank())
             return;
@@ -35,14 +36,23 @@ public class Application {
                 System.err.println("toon.file does not exist: " + path);
                 return;
             }
-            GraphSnapshot snapshot = dataLoader.load(path);
-            graphService.updateSnapshot(snapshot);
-            System.out.printf("Loaded initial snapshot from %s (nodes=%d, edges=%d)%n", path, snapshot.nodes().size(),
-                    snapshot.edges().size());
+            snapshotReloader.loadAndWatch(snapshotRegistry.defaultName(), path);
         }
         catch (Exception ex) {
             ex.printStackTrace();
             System.err.println("Failed to load initial toon/graph file: " + ex.getMessage());
         }
     }
+
+    /** Snapshots from {@code graph.registry.snapshots} are loaded lazily but reloaded when their file changes. */
+    private void watchConfiguredSnapshots() {
+        snapshotRegistry.list().stream().filter(info -> info.source() != null).forEach(info -> {
+            try {
+                snapshotReloader.watch(info.name(), Path.of(info.source()));
+            }
+            catch (Exception ex) {
+                System.err.println("Cannot watch snapshot '" + info.name() + "': " + ex.getMessage());
+            }
+        });
+    }
 }
@@ -1,61 +1,497 @@
 package com.belmonttech.graph.backend;
 
-import java.nio.file.Path;
-import java.util.Objects;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
+import com.belmonttech.graph.backend.cache.SliceResponseCache;
+import com.belmonttech.graph.backend.dto.SnapshotInfoDto;
 import com.belmonttech.graph.backend.dto.GraphSliceDto;
-import com.belmonttech.graph.model.GraphSnapshot;
-import com.belmonttech.graph.model.io.DataLoader;
+import com.belmonttech.graph.backend.dto.NodeQueryDto;
+import com.belmonttech.graph.backend.dto.UploadJobDto;
+import com.belmonttech.graph.backend.dto.ExpansionSessionDto;
+import com.belmonttech.graph.backend.dto.MetricsDto;
+import com.belmonttech.graph.backend.exec.QueryExecutor;
+import com.belmonttech.graph.backend.expand.ExpansionService;
+import com.belmonttech.graph.backend.expand.ExpansionSession;
+import com.belmonttech.graph.backend.layout.LayoutService;
+import com.belmonttech.graph.backend.merge.MergeService;
+import com.belmonttech.graph.backend.metrics.GraphMetrics;
+import com.belmonttech.graph.backend.registry.SnapshotRegistry;
+import com.belmonttech.graph.backend.registry.UnknownSnapshotException;
+import com.belmonttech.graph.backend.upload.UploadJob;
+import com.belmonttech.graph.backend.upload.UploadService;
+import com.belmonttech.graph.model.EdgeType;
+import com.belmonttech.graph.model.NodeLevel;
+import com.belmonttech.graph.model.index.NameSearchIndex;
+import com.belmonttech.graph.model.index.Reachability;
+import com.belmonttech.graph.model.merge.MergeStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/graph")
 @CrossOrigin
 public class GraphController {
 
+    private static final long SSE_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
     private final GraphService service;
-    private final DataLoader dataLoader;
+    private final SnapshotRegistry registry;
+    private final UploadService uploadService;
+    private final MergeService mergeService;
+    private final LayoutService layoutService;
+    private final ExpansionService expansionService;
+    private final SliceResponseCache responseCache;
+    private final QueryExecutor queryExecutor;
+    private final GraphMetrics metrics;
+    private final ObjectMapper objectMapper;
 
-    public GraphController(GraphService service, DataLoader dataLoader) {
+    public GraphController(GraphService service, SnapshotRegistry registry, UploadService uploadService,
+            MergeService mergeService, LayoutService layoutService, ExpansionService expansionService,
+            SliceResponseCache responseCache, QueryExecutor queryExecutor, GraphMetrics metrics,
+            ObjectMapper objectMapper) {
         this.service = service;
-        this.dataLoader = dataLoader;
+        this.registry = registry;
+        this.uploadService = uploadService;
+        this.mergeService = mergeService;
+        this.layoutService = layoutService;
+        this.expansionService = expansionService;
+        this.responseCache = responseCache;
+        this.queryExecutor = queryExecutor;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Slice endpoints take {@code layout=true} to get server-computed {@code positions} with the slice. */
+    @GetMapping("/packages") public ResponseEntity<byte[]> getPackages(
+            @RequestParam(defaultValue = "false") boolean layout,
+            @RequestParam(required = false) String snapshot, WebRequest request) {
+        String name = snapshotName(snapshot);
+        return conditional(request, name, "packages", layout ? "&layout" : "", layout,
+                () -> laidOut(layout, name, "packages", "", service.getPackageLevelGraph(name)));
+    }
+
+    /**
+     * Slices larger than {@code budget} nodes come back coarsened into supernodes; pass a cluster's {@code expand}
+     * value back as {@code expand} to drill into it.
+     */
+    @GetMapping("/packages/{pkgName}/classes") public ResponseEntity<byte[]> getClasses(@PathVariable String pkgName,
+            @RequestParam(required = false) Integer budget, @RequestParam(required = false) String expand,
+            @RequestParam(defaultValue = "false") boolean layout,
+            @RequestParam(required = false) String snapshot, WebRequest request) {
+        String name = snapshotName(snapshot);
+        String params = pkgName + lodParams(budget, expand);
+        return conditional(request, name, "classes", params + (layout ? "&layout" : ""), true,
+                () -> laidOut(layout, name, "classes", params, service.getClassesInPackage(name, pkgName, budget, expand)));
+    }
+
+    @GetMapping("/nodes/{nodeId}/neighborhood") public ResponseEntity<byte[]> getNeighborhood(
+            @PathVariable String nodeId, @RequestParam(defaultValue = "2") int depth,
+            @RequestParam(required = false) Integer budget, @RequestParam(required = false) String expand,
+            @RequestParam(defaultValue = "false") boolean layout,
+            @RequestParam(required = false) String snapshot, WebRequest request) {
+        String name = snapshotName(snapshot);
+        String params = nodeId + "&depth=" + depth + lodParams(budget, expand);
+        return conditional(request, name, "neighborhood", params + (layout ? "&layout" : ""), true,
+                () -> laidOut(layout, name, "neighborhood", params,
+                        service.getNeighborhood(name, nodeId, depth, budget, expand)));
+    }
+
+    /**
+     * Why {@code nodeId} is expensive: up to {@code limit} call paths to the nodes its cost originates from.
+     * {@code mode} is {@code shortest} or {@code heaviest} (largest call weight among the shortest); with
+     * {@code target}, the shortest call path to that node instead.
+     */
+    @GetMapping("/nodes/{nodeId}/critical-paths") public ResponseEntity<byte[]> getCriticalPaths(
+            @PathVariable String nodeId, @RequestParam(defaultValue = "shortest") String mode,
+            @RequestParam(defaultValue = "3") int limit, @RequestParam(required = false) String target,
+            @RequestParam(required = false) String snapshot, WebRequest request) {
+        if (!mode.equals("shortest") && !mode.equals("heaviest"))
+            return ResponseEntity.badRequest().build();
+        String name = snapshotName(snapshot);
+        boolean heaviest = mode.equals("heaviest");
+        return conditional(request, name, "critical-paths",
+                nodeId + "&mode=" + mode + "&limit=" + limit + (target == null ? "" : "&target=" + target), target != null,
+                () -> service.getCriticalPaths(name, nodeId, target, heaviest, limit));
+    }
+
+    /**
+     * Blast radius of {@code nodeId}: its transitive {@code callers} or {@code callees} along {@code type} edges
+     * ({@code all} for every type), up to {@code depth} levels (0 = unbounded) through nodes of at least
+     * {@code minCost}. {@code view} is {@code count}, {@code packages} (counts per package) or {@code slice}
+     * (coarsened like the neighborhood, with {@code budget}, {@code expand} and {@code layout}).
+     */
+    @GetMapping("/nodes/{nodeId}/reach") public ResponseEntity<byte[]> getReach(@PathVariable String nodeId,
+            @RequestParam(defaultValue = "callers") String direction,
+            @RequestParam(defaultValue = "INVOCATION") String type, @RequestParam(defaultValue = "0") int depth,
+            @RequestParam(defaultValue = "0") int minCost, @RequestParam(defaultValue = "count") String view,
+            @RequestParam(required = false) Integer budget, @RequestParam(required = false) String expand,
+            @RequestParam(defaultValue = "false") boolean layout,
+            @RequestParam(required = false) String snapshot, WebRequest request) {
+        Reachability.Direction dir;
+        EdgeType edgeType;
+        try {
+            dir = Reachability.Direction.valueOf(direction.toUpperCase());
+            edgeType = type.equalsIgnoreCase("all") ? null : EdgeType.valueOf(type.toUpperCase());
+        }
+        catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!view.equals("count") && !view.equals("packages") && !view.equals("slice"))
+            return ResponseEntity.badRequest().build();
+        String name = snapshotName(snapshot);
+        String params = nodeId + "&direction=" + dir + "&type=" + edgeType + "&depth=" + depth + "&minCost=" + minCost;
+        if (!view.equals("slice")) {
+            return conditional(request, name, "reach", params + "&view=" + view, true,
+                    () -> service.getReachability(name, nodeId, dir, edgeType, depth, minCost, view.equals("packages")));
+        }
+        String sliceParams = params + lodParams(budget, expand);
+        return conditional(request, name, "reach-slice", sliceParams + (layout ? "&layout" : ""), true,
+                () -> laidOut(layout, name, "reach-slice", sliceParams,
+                        service.getReachableSlice(name, nodeId, dir, edgeType, depth, minCost, budget, expand)));
+    }
+
+    /**
+     * Search-as-you-type over node names, ranked by cost. {@code mode} is {@code auto} (prefix and camel-case
+     * matches, then substrings), {@code prefix}, {@code substring} or {@code camel}; {@code level} optionally
+     * restricts the result to one node level.
+     */
+    @GetMapping("/search") public ResponseEntity<byte[]> search(@RequestParam String q,
+            @RequestParam(defaultValue = "auto") String mode, @RequestParam(required = false) String level,
+            @RequestParam(defaultValue = "0") int offset, @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String snapshot, WebRequest request) {
+        NameSearchIndex.Mode searchMode;
+        NodeLevel nodeLevel;
+        try {
+            searchMode = NameSearchIndex.Mode.valueOf(mode.toUpperCase());
+            nodeLevel = level == null || level.isBlank() ? null : NodeLevel.valueOf(level.toUpperCase());
+        }
+        catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+        String name = snapshotName(snapshot);
+        return conditional(request, name, "search",
+                "q=" + q + "&mode=" + searchMode + "&level=" + nodeLevel + "&offset=" + offset + "&limit=" + limit, false,
+                () -> service.search(name, q, searchMode, nodeLevel, offset, limit));
     }
 
-    @GetMapping("/packages") public GraphSliceDto getPackages() {
-        return service.getPackageLevelGraph();
+    /**
+     * Ad-hoc slice for dashboards: nodes filtered by level, cost, complexity, hotspot flag and package prefix
+     * (combinable with {@code and}/{@code or}), sorted and limited, plus the edges among them by type and weight.
+     */
+    @PostMapping("/query")
+    public ResponseEntity<?> query(@RequestBody NodeQueryDto query, @RequestParam(required = false) String snapshot) {
+        String name = snapshotName(snapshot);
+        try {
+            return cached(name, "query", new String(toJson(query), StandardCharsets.UTF_8), true,
+                    () -> service.query(name, query));
+        }
+        catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
     }
 
-    @GetMapping("/packages/{pkgName}/classes") public GraphSliceDto getClasses(@PathVariable String pkgName) {
-        return service.getClassesInPackage(pkgName);
+    @GetMapping("/hotspots") public ResponseEntity<byte[]> getHotspots(@RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String snapshot, WebRequest request) {
+        String name = snapshotName(snapshot);
+        return conditional(request, name, "hotspots", "limit=" + limit, false, () -> service.getHotspots(name, limit));
     }
 
-    @GetMapping("/nodes/{nodeId}/neighborhood") public GraphSliceDto getNeighborhood(@PathVariable String nodeId,
-            @RequestParam(defaultValue = "2") int depth) {
-        return service.getNeighborhood(nodeId, depth);
+    /**
+     * What changed from {@code base} to {@code snapshot}. The base defaults to the copy that the last upload or
+     * reload of {@code snapshot} replaced.
+     */
+    @GetMapping("/diff") public ResponseEntity<byte[]> getDiff(@RequestParam(required = false) String base,
+            @RequestParam(defaultValue = "false") boolean regressionsOnly, @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(required = false) String snapshot, WebRequest request) {
+        String name = snapshotName(snapshot);
+        String baseName = base == null || base.isBlank() ? name + SnapshotRegistry.PREVIOUS_SUFFIX : base;
+        return conditional(request, name, "diff",
+                "base=" + baseName + "@" + service.version(baseName) + "&regressionsOnly=" + regressionsOnly
+                        + "&limit=" + limit, true,
+                () -> service.getDiff(baseName, name, regressionsOnly, limit));
     }
 
-    @GetMapping("/hotspots") public GraphSliceDto getHotspots(@RequestParam(defaultValue = "100") int limit) {
-        return service.getHotspots(limit);
+    @GetMapping("/snapshots") public List<SnapshotInfoDto> getSnapshots() {
+        return registry.list();
     }
 
+    /**
+     * Latency, outcome and result size per slice endpoint, snapshot load times per format, cache hit rates, heap
+     * footprint and the most recent slow queries.
+     */
+    @GetMapping("/metrics") public MetricsDto getMetrics() {
+        return metrics.snapshot();
+    }
+
+    @DeleteMapping("/snapshots/{name}") public ResponseEntity<Void> deleteSnapshot(@PathVariable String name) {
+        return registry.remove(name) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Federates separately analyzed snapshots into {@code name}: {@code sources} are snapshot names (and the
+     * namespaces of their own nodes), {@code shared} package prefixes are deduplicated as library code.
+     */
+    @PostMapping("/snapshots/merge")
+    public ResponseEntity<?> mergeSnapshots(@RequestParam String name, @RequestParam String sources,
+            @RequestParam(required = false) String shared,
+            @RequestParam(defaultValue = "true") boolean dedupeCommon) {
+        try {
+            MergeStats stats = mergeService.merge(name, splitList(sources),
+                    shared == null ? Set.of() : Set.copyOf(splitList(shared)), dedupeCommon);
+            return ResponseEntity.status(HttpStatus.CREATED).body(stats);
+        }
+        catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+        catch (UnknownSnapshotException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        }
+        catch (Exception ex) {
+            ex.printStackTrace();
+            return ResponseEntity.internalServerError().body("Failed to merge snapshots: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Accepts a multipart snapshot and parses it in the background. Returns the job immediately; progress is
+     * published on {@code /upload/jobs/{jobId}/events}.
+     */
     @PostMapping(path = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<String> upload(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String snapshot) {
         if (file.isEmpty())
             return ResponseEntity.badRequest().body("Empty file");
         try {
-            GraphSnapshot snapshot = dataLoader.load(Path.of(Objects.requireNonNull(file.getOriginalFilename())));
-            service.updateSnapshot(snapshot);
-            return ResponseEntity.ok(
-                    "Graph snapshot updated. Nodes: " + snapshot.nodes().size() + ", edges: " + snapshot.edges()
-                            .size());
+            UploadJob job = uploadService.submit(snapshotName(snapshot), file);
+            return ResponseEntity.accepted().location(URI.create("/api/graph/upload/jobs/" + job.id()))
+                    .body(job.toDto());
+        }
+        catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
         }
         catch (Exception ex) {
             ex.printStackTrace();
-            return ResponseEntity.internalServerError().body("Failed to parse uploaded file: " + ex.getMessage());
+            return ResponseEntity.internalServerError().body("Failed to store uploaded file: " + ex.getMessage());
+        }
+    }
+
+    /** First step of a raw streamed upload: registers the job so the client can subscribe before sending. */
+    @PostMapping("/upload/jobs")
+    public ResponseEntity<?> createUploadJob(@RequestParam String format,
+            @RequestParam(required = false) String fileName, @RequestParam(defaultValue = "-1") long size,
+            @RequestParam(required = false) String snapshot) {
+        try {
+            UploadJob job = uploadService.create(snapshotName(snapshot), fileName, format, size);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .location(URI.create("/api/graph/upload/jobs/" + job.id())).body(job.toDto());
+        }
+        catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    /**
+     * Second step of a raw streamed upload: the request body is fed straight into the deserializer on the upload
+     * executor while the servlet thread is released (async request). Completes once the snapshot is swapped in or
+     * the upload failed; a second PUT to the same job gets 409.
+     */
+    @PutMapping(path = "/upload/jobs/{jobId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public CompletableFuture<ResponseEntity<UploadJobDto>> streamUpload(@PathVariable String jobId,
+            HttpServletRequest request) throws IOException {
+        UploadJob job = uploadService.find(jobId);
+        if (job == null)
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        try {
+            return uploadService.stream(job, request.getInputStream()).thenApply(GraphController::uploadResult);
+        }
+        catch (IllegalStateException ex) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT).body(job.toDto()));
+        }
+    }
+
+    /** 200 once the snapshot is swapped in; 400 if the bytes did not parse, 500 if reading or installing failed. */
+    private static ResponseEntity<UploadJobDto> uploadResult(UploadJob job) {
+        if (job.state() != UploadJob.State.FAILED)
+            return ResponseEntity.ok(job.toDto());
+        return ResponseEntity.status(job.invalidInput() ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(job.toDto());
+    }
+
+    @GetMapping("/upload/jobs/{jobId}")
+    public ResponseEntity<UploadJobDto> getUploadJob(@PathVariable String jobId) {
+        UploadJob job = uploadService.find(jobId);
+        return job == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(job.toDto());
+    }
+
+    @GetMapping(path = "/upload/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> uploadEvents(@PathVariable String jobId) {
+        UploadJob job = uploadService.find(jobId);
+        if (job == null)
+            return ResponseEntity.notFound().build();
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MILLIS);
+        job.subscribe(emitter);
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Opens an incremental exploration session. Deltas of its view are published on
+     * {@code /expand/sessions/{sessionId}/events}; expand and collapse requests only answer with the session state.
+     */
+    @PostMapping("/expand/sessions")
+    public ResponseEntity<ExpansionSessionDto> createExpansionSession(@RequestParam(required = false) String snapshot) {
+        ExpansionSession session = expansionService.create(snapshotName(snapshot));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .location(URI.create("/api/graph/expand/sessions/" + session.id())).body(session.toDto());
+    }
+
+    @GetMapping("/expand/sessions/{sessionId}")
+    public ResponseEntity<ExpansionSessionDto> getExpansionSession(@PathVariable String sessionId) {
+        ExpansionSession session = expansionService.find(sessionId);
+        return session == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(session.toDto());
+    }
+
+    /** The whole view of a session, for a client that reconnects or sees a gap in the delta {@code seq}. */
+    @GetMapping("/expand/sessions/{sessionId}/view")
+    public ResponseEntity<GraphSliceDto> getExpansionView(@PathVariable String sessionId) {
+        ExpansionSession session = expansionService.find(sessionId);
+        return session == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(expansionService.view(session));
+    }
+
+    @GetMapping(path = "/expand/sessions/{sessionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> expansionEvents(@PathVariable String sessionId) {
+        ExpansionSession session = expansionService.find(sessionId);
+        if (session == null)
+            return ResponseEntity.notFound().build();
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MILLIS);
+        session.subscribe(emitter);
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Expands {@code nodeId} by {@code depth} hops; the new nodes and edges stream out as the walk reaches them.
+     * With {@code exact=true} the depth replaces the node's previous one, so a smaller depth shrinks the view.
+     */
+    @PostMapping("/expand/sessions/{sessionId}/expand")
+    public ResponseEntity<?> expand(@PathVariable String sessionId, @RequestParam String nodeId,
+            @RequestParam(defaultValue = "1") int depth, @RequestParam(defaultValue = "false") boolean exact) {
+        ExpansionSession session = expansionService.find(sessionId);
+        if (session == null)
+            return ResponseEntity.notFound().build();
+        try {
+            return ResponseEntity.ok(expansionService.expand(session, nodeId, depth, exact));
+        }
+        catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @PostMapping("/expand/sessions/{sessionId}/collapse")
+    public ResponseEntity<ExpansionSessionDto> collapse(@PathVariable String sessionId, @RequestParam String nodeId) {
+        ExpansionSession session = expansionService.find(sessionId);
+        return session == null ? ResponseEntity.notFound().build()
+                : ResponseEntity.ok(expansionService.collapse(session, nodeId));
+    }
+
+    @DeleteMapping("/expand/sessions/{sessionId}")
+    public ResponseEntity<Void> closeExpansionSession(@PathVariable String sessionId) {
+        return expansionService.close(sessionId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Answers a slice request from the ETag / response cache when possible. The ETag only depends on the
+     * snapshot version and the query, so a matching {@code If-None-Match} yields 304 before anything is computed.
+     * Otherwise the query runs on the {@link QueryExecutor}: identical concurrent requests share one computation,
+     * and {@code heavy} ones wait for a bounded slot. Every request is traced in {@link GraphMetrics}.
+     */
+    private ResponseEntity<byte[]> conditional(WebRequest request, String snapshot, String endpoint, String params,
+            boolean heavy, Supplier<?> query) {
+        return respond(request, snapshot, endpoint, params, heavy, query);
+    }
+
+    /**
+     * As {@link #conditional} for POST queries, whose {@code params} is the canonical JSON of the request body: the
+     * response is cached and coalesced under the full body, but carries no ETag and never answers 304.
+     */
+    private ResponseEntity<byte[]> cached(String snapshot, String endpoint, String params, boolean heavy,
+            Supplier<?> query) {
+        return respond(null, snapshot, endpoint, params, heavy, query);
+    }
+
+    private ResponseEntity<byte[]> respond(WebRequest request, String snapshot, String endpoint, String params,
+            boolean heavy, Supplier<?> query) {
+        GraphMetrics.Trace trace = metrics.start(endpoint, snapshot, params);
+        try {
+            long version = service.version(snapshot);
+            SliceResponseCache.Key key = new SliceResponseCache.Key(endpoint, snapshot + ":" + params, version);
+            String etag = request == null ? null : key.etag();
+            if (request != null && request.checkNotModified(etag)) {
+                trace.outcome(GraphMetrics.Outcome.NOT_MODIFIED);
+                return null;
+            }
+            byte[] body = responseCache.get(key);
+            if (body == null) {
+                body = queryExecutor.execute(key, heavy, () -> toJson(trace.result(query.get())));
+                trace.bytes(body.length);
+                // snapshot swapped while computing: the body may belong to either version, so neither tag nor cache it
+                if (service.version(snapshot) != version)
+                    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+                responseCache.put(key, body);
+            }
+            else {
+                trace.outcome(GraphMetrics.Outcome.CACHED);
+            }
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+            return (etag == null ? ok : ok.eTag(etag)).body(body);
+        }
+        catch (RuntimeException ex) {
+            trace.failed(ex);
+            throw ex;
+        }
+        finally {
+            trace.finish();
+        }
+    }
+
+    private GraphSliceDto laidOut(boolean layout, String snapshot, String endpoint, String params, GraphSliceDto slice) {
+        return layout ? layoutService.withLayout(snapshot, service.version(snapshot), endpoint + "?" + params, slice)
+                : slice;
+    }
+
+    private static String lodParams(Integer budget, String expand) {
+        return (budget == null ? "" : "&budget=" + budget) + (expand == null ? "" : "&expand=" + expand);
+    }
+
+    private static List<String> splitList(String csv) {
+        return Arrays.stream(csv.split(",")).map(String::trim).filter(s -> !s.isEmpty()).distinct().toList();
+    }
+
+    private String snapshotName(String requested) {
+        return requested == null || requested.isBlank() ? registry.defaultName() : requested;
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
     }
 }
@@ -1,107 +1,384 @@
 package com.belmonttech.graph.backend;
 
+import com.belmonttech.graph.backend.dto.DiffSliceDto;
 import com.belmonttech.graph.backend.dto.GraphSliceDto;
+import com.belmonttech.graph.backend.dto.NodeDeltaDto;
+import com.belmonttech.graph.backend.dto.NodeQueryDto;
+import com.belmonttech.graph.backend.dto.PathSliceDto;
+import com.belmonttech.graph.backend.dto.QueryResultDto;
+import com.belmonttech.graph.backend.dto.ReachabilityDto;
+import com.belmonttech.graph.backend.dto.SearchResultDto;
+import com.belmonttech.graph.backend.exec.QueryExecutor;
+import com.belmonttech.graph.backend.lod.SliceCoarsener;
+import com.belmonttech.graph.backend.reach.ReachabilityService;
+import com.belmonttech.graph.backend.registry.PreparedSnapshot;
+import com.belmonttech.graph.backend.registry.SnapshotRegistry;
 import com.belmonttech.graph.model.*;
+import com.belmonttech.graph.model.diff.NodeChange;
+import com.belmonttech.graph.model.diff.SnapshotDiff;
+import com.belmonttech.graph.model.diff.SnapshotDiffer;
+import com.belmonttech.graph.model.index.AdjacencyIndex;
+import com.belmonttech.graph.model.index.NameSearchIndex;
+import com.belmonttech.graph.model.index.Reachability;
+import com.belmonttech.graph.model.index.RootCauseIndex;
+import com.belmonttech.graph.model.columnar.SnapshotColumns;
+import com.belmonttech.graph.model.progress.ProgressListener;
+import com.belmonttech.graph.model.query.NodeColumnIndex;
+import com.belmonttech.graph.model.query.NodePredicate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class GraphService {
 
-  private volatile GraphSnapshot snapshot = new GraphSnapshot(Map.of(), List.of());
+  /** Upper bound for a client-requested node budget. */
+  public static final int MAX_NODE_BUDGET = 20_000;
+  /** Upper bound for the number of critical paths returned at once. */
+  public static final int MAX_PATHS = 50;
+  /** Hop limit for the node-to-node path search. */
+  public static final int MAX_PATH_DEPTH = 64;
+  /** Default and upper bound for the number of nodes a slice query returns. */
+  public static final int DEFAULT_QUERY_LIMIT = 500;
+  public static final int MAX_QUERY_LIMIT = MAX_NODE_BUDGET;
+  /** Upper bound for the page size of a search. */
+  public static final int MAX_SEARCH_LIMIT = 500;
 
-  public void updateSnapshot(GraphSnapshot newSnapshot) {
-    this.snapshot = (newSnapshot == null) ? new GraphSnapshot(Map.of(), List.of()) : newSnapshot;
+  private final SnapshotRegistry registry;
+  private final ReachabilityService reachability;
+  private final int nodeBudget;
+  private final int maxSliceNodes;
+
+  public GraphService(SnapshotRegistry registry, ReachabilityService reachability,
+                      @Value("${graph.lod.node-budget:1500}") int nodeBudget,
+                      @Value("${graph.lod.max-slice-nodes:200000}") int maxSliceNodes) {
+    this.registry = registry;
+    this.reachability = reachability;
+    this.nodeBudget = nodeBudget;
+    this.maxSliceNodes = maxSliceNodes;
   }
 
-  public GraphSliceDto getPackageLevelGraph() {
-    GraphSnapshot current = snapshot;
-    Map<String, GraphNode> allNodes = current.nodes();
-    Map<String, Aggregation> packages = new HashMap<>();
-    for (GraphNode node : allNodes.values()) {
-      String pkg = node.packageName();
-      if (pkg == null || pkg.isBlank()) continue;
-      Aggregation agg = packages.computeIfAbsent(pkg, k -> new Aggregation());
-      agg.cost += node.cost();
-      agg.complexity += node.complexity();
-      agg.count++;
-    }
-    List<GraphNode> packageNodes = new ArrayList<>();
-    for (var e : packages.entrySet()) {
-      String pkg = e.getKey(); Aggregation agg = e.getValue();
-      int avgCost = agg.count == 0 ? 0 : agg.cost / agg.count;
-      boolean hotspot = avgCost >= CostLevel.HIGH.code();
-      packageNodes.add(new GraphNode("pkg:"+pkg, NodeLevel.PACKAGE, pkg, pkg, null, null, null, avgCost, agg.complexity, hotspot));
-    }
-    Map<String,Integer> edgeAgg = new HashMap<>();
-    for (GraphEdge edge : current.edges()) {
-      if (edge.type() != EdgeType.INVOCATION) continue;
-      GraphNode src = allNodes.get(edge.sourceId());
-      GraphNode tgt = allNodes.get(edge.targetId());
-      if (src == null || tgt == null) continue;
-      String sp = src.packageName(); String tp = tgt.packageName();
-      if (sp == null || tp == null || sp.equals(tp)) continue;
-      String key = sp+"->"+tp;
-      edgeAgg.merge(key, edge.weight(), Integer::sum);
-    }
-    List<GraphEdge> packageEdges = new ArrayList<>(); int idx = 0;
-    for (var e : edgeAgg.entrySet()) {
-      String[] parts = e.getKey().split("->"); if (parts.length!=2) continue;
-      packageEdges.add(new GraphEdge("pkgEdge:"+(idx++), "pkg:"+parts[0], "pkg:"+parts[1], EdgeType.INVOCATION, e.getValue()));
+  /** Prepares and installs a snapshot under {@code name}; it can only be re-read if {@code source} is given. */
+  public void updateSnapshot(String name, GraphSnapshot newSnapshot, Path source, boolean ownsSource) {
+    updateSnapshot(name, newSnapshot, source, ownsSource, null);
+  }
+
+  /** As above, reporting the index build to {@code listener} (optional). */
+  public void updateSnapshot(String name, GraphSnapshot newSnapshot, Path source, boolean ownsSource,
+                             ProgressListener listener) {
+    registry.install(name, registry.prepare(newSnapshot, listener), source, ownsSource);
+  }
+
+  /** Version of the named snapshot; bumped on every swap and used to key ETags and cached responses. */
+  public long version(String snapshot) {
+    return registry.version(snapshot);
+  }
+
+  public GraphSliceDto getPackageLevelGraph(String snapshot) {
+    return registry.acquire(snapshot).packageGraph();
+  }
+
+  public GraphSliceDto getClassesInPackage(String snapshot, String pkgName) {
+    return getClassesInPackage(snapshot, pkgName, null, null);
+  }
+
+  /**
+   * Classes and interfaces of a package, coarsened to {@code budget} nodes (the configured default if null);
+   * {@code expand} drills into a cluster of an earlier response.
+   */
+  public GraphSliceDto getClassesInPackage(String snapshot, String pkgName, Integer budget, String expand) {
+    AdjacencyIndex index = registry.acquire(snapshot).index();
+    BitSet members = new BitSet(index.nodeCount());
+    for (int i = 0; i < index.nodeCount(); i++) {
+      GraphNode n = index.node(i);
+      if ((n.level()==NodeLevel.CLASS || n.level()==NodeLevel.INTERFACE) && pkgName.equals(n.packageName())) {
+        members.set(i);
+      }
     }
-    return new GraphSliceDto(packageNodes, packageEdges);
-  }
-
-  public GraphSliceDto getClassesInPackage(String pkgName) {
-    GraphSnapshot current = snapshot;
-    List<GraphNode> classNodes = current.nodes().values().stream()
-      .filter(n -> (n.level()==NodeLevel.CLASS || n.level()==NodeLevel.INTERFACE) && pkgName.equals(n.packageName()))
-      .collect(Collectors.toList());
-    Set<String> ids = classNodes.stream().map(GraphNode::id).collect(Collectors.toSet());
-    List<GraphEdge> edges = current.edges().stream()
-      .filter(e -> ids.contains(e.sourceId()) && ids.contains(e.targetId()))
-      .collect(Collectors.toList());
-    return new GraphSliceDto(classNodes, edges);
-  }
-
-  public GraphSliceDto getNeighborhood(String nodeId, int depth) {
-    GraphSnapshot current = snapshot;
-    if (!current.nodes().containsKey(nodeId)) return new GraphSliceDto(List.of(), List.of());
-    Map<String,GraphNode> allNodes = current.nodes();
-    List<GraphEdge> allEdges = current.edges();
-    Set<String> visited = new HashSet<>(); visited.add(nodeId);
-    Deque<String> q = new ArrayDeque<>(); q.add(nodeId);
-    int maxNodes = 5000;
-    for (int d=0; d<depth; d++) {
+    return SliceCoarsener.coarsen(index, members, budget(budget), -1, expand, false);
+  }
+
+  public GraphSliceDto getNeighborhood(String snapshot, String nodeId, int depth) {
+    return getNeighborhood(snapshot, nodeId, depth, null, null);
+  }
+
+  /**
+   * Nodes within {@code depth} hops of {@code nodeId}, coarsened to {@code budget} nodes around it. The walk itself
+   * stops at {@code graph.lod.max-slice-nodes}; the result then says {@code truncated}.
+   */
+  public GraphSliceDto getNeighborhood(String snapshot, String nodeId, int depth, Integer budget, String expand) {
+    AdjacencyIndex index = registry.acquire(snapshot).index();
+    int start = index.ordinal(nodeId);
+    if (start < 0) return new GraphSliceDto(List.of(), List.of());
+    BitSet visited = new BitSet(index.nodeCount()); visited.set(start);
+    int visitedCount = 1;
+    IntQueue q = new IntQueue(); q.add(start);
+    int maxNodes = maxSliceNodes;
+    for (int d=0; d<depth && visitedCount<maxNodes; d++) {
+      QueryExecutor.checkCancelled();
       int sz = q.size();
-      for (int i=0;i<sz;i++) {
-        String cur = q.poll(); if (cur==null) continue;
-        for (GraphEdge e : allEdges) {
-          if (e.sourceId().equals(cur) || e.targetId().equals(cur)) {
-            String other = e.sourceId().equals(cur)?e.targetId():e.sourceId();
-            if (visited.add(other)) { q.add(other); if (visited.size()>=maxNodes) break; }
-          }
+      for (int i=0;i<sz && visitedCount<maxNodes;i++) {
+        int cur = q.poll();
+        for (int k = index.outStart(cur); k < index.outEnd(cur) && visitedCount < maxNodes; k++) {
+          int other = index.target(index.outEdgeAt(k));
+          if (!visited.get(other)) { visited.set(other); visitedCount++; q.add(other); }
+        }
+        for (int k = index.inStart(cur); k < index.inEnd(cur) && visitedCount < maxNodes; k++) {
+          int other = index.source(index.inEdgeAt(k));
+          if (!visited.get(other)) { visited.set(other); visitedCount++; q.add(other); }
         }
-        if (visited.size()>=maxNodes) break;
       }
-      if (visited.size()>=maxNodes) break;
     }
-    List<GraphNode> nodes = visited.stream().map(allNodes::get).filter(Objects::nonNull).collect(Collectors.toList());
-    List<GraphEdge> edges = allEdges.stream().filter(e -> visited.contains(e.sourceId()) && visited.contains(e.targetId())).collect(Collectors.toList());
-    return new GraphSliceDto(nodes, edges);
+    return SliceCoarsener.coarsen(index, visited, budget(budget), start, expand, visitedCount >= maxNodes);
   }
 
-  public GraphSliceDto getHotspots(int limit) {
-    GraphSnapshot current = snapshot;
-    List<GraphNode> sorted = current.nodes().values().stream()
+  public GraphSliceDto getHotspots(String snapshot, int limit) {
+    AdjacencyIndex index = registry.acquire(snapshot).index();
+    List<GraphNode> sorted = index.snapshot().nodes().values().stream()
       .sorted(Comparator.comparingInt(GraphNode::cost).reversed().thenComparingInt(GraphNode::complexity).reversed())
       .limit(limit).toList();
-    Set<String> ids = sorted.stream().map(GraphNode::id).collect(Collectors.toSet());
-    List<GraphEdge> edges = current.edges().stream().filter(e -> ids.contains(e.sourceId()) || ids.contains(e.targetId())).toList();
+    BitSet top = new BitSet(index.nodeCount());
+    for (GraphNode n : sorted) { int o = index.ordinal(n.id()); if (o >= 0) top.set(o); }
+    List<GraphEdge> edges = new ArrayList<>();
+    for (int i = top.nextSetBit(0); i >= 0; i = top.nextSetBit(i + 1)) {
+      for (int k = index.outStart(i); k < index.outEnd(i); k++) edges.add(index.edge(index.outEdgeAt(k)));
+      for (int k = index.inStart(i); k < index.inEnd(i); k++) {
+        int e = index.inEdgeAt(k);
+        if (!top.get(index.source(e))) edges.add(index.edge(e)); // already added as an outgoing edge
+      }
+    }
     return new GraphSliceDto(sorted, edges);
   }
 
-  private static class Aggregation { int cost, complexity, count; }
+  /**
+   * Transitive callers or callees of {@code nodeId} as counts per level and, with {@code byPackage}, per package.
+   * {@code type} (null for all) restricts the edges followed; {@code depth <= 0} walks the full closure and
+   * {@code minCost} prunes cheaper nodes.
+   */
+  public ReachabilityDto getReachability(String snapshot, String nodeId, Reachability.Direction direction,
+                                         EdgeType type, int depth, int minCost, boolean byPackage) {
+    long version = registry.version(snapshot);
+    PreparedSnapshot prepared = registry.acquire(snapshot);
+    AdjacencyIndex index = prepared.index();
+    int start = index.ordinal(nodeId);
+    if (start < 0) return new ReachabilityDto(nodeId, direction.name(), 0, 0, 0, true, Map.of(), null);
+    Reachability.Result r = reachability.reach(snapshot, version, prepared, start, direction, type, depth, minCost);
+
+    SnapshotColumns columns = index.columns();
+    boolean callers = direction == Reachability.Direction.CALLERS;
+    Map<String, Integer> levels = new TreeMap<>();
+    Map<String, Integer> packages = byPackage ? new HashMap<>() : null;
+    int leaves = 0;
+    BitSet reached = r.reached();
+    for (int i = reached.nextSetBit(0); i >= 0; i = reached.nextSetBit(i + 1)) {
+      if (i == start) continue;
+      NodeLevel level = columns != null ? columns.level(i) : index.node(i).level();
+      levels.merge(String.valueOf(level), 1, Integer::sum);
+      if (packages != null) {
+        String pkg = columns != null ? columns.packageName(i) : index.node(i).packageName();
+        packages.merge(pkg == null ? "" : pkg, 1, Integer::sum);
+      }
+      boolean leaf = true;
+      int from = callers ? index.inStart(i) : index.outStart(i);
+      int to = callers ? index.inEnd(i) : index.outEnd(i);
+      for (int k = from; k < to && leaf; k++) {
+        int e = callers ? index.inEdgeAt(k) : index.outEdgeAt(k);
+        leaf = type != null && type != (columns != null ? columns.edgeType(e) : index.edge(e).type());
+      }
+      if (leaf) leaves++;
+    }
+    Map<String, Integer> sortedPackages = null;
+    if (packages != null) {
+      sortedPackages = new LinkedHashMap<>();
+      for (var e : packages.entrySet().stream()
+          .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+          .toList()) {
+        sortedPackages.put(e.getKey(), e.getValue());
+      }
+    }
+    return new ReachabilityDto(nodeId, direction.name(), r.count(), leaves, r.depth(), r.complete(), levels,
+      sortedPackages);
+  }
+
+  /** The nodes of {@link #getReachability} as a slice around {@code nodeId}, coarsened to {@code budget}. */
+  public GraphSliceDto getReachableSlice(String snapshot, String nodeId, Reachability.Direction direction,
+                                         EdgeType type, int depth, int minCost, Integer budget, String expand) {
+    long version = registry.version(snapshot);
+    PreparedSnapshot prepared = registry.acquire(snapshot);
+    int start = prepared.index().ordinal(nodeId);
+    if (start < 0) return new GraphSliceDto(List.of(), List.of());
+    Reachability.Result r = reachability.reach(snapshot, version, prepared, start, direction, type, depth, minCost);
+    return SliceCoarsener.coarsen(prepared.index(), r.reached(), budget(budget), start, expand, false);
+  }
+
+  /**
+   * Ad-hoc slice: the nodes matching {@code query.where()}, sorted and limited, with the edges among them that
+   * pass the edge filters. Evaluated on the snapshot's column indexes, not by scanning it.
+   *
+   * @throws IllegalArgumentException for an unknown level, edge type, sort key or order
+   */
+  public QueryResultDto query(String snapshot, NodeQueryDto query) {
+    NodePredicate where = toPredicate(query.where());
+    Set<EdgeType> types = EnumSet.noneOf(EdgeType.class);
+    if (query.edgeTypes() != null) for (String t : query.edgeTypes()) types.add(EdgeType.valueOf(t.toUpperCase()));
+    NodeColumnIndex.SortKey sort = query.sort() == null ? NodeColumnIndex.SortKey.COST
+      : NodeColumnIndex.SortKey.valueOf(query.sort().toUpperCase());
+    String order = query.order() == null ? "desc" : query.order().toLowerCase();
+    if (!order.equals("desc") && !order.equals("asc")) throw new IllegalArgumentException("Unknown order: " + order);
+    int limit = query.limit() == null ? DEFAULT_QUERY_LIMIT : Math.max(0, Math.min(query.limit(), MAX_QUERY_LIMIT));
+
+    NodeColumnIndex columns = registry.acquire(snapshot).columnIndex();
+    AdjacencyIndex index = columns.index();
+    BitSet matches = columns.evaluate(where);
+    int[] selected = columns.select(matches, sort, order.equals("desc"), limit);
+    BitSet kept = new BitSet(index.nodeCount());
+    List<GraphNode> nodes = new ArrayList<>(selected.length);
+    for (int o : selected) {
+      kept.set(o);
+      nodes.add(index.node(o));
+    }
+    int minWeight = query.minWeight() == null ? 0 : query.minWeight();
+    List<GraphEdge> edges = Arrays.stream(columns.edgesWithin(kept, types, minWeight)).mapToObj(index::edge).toList();
+    return new QueryResultDto(nodes, edges, matches.cardinality());
+  }
+
+  private static NodePredicate toPredicate(NodeQueryDto.Filter f) {
+    if (f == null) return new NodePredicate.All();
+    List<NodePredicate> terms = new ArrayList<>();
+    if (f.level() != null) {
+      Set<NodeLevel> levels = EnumSet.noneOf(NodeLevel.class);
+      for (String l : f.level()) levels.add(NodeLevel.valueOf(l.toUpperCase()));
+      terms.add(new NodePredicate.Level(levels));
+    }
+    if (f.minCost() != null || f.maxCost() != null) terms.add(new NodePredicate.CostRange(f.minCost(), f.maxCost()));
+    if (f.minComplexity() != null || f.maxComplexity() != null) {
+      terms.add(new NodePredicate.ComplexityRange(f.minComplexity(), f.maxComplexity()));
+    }
+    if (f.hotspot() != null) terms.add(new NodePredicate.Hotspot(f.hotspot()));
+    if (f.packagePrefix() != null) terms.add(new NodePredicate.PackagePrefix(f.packagePrefix()));
+    if (f.and() != null) for (NodeQueryDto.Filter a : f.and()) terms.add(toPredicate(a));
+    if (f.or() != null) terms.add(new NodePredicate.Or(f.or().stream().map(GraphService::toPredicate).toList()));
+    return terms.size() == 1 ? terms.get(0) : new NodePredicate.And(terms);
+  }
+
+  /** Nodes whose names match {@code query}, ranked by cost; see {@link NameSearchIndex#search}. */
+  public SearchResultDto search(String snapshot, String query, NameSearchIndex.Mode mode, NodeLevel level,
+                                int offset, int limit) {
+    PreparedSnapshot prepared = registry.acquire(snapshot);
+    int from = Math.max(0, offset);
+    int size = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+    NameSearchIndex.Page page = prepared.search().search(query, mode, level, from, size);
+    List<GraphNode> nodes = new ArrayList<>(page.ordinals().length);
+    for (int o : page.ordinals()) nodes.add(prepared.index().node(o));
+    return new SearchResultDto(nodes, page.total(), from, size);
+  }
+
+  /**
+   * Critical INVOCATION paths from {@code nodeId}. Without {@code targetId}, up to {@code limit} paths to distinct
+   * root causes, the nodes where its cost originates; {@code heaviest} picks, among the shortest paths, the one
+   * with the largest summed call weight. With {@code targetId}, the shortest call path between the two nodes.
+   * Unknown ids or unconnected nodes give an empty result.
+   */
+  public PathSliceDto getCriticalPaths(String snapshot, String nodeId, String targetId, boolean heaviest, int limit) {
+    PreparedSnapshot prepared = registry.acquire(snapshot);
+    AdjacencyIndex index = prepared.index();
+    RootCauseIndex rootCauses = prepared.rootCauses();
+    int from = index.ordinal(nodeId);
+    List<int[]> paths = new ArrayList<>();
+    if (from >= 0 && targetId != null) {
+      int to = index.ordinal(targetId);
+      int[] path = to < 0 ? null : rootCauses.shortestPath(from, to, MAX_PATH_DEPTH);
+      if (path != null) paths.add(path);
+    } else if (from >= 0) {
+      paths = rootCauses.paths(from, Math.max(1, Math.min(limit, MAX_PATHS)), heaviest);
+    }
+
+    BitSet onPath = new BitSet(index.nodeCount());
+    Set<Integer> pathEdges = new LinkedHashSet<>();
+    List<List<String>> ids = new ArrayList<>(paths.size());
+    for (int[] path : paths) {
+      List<String> p = new ArrayList<>(path.length);
+      for (int k = 0; k < path.length; k++) {
+        onPath.set(path[k]);
+        p.add(index.node(path[k]).id());
+        if (k > 0) pathEdges.add(heaviestCall(index, rootCauses, path[k - 1], path[k]));
+      }
+      ids.add(p);
+    }
+    List<GraphNode> nodes = new ArrayList<>(onPath.cardinality());
+    for (int i = onPath.nextSetBit(0); i >= 0; i = onPath.nextSetBit(i + 1)) nodes.add(index.node(i));
+    List<GraphEdge> edges = pathEdges.stream().map(index::edge).toList();
+    return new PathSliceDto(nodes, edges, ids);
+  }
+
+  /** The INVOCATION edge from {@code u} to {@code v} with the largest weight (parallel edges may survive loading). */
+  private static int heaviestCall(AdjacencyIndex index, RootCauseIndex rootCauses, int u, int v) {
+    int best = -1;
+    for (int k = index.outStart(u); k < index.outEnd(u); k++) {
+      int e = index.outEdgeAt(k);
+      if (index.target(e) != v || !rootCauses.isInvocation(e)) continue;
+      if (best < 0 || index.edge(e).weight() > index.edge(best).weight()) best = e;
+    }
+    return best;
+  }
+
+  /**
+   * Diff of {@code snapshot} against {@code base}. Changed nodes come first, ordered by cost and then
+   * complexity increase, followed by added and (unless {@code regressionsOnly}) removed nodes, {@code limit}
+   * (clamped to 0..{@link #MAX_NODE_BUDGET}) in total.
+   */
+  public DiffSliceDto getDiff(String base, String snapshot, boolean regressionsOnly, int requestedLimit) {
+    int limit = Math.max(0, Math.min(requestedLimit, MAX_NODE_BUDGET));
+    SnapshotDiff diff = SnapshotDiffer.diff(registry.acquire(base).snapshot(), registry.acquire(snapshot).snapshot());
+
+    List<GraphNode> nodes = new ArrayList<>();
+    Map<String, NodeDeltaDto> deltas = new LinkedHashMap<>();
+    diff.changedNodes().stream()
+      .filter(c -> !regressionsOnly || c.isRegression())
+      .sorted(Comparator.comparingInt(NodeChange::costDelta).thenComparingInt(NodeChange::complexityDelta).reversed())
+      .limit(limit)
+      .forEach(c -> {
+        nodes.add(c.after());
+        deltas.put(c.id(), new NodeDeltaDto("CHANGED", c.before().cost(), c.after().cost(),
+          c.before().complexity(), c.after().complexity()));
+      });
+    diff.addedNodes().stream()
+      .sorted(Comparator.comparingInt(GraphNode::cost).thenComparingInt(GraphNode::complexity).reversed())
+      .limit(Math.max(0, limit - nodes.size()))
+      .forEach(n -> {
+        nodes.add(n);
+        deltas.put(n.id(), new NodeDeltaDto("ADDED", 0, n.cost(), 0, n.complexity()));
+      });
+    if (!regressionsOnly) {
+      diff.removedNodes().stream()
+        .sorted(Comparator.comparingInt(GraphNode::cost).thenComparingInt(GraphNode::complexity).reversed())
+        .limit(Math.max(0, limit - nodes.size()))
+        .forEach(n -> {
+          nodes.add(n);
+          deltas.put(n.id(), new NodeDeltaDto("REMOVED", n.cost(), 0, n.complexity(), 0));
+        });
+    }
+    // only edges between nodes of the slice, so every edge end resolves on the client
+    List<GraphEdge> added = diff.addedEdges().stream()
+      .filter(e -> deltas.containsKey(e.sourceId()) && deltas.containsKey(e.targetId())).toList();
+    List<GraphEdge> removed = diff.removedEdges().stream()
+      .filter(e -> deltas.containsKey(e.sourceId()) && deltas.containsKey(e.targetId())).toList();
+    return new DiffSliceDto(nodes, added, removed, deltas, new DiffSliceDto.Summary(diff.addedNodes().size(),
+      diff.removedNodes().size(), diff.changedNodes().size(), diff.addedEdges().size(), diff.removedEdges().size()));
+  }
+
+  private int budget(Integer requested) {
+    return requested == null ? nodeBudget : Math.max(10, Math.min(requested, MAX_NODE_BUDGET));
+  }
+
+  /** Growable int FIFO so BFS over ordinals does not box every visited node. */
+  private static final class IntQueue {
+    private int[] items = new int[64];
+    private int head, tail;
+    void add(int v) { if (tail == items.length) items = Arrays.copyOf(items, items.length * 2); items[tail++] = v; }
+    int poll() { return items[head++]; }
+    int size() { return tail - head; }
+  }
 }
@@ -0,0 +1,84 @@
+package com.belmonttech.graph.backend.cache;
+
+import com.belmonttech.graph.backend.metrics.CacheStats;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Bounded LRU cache of serialized slice responses keyed by (endpoint, params, snapshot version).
+ * Entries for older snapshot versions are never hit again and simply age out of the LRU order.
+ */
+@Component
+public class SliceResponseCache {
+
+  /**
+   * Snapshot versions restart at 1 in every process, so a tag from before a restart could name different data
+   * under the same version; this per-process prefix makes sure it never matches again.
+   */
+  private static final String EPOCH = Integer.toHexString(new SecureRandom().nextInt());
+
+  private final int maxEntries;
+  private final long maxBytes;
+  private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+  private final CacheStats stats = new CacheStats();
+  private long totalBytes;
+
+  public SliceResponseCache(@Value("${graph.cache.max-entries:512}") int maxEntries,
+                            @Value("${graph.cache.max-bytes:67108864}") long maxBytes) {
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+  }
+
+  public synchronized byte[] get(Key key) {
+    byte[] body = entries.get(key);
+    stats.record(body != null);
+    return body;
+  }
+
+  public synchronized void put(Key key, byte[] body) {
+    if (maxEntries <= 0 || body.length > maxBytes) return;
+    byte[] previous = entries.put(key, body);
+    if (previous != null) totalBytes -= previous.length;
+    totalBytes += body.length;
+    Iterator<Map.Entry<Key, byte[]>> it = entries.entrySet().iterator();
+    while ((entries.size() > maxEntries || totalBytes > maxBytes) && it.hasNext()) {
+      totalBytes -= it.next().getValue().length;
+      it.remove();
+    }
+  }
+
+  public CacheStats stats() {
+    return stats;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long bytes() {
+    return totalBytes;
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    totalBytes = 0;
+  }
+
+  public record Key(String endpoint, String params, long version) {
+
+    /** Strong ETag: process epoch, snapshot version and a checksum of endpoint and query parameters. */
+    public String etag() {
+      CRC32 crc = new CRC32();
+      crc.update((endpoint + '?' + params).getBytes(StandardCharsets.UTF_8));
+      return "\"" + EPOCH + "-" + version + "-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+  }
+}
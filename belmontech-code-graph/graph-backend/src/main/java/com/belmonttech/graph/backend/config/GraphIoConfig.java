@@ -1,16 +1,29 @@
 package com.belmonttech.graph.backend.config;
 
+import com.belmonttech.graph.model.io.BinarySnapshotSerializer;
 import com.belmonttech.graph.model.io.DataLoader;
 import com.belmonttech.graph.model.io.JsonSerializer;
 import com.belmonttech.graph.model.io.ToonSerializer;
+import com.belmonttech.graph.model.normalize.EdgeNormalizer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class GraphIoConfig {
-  @Bean public DataLoader dataLoader() {
+  @Bean public DataLoader dataLoader(@Value("${graph.load.parallelism:0}") int parallelism,
+                                     @Value("${graph.load.parallel-threshold-bytes:8388608}") long threshold,
+                                     @Value("${graph.normalize.enabled:true}") boolean normalize,
+                                     @Value("${graph.normalize.merge-parallel:true}") boolean mergeParallel,
+                                     @Value("${graph.normalize.remove-self-loops:false}") boolean removeSelfLoops) {
     DataLoader loader = new DataLoader();
+    if (parallelism > 0) loader.setParallelism(parallelism);
+    loader.setParallelThreshold(threshold);
     loader.registerSerializer("json", new JsonSerializer());
     loader.registerSerializer("toon", new ToonSerializer());
+    // .cgb files are mapped and indexed as they are, so they get the registry's normalization when written;
+    // dangling edges are kept in the file and left unlinked by the index
+    loader.registerSerializer("cgb", new BinarySnapshotSerializer(
+        normalize ? new EdgeNormalizer.Options(mergeParallel, false, removeSelfLoops) : null));
     return loader; }
 }
@@ -0,0 +1,20 @@
+package com.belmonttech.graph.backend.config;
+
+import org.apache.tomcat.util.buf.EncodedSolidusHandling;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Method ids contain {@code /} ({@code com.acme.Foo#bar/2}) and travel as path variables, encoded as {@code %2F}
+ * ({@code /nodes/{nodeId}/neighborhood}, {@code /critical-paths}, {@code /reach}). Tomcat rejects an encoded slash
+ * in the path by default; passing it through leaves it to Spring MVC, which decodes it inside the path variable.
+ */
+@Configuration
+public class WebServerConfig {
+  @Bean public WebServerFactoryCustomizer<TomcatServletWebServerFactory> passEncodedSlashes() {
+    return factory -> factory.addConnectorCustomizers(
+        connector -> connector.setEncodedSolidusHandling(EncodedSolidusHandling.PASS_THROUGH.getValue()));
+  }
+}
@@ -0,0 +1,7 @@
+package com.belmonttech.graph.backend.dto;
+
+/**
+ * A supernode of a coarsened slice. {@code kind} is {@code CLASS}, {@code PACKAGE}, {@code COMMUNITY} or
+ * {@code OTHER}; passing {@code expand} back as the {@code expand} parameter of the same request drills into it.
+ */
+public record ClusterDto(String id, String kind, int members, String expand) {}
@@ -0,0 +1,17 @@
+package com.belmonttech.graph.backend.dto;
+
+import com.belmonttech.graph.model.GraphEdge;
+import com.belmonttech.graph.model.GraphNode;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Slice of a snapshot diff. {@code nodes} holds the target-side node (base-side for removed nodes), annotated
+ * by {@code nodeDeltas}; {@code edges} are edges new in the target, {@code removedEdges} those only in the base,
+ * both restricted to edges between nodes of the slice. {@code summary} counts the whole diff.
+ */
+public record DiffSliceDto(List<GraphNode> nodes, List<GraphEdge> edges, List<GraphEdge> removedEdges,
+                           Map<String, NodeDeltaDto> nodeDeltas, Summary summary) {
+
+  public record Summary(int addedNodes, int removedNodes, int changedNodes, int addedEdges, int removedEdges) {}
+}
@@ -0,0 +1,16 @@
+package com.belmonttech.graph.backend.dto;
+
+import com.belmonttech.graph.model.GraphEdge;
+import com.belmonttech.graph.model.GraphNode;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * One batch of changes to the view of an expansion session. {@code seq} numbers the batches of a session without
+ * gaps, so a client that sees a jump re-reads the full view. {@code done} marks the last batch of an operation;
+ * {@code truncated} is set on it when the view hit {@code graph.lod.max-slice-nodes}.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record ExpansionDeltaDto(long seq, List<GraphNode> addedNodes, List<GraphEdge> addedEdges,
+                                List<String> removedNodes, List<String> removedEdges, boolean done,
+                                Boolean truncated) {}
@@ -0,0 +1,10 @@
+package com.belmonttech.graph.backend.dto;
+
+import java.util.Map;
+
+/**
+ * State of an expansion session: the expanded nodes with their depth, the size of the view the client holds and
+ * the {@code seq} of the last delta sent.
+ */
+public record ExpansionSessionDto(String sessionId, String snapshot, long version, Map<String, Integer> roots,
+                                  int nodes, int edges, long seq) {}
@@ -2,6 +2,28 @@ package com.belmonttech.graph.backend.dto;
 
 import com.belmonttech.graph.model.GraphEdge;
 import com.belmonttech.graph.model.GraphNode;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
+import java.util.Map;
 
-public record GraphSliceDto(List<GraphNode> nodes, List<GraphEdge> edges) {}
+/**
+ * Nodes and edges of a slice. {@code clusters} is set when the slice was coarsened to its node budget: it
+ * describes the supernodes among {@code nodes}. {@code truncated} is set when collecting the slice itself hit
+ * a hard limit. {@code positions} maps node ids to {@code [x, y]} when a server-side layout was requested.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record GraphSliceDto(List<GraphNode> nodes, List<GraphEdge> edges, List<ClusterDto> clusters,
+                            Boolean truncated, Map<String, float[]> positions) {
+
+  public GraphSliceDto(List<GraphNode> nodes, List<GraphEdge> edges) {
+    this(nodes, edges, null, null, null);
+  }
+
+  public GraphSliceDto(List<GraphNode> nodes, List<GraphEdge> edges, List<ClusterDto> clusters, Boolean truncated) {
+    this(nodes, edges, clusters, truncated, null);
+  }
+
+  public GraphSliceDto withPositions(Map<String, float[]> positions) {
+    return new GraphSliceDto(nodes, edges, clusters, truncated, positions);
+  }
+}
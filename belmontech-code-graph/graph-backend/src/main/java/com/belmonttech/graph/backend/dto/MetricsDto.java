@@ -0,0 +1,45 @@
+package com.belmonttech.graph.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runtime metrics of the backend since start. Durations are in milliseconds; percentiles come from log-linear
+ * histograms and are within 2% of the exact value. {@code endpoints} is keyed by slice endpoint, {@code loads} by
+ * serializer format, {@code caches} by cache; {@code slowQueries} holds the most recent slow requests, newest first.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MetricsDto(long uptimeMillis, Heap heap, List<SnapshotInfoDto> snapshots, Map<String, Load> loads,
+                         Latency prepare, Map<String, Cache> caches, Executor executor,
+                         Map<String, Endpoint> endpoints, List<SlowQuery> slowQueries) {
+
+  /** {@code snapshotBytes} is the estimated footprint of the loaded snapshots, held against {@code budgetBytes}. */
+  public record Heap(long usedBytes, long committedBytes, long maxBytes, long snapshotBytes, long budgetBytes) {}
+
+  public record Latency(long count, double meanMs, double p50Ms, double p90Ms, double p99Ms, double maxMs) {}
+
+  public record Sizes(double mean, long p50, long p99, long max) {}
+
+  /** {@code mbPerSecond} only counts loads whose size was known up front (files, not streams). */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record Load(long count, long failures, long bytes, Latency duration, Double mbPerSecond) {}
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record Cache(long hits, long misses, Double hitRate, Integer entries, Long bytes) {}
+
+  public record Executor(int inFlight, int freeHeavySlots, int queuedHeavyQueries, long rejected, Latency slotWait) {}
+
+  /**
+   * {@code outcomes} counts requests answered by 304 ({@code NOT_MODIFIED}), from the response cache
+   * ({@code CACHED}), by computing ({@code COMPUTED}), by joining an identical running query ({@code SHARED}) or
+   * with an error ({@code FAILED}). Result sizes cover computed responses only.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record Endpoint(long requests, Map<String, Long> outcomes, Latency latency, Sizes nodes, Sizes edges,
+                         Sizes bytes) {}
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record SlowQuery(String time, String endpoint, String snapshot, String params, double millis, String outcome,
+                          Integer nodes, Integer edges, Integer bytes, String error) {}
+}
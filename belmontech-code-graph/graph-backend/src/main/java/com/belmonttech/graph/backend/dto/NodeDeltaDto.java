@@ -0,0 +1,3 @@
+package com.belmonttech.graph.backend.dto;
+
+public record NodeDeltaDto(String status, int costBefore, int costAfter, int complexityBefore, int complexityAfter) {}
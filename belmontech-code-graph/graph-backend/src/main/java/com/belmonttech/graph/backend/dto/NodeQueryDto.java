@@ -0,0 +1,20 @@
+package com.belmonttech.graph.backend.dto;
+
+import java.util.List;
+
+/**
+ * Body of an ad-hoc slice query. {@code where} selects the nodes (null for all), {@code edgeTypes} and
+ * {@code minWeight} the edges between them that are returned. {@code sort} is {@code cost} (default),
+ * {@code complexity} or {@code id}; {@code order} is {@code desc} (default) or {@code asc}.
+ */
+public record NodeQueryDto(Filter where, List<String> edgeTypes, Integer minWeight, String sort, String order,
+                           Integer limit) {
+
+  /**
+   * One filter term. All fields that are set must hold (AND), including every {@code and} term and at least one
+   * of the {@code or} terms. Ranges are inclusive.
+   */
+  public record Filter(List<String> level, Integer minCost, Integer maxCost, Integer minComplexity,
+                       Integer maxComplexity, Boolean hotspot, String packagePrefix, List<Filter> and,
+                       List<Filter> or) {}
+}
@@ -0,0 +1,11 @@
+package com.belmonttech.graph.backend.dto;
+
+import com.belmonttech.graph.model.GraphEdge;
+import com.belmonttech.graph.model.GraphNode;
+import java.util.List;
+
+/**
+ * INVOCATION paths through a snapshot. {@code paths} lists each path as node ids from the start node on;
+ * {@code nodes} and {@code edges} hold every node and call edge on them once.
+ */
+public record PathSliceDto(List<GraphNode> nodes, List<GraphEdge> edges, List<List<String>> paths) {}
@@ -0,0 +1,8 @@
+package com.belmonttech.graph.backend.dto;
+
+import com.belmonttech.graph.model.GraphEdge;
+import com.belmonttech.graph.model.GraphNode;
+import java.util.List;
+
+/** Result of a slice query: the first {@code limit} of {@code total} matching nodes and the edges among them. */
+public record QueryResultDto(List<GraphNode> nodes, List<GraphEdge> edges, int total) {}
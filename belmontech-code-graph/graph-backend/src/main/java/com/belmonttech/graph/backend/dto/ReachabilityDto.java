@@ -0,0 +1,14 @@
+package com.belmonttech.graph.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.Map;
+
+/**
+ * Summary of a reachability query. {@code reached} excludes the start node; {@code leaves} counts the reached
+ * nodes with no further edge in the walk's direction (the entry points when walking callers).
+ * {@code complete} is false when the depth bound cut the walk short. {@code byPackage} (reached nodes per
+ * package, largest first) is only filled when asked for.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ReachabilityDto(String nodeId, String direction, int reached, int leaves, int depth, boolean complete,
+                              Map<String, Integer> byLevel, Map<String, Integer> byPackage) {}
@@ -0,0 +1,7 @@
+package com.belmonttech.graph.backend.dto;
+
+import com.belmonttech.graph.model.GraphNode;
+import java.util.List;
+
+/** One page of a node search: {@code nodes} ranked by cost, out of {@code total} matches. */
+public record SearchResultDto(List<GraphNode> nodes, int total, int offset, int limit) {}
@@ -0,0 +1,8 @@
+package com.belmonttech.graph.backend.dto;
+
+import com.belmonttech.graph.model.normalize.NormalizationStats;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SnapshotInfoDto(String name, String source, boolean loaded, long version, long estimatedBytes,
+                             Integer nodes, Integer edges, NormalizationStats normalization) {}
@@ -0,0 +1,7 @@
+package com.belmonttech.graph.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UploadJobDto(String jobId, String snapshot, String state, String fileName, String phase, long bytesRead,
+                           long totalBytes, Integer percent, Integer nodes, Integer edges, String error) {}
@@ -0,0 +1,153 @@
+package com.belmonttech.graph.backend.exec;
+
+import com.belmonttech.graph.backend.metrics.CacheStats;
+import com.belmonttech.graph.backend.metrics.Histogram;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs slice queries on virtual threads with single-flight coalescing: concurrent requests for the same key
+ * (endpoint, parameters and snapshot version) share one computation, so a page load fired by many viewers at
+ * once costs one result instead of one per Tomcat thread.
+ * <p>
+ * Heavy queries (deep walks, layouts, ad-hoc filters) additionally take one of
+ * {@code graph.exec.max-heavy-queries} slots; further ones queue in arrival order for up to
+ * {@code graph.exec.queue-timeout-ms}. Every query gets {@code graph.exec.timeout-ms}. When that runs out the
+ * computation is interrupted, and long loops stop at their next cancellation check. The caller and every
+ * coalesced waiter then get a {@link QueryRejectedException}.
+ */
+@Component
+public class QueryExecutor {
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final ConcurrentHashMap<Object, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+  private final Semaphore heavySlots;
+  private final long queueTimeoutMillis;
+  private final long timeoutMillis;
+  private final CacheStats coalescing = new CacheStats();
+  private final Histogram slotWaitNanos = new Histogram();
+  private final LongAdder rejected = new LongAdder();
+
+  public QueryExecutor(@Value("${graph.exec.max-heavy-queries:0}") int maxHeavy,
+                       @Value("${graph.exec.queue-timeout-ms:10000}") long queueTimeoutMillis,
+                       @Value("${graph.exec.timeout-ms:30000}") long timeoutMillis) {
+    this.heavySlots = new Semaphore(maxHeavy > 0 ? maxHeavy : Runtime.getRuntime().availableProcessors(), true);
+    this.queueTimeoutMillis = queueTimeoutMillis;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * Result of {@code compute} for {@code key}, joining a computation already running for an equal key.
+   * Exceptions thrown by {@code compute} reach every waiter unchanged.
+   */
+  public byte[] execute(Object key, boolean heavy, Supplier<byte[]> compute) {
+    CompletableFuture<byte[]> result = new CompletableFuture<>();
+    CompletableFuture<byte[]> running = inFlight.putIfAbsent(key, result);
+    coalescing.record(running != null);
+    if (running != null) return await(running, timeoutMillis + (heavy ? queueTimeoutMillis : 0));
+
+    result.whenComplete((body, error) -> inFlight.remove(key, result));
+    Future<?> task = executor.submit(() -> run(heavy, compute, result));
+    try {
+      return await(result, timeoutMillis + (heavy ? queueTimeoutMillis : 0));
+    }
+    catch (QueryRejectedException ex) {
+      rejected.increment();
+      task.cancel(true);
+      result.completeExceptionally(ex);
+      throw ex;
+    }
+  }
+
+  /** Number of distinct computations running or queued right now. */
+  public int inFlight() {
+    return inFlight.size();
+  }
+
+  /** Hits are requests that joined a computation already running for the same key. */
+  public CacheStats coalescing() {
+    return coalescing;
+  }
+
+  /** How long heavy queries waited for a slot. */
+  public Histogram slotWaitNanos() {
+    return slotWaitNanos;
+  }
+
+  /** Queries answered with 503 because they found no slot or ran past their timeout. */
+  public long rejected() {
+    return rejected.sum();
+  }
+
+  public int freeHeavySlots() {
+    return heavySlots.availablePermits();
+  }
+
+  public int queuedHeavyQueries() {
+    return heavySlots.getQueueLength();
+  }
+
+  /**
+   * Throws {@link CancellationException} if the current query was cancelled; long loops call this between
+   * steps so a timed-out query stops using CPU.
+   */
+  public static void checkCancelled() {
+    if (Thread.currentThread().isInterrupted()) throw new CancellationException("Query cancelled");
+  }
+
+  private void run(boolean heavy, Supplier<byte[]> compute, CompletableFuture<byte[]> result) {
+    boolean acquired = false;
+    try {
+      if (heavy) {
+        long t0 = System.nanoTime();
+        acquired = heavySlots.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        slotWaitNanos.record(System.nanoTime() - t0);
+        if (!acquired) {
+          result.completeExceptionally(new QueryRejectedException(
+            "Too many concurrent queries; no slot within " + queueTimeoutMillis + " ms"));
+          return;
+        }
+      }
+      result.complete(compute.get());
+    }
+    catch (InterruptedException ex) {
+      result.completeExceptionally(new CancellationException("Query cancelled"));
+    }
+    catch (Throwable t) {
+      result.completeExceptionally(t);
+    }
+    finally {
+      if (acquired) heavySlots.release();
+    }
+  }
+
+  private static byte[] await(CompletableFuture<byte[]> future, long millis) {
+    try {
+      return future.get(millis, TimeUnit.MILLISECONDS);
+    }
+    catch (TimeoutException ex) {
+      throw new QueryRejectedException("Query timed out after " + millis + " ms");
+    }
+    catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException re) throw re;
+      if (ex.getCause() instanceof Error err) throw err;
+      throw new CompletionException(ex.getCause());
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for a query");
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,12 @@
+package com.belmonttech.graph.backend.exec;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** A query that waited too long for a slot or ran past its timeout; the client may retry. */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class QueryRejectedException extends RuntimeException {
+  public QueryRejectedException(String message) {
+    super(message);
+  }
+}
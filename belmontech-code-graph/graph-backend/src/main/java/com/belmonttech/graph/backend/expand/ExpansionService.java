@@ -0,0 +1,289 @@
+package com.belmonttech.graph.backend.expand;
+
+import com.belmonttech.graph.backend.dto.ExpansionDeltaDto;
+import com.belmonttech.graph.backend.dto.ExpansionSessionDto;
+import com.belmonttech.graph.backend.dto.GraphSliceDto;
+import com.belmonttech.graph.backend.registry.SnapshotRegistry;
+import com.belmonttech.graph.model.GraphEdge;
+import com.belmonttech.graph.model.GraphNode;
+import com.belmonttech.graph.model.index.AdjacencyIndex;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Incremental neighborhood exploration. Instead of re-fetching {@code /nodes/{id}/neighborhood} on every click, a
+ * client opens a session and expands, collapses or re-depths nodes in it. The server remembers which nodes and
+ * edges the client holds (the union of the expanded neighborhoods with their induced edges) and only publishes
+ * what changed: an expansion streams the new nodes and edges level by level as the BFS reaches them, a collapse or
+ * a smaller depth streams the ids that left the view. Bandwidth then follows the change, not the size of the view.
+ * <p>
+ * Sessions live in memory and are dropped after {@code graph.expand.idle-timeout-ms} without use; past
+ * {@code graph.expand.max-sessions} the least recently used one is closed.
+ */
+@Service
+public class ExpansionService {
+
+  private final SnapshotRegistry registry;
+  private final int maxViewNodes;
+  private final int batchSize;
+  private final long idleMillis;
+  private final int maxSessions;
+  private final Map<String, ExpansionSession> sessions = new ConcurrentHashMap<>();
+
+  public ExpansionService(SnapshotRegistry registry,
+                          @Value("${graph.lod.max-slice-nodes:200000}") int maxViewNodes,
+                          @Value("${graph.expand.batch-size:500}") int batchSize,
+                          @Value("${graph.expand.idle-timeout-ms:1800000}") long idleMillis,
+                          @Value("${graph.expand.max-sessions:1000}") int maxSessions) {
+    this.registry = registry;
+    this.maxViewNodes = maxViewNodes;
+    this.batchSize = Math.max(1, batchSize);
+    this.idleMillis = idleMillis;
+    this.maxSessions = Math.max(1, maxSessions);
+  }
+
+  /** Opens an empty session on {@code snapshot}; fails with {@code UnknownSnapshotException} if there is none. */
+  public ExpansionSession create(String snapshot) {
+    registry.acquire(snapshot);
+    pruneSessions();
+    ExpansionSession session = new ExpansionSession(UUID.randomUUID().toString(), snapshot);
+    sessions.put(session.id(), session);
+    return session;
+  }
+
+  public ExpansionSession find(String sessionId) {
+    ExpansionSession session = sessions.get(sessionId);
+    if (session != null) session.touch();
+    return session;
+  }
+
+  public boolean close(String sessionId) {
+    ExpansionSession session = sessions.remove(sessionId);
+    if (session == null) return false;
+    session.close();
+    return true;
+  }
+
+  /**
+   * Expands {@code nodeId} to {@code depth} hops. With {@code exact} the depth replaces the node's current one
+   * (and may shrink the view); otherwise a node is never expanded less than before.
+   */
+  public ExpansionSessionDto expand(ExpansionSession session, String nodeId, int depth, boolean exact) {
+    if (depth < 0) throw new IllegalArgumentException("depth must not be negative");
+    synchronized (session) {
+      AdjacencyIndex index = sync(session);
+      int start = index.ordinal(nodeId);
+      if (start < 0) throw new IllegalArgumentException("Unknown node: " + nodeId);
+      Integer current = session.roots.get(nodeId);
+      int target = exact || current == null ? depth : Math.max(depth, current);
+      session.roots.put(nodeId, target);
+      if (current != null && target < current) reconcile(session, index);
+      else if (current == null || target > current) {
+        Delta delta = new Delta(session, index);
+        delta.flush(true, !grow(index, start, target, delta));
+      }
+      return session.toDto();
+    }
+  }
+
+  /** Removes {@code nodeId} from the expanded nodes; whatever no other expansion covers leaves the view. */
+  public ExpansionSessionDto collapse(ExpansionSession session, String nodeId) {
+    synchronized (session) {
+      AdjacencyIndex index = sync(session);
+      if (session.roots.remove(nodeId) != null) reconcile(session, index);
+      return session.toDto();
+    }
+  }
+
+  /** The full view, for a client that (re)connects or missed a delta. */
+  public GraphSliceDto view(ExpansionSession session) {
+    synchronized (session) {
+      AdjacencyIndex index = sync(session);
+      List<GraphNode> nodes = new ArrayList<>(session.nodeCount);
+      for (int o = session.nodes.nextSetBit(0); o >= 0; o = session.nodes.nextSetBit(o + 1)) nodes.add(index.node(o));
+      List<GraphEdge> edges = new ArrayList<>(session.edgeCount);
+      for (int e = session.edges.nextSetBit(0); e >= 0; e = session.edges.nextSetBit(e + 1)) edges.add(index.edge(e));
+      return new GraphSliceDto(nodes, edges, null, session.nodeCount >= maxViewNodes ? Boolean.TRUE : null);
+    }
+  }
+
+  /**
+   * The index the session's ordinals refer to. After a snapshot swap the held ordinals are meaningless: the
+   * subscribers get a {@code reset} and the expanded nodes that still exist are replayed on the new snapshot.
+   */
+  private AdjacencyIndex sync(ExpansionSession session) {
+    long version = registry.version(session.snapshot());
+    AdjacencyIndex index = registry.acquire(session.snapshot()).index();
+    if (session.version == version) return index;
+    boolean replay = session.version >= 0;
+    session.version = version;
+    if (!replay) return index;
+    session.nodes.clear();
+    session.edges.clear();
+    session.nodeCount = 0;
+    session.edgeCount = 0;
+    session.broadcast("reset", session.toDto());
+    Delta delta = new Delta(session, index);
+    session.roots.keySet().removeIf(id -> index.ordinal(id) < 0);
+    for (Map.Entry<String, Integer> root : session.roots.entrySet()) {
+      if (!grow(index, index.ordinal(root.getKey()), root.getValue(), delta)) break;
+    }
+    delta.flush(true, session.nodeCount >= maxViewNodes);
+    return index;
+  }
+
+  /**
+   * Adds the neighborhood of {@code start} to the view. The walk goes through held nodes too (they may lead to new
+   * ones); additions go out when a batch is full and at the end of each level. Returns false when the view hit its
+   * size limit.
+   */
+  private boolean grow(AdjacencyIndex index, int start, int depth, Delta delta) {
+    return walk(index, start, depth, delta::add, () -> delta.flush(false, false));
+  }
+
+  /** Recomputes the view from the expanded nodes and streams what left it (and, rarely, what joined it). */
+  private void reconcile(ExpansionSession session, AdjacencyIndex index) {
+    BitSet target = new BitSet(index.nodeCount());
+    int[] count = {0};
+    for (Map.Entry<String, Integer> root : session.roots.entrySet()) {
+      int start = index.ordinal(root.getKey());
+      if (start < 0) continue;
+      boolean room = walk(index, start, root.getValue(), o -> {
+        if (target.get(o)) return true;
+        if (count[0] >= maxViewNodes) return false;
+        target.set(o);
+        count[0]++;
+        return true;
+      }, () -> {});
+      if (!room) break;
+    }
+
+    Delta delta = new Delta(session, index);
+    BitSet removed = (BitSet) session.nodes.clone();
+    removed.andNot(target);
+    for (int o = removed.nextSetBit(0); o >= 0; o = removed.nextSetBit(o + 1)) delta.remove(o);
+    target.andNot(session.nodes);
+    for (int o = target.nextSetBit(0); o >= 0; o = target.nextSetBit(o + 1)) delta.add(o);
+    delta.flush(true, count[0] >= maxViewNodes);
+  }
+
+  /**
+   * Undirected BFS from {@code start} up to {@code depth} hops, handing every reached node (start included) to
+   * {@code reach} and calling {@code levelDone} after each level. Stops early, returning false, once {@code reach}
+   * refuses a node.
+   */
+  private static boolean walk(AdjacencyIndex index, int start, int depth, IntPredicate reach, Runnable levelDone) {
+    if (!reach.test(start)) return false;
+    BitSet visited = new BitSet(index.nodeCount());
+    visited.set(start);
+    int[] frontier = {start};
+    int size = 1;
+    for (int d = 0; d < depth && size > 0; d++) {
+      int[] next = new int[16];
+      int nextSize = 0;
+      for (int i = 0; i < size; i++) {
+        int u = frontier[i];
+        for (int pass = 0; pass < 2; pass++) {
+          boolean out = pass == 0;
+          int to = out ? index.outEnd(u) : index.inEnd(u);
+          for (int k = out ? index.outStart(u) : index.inStart(u); k < to; k++) {
+            int e = out ? index.outEdgeAt(k) : index.inEdgeAt(k);
+            int v = out ? index.target(e) : index.source(e);
+            if (visited.get(v)) continue;
+            visited.set(v);
+            if (!reach.test(v)) return false;
+            if (nextSize == next.length) next = Arrays.copyOf(next, nextSize * 2);
+            next[nextSize++] = v;
+          }
+        }
+      }
+      levelDone.run();
+      frontier = next;
+      size = nextSize;
+    }
+    return true;
+  }
+
+  private void pruneSessions() {
+    long cutoff = System.currentTimeMillis() - idleMillis;
+    sessions.values().removeIf(s -> {
+      if (s.lastAccess() >= cutoff) return false;
+      s.close();
+      return true;
+    });
+    while (sessions.size() >= maxSessions) {
+      sessions.values().stream().min(Comparator.comparingLong(ExpansionSession::lastAccess))
+          .ifPresent(s -> close(s.id()));
+    }
+  }
+
+  /** Pending changes of one operation, sent to the subscribers in batches of {@code graph.expand.batch-size}. */
+  private final class Delta {
+    private final ExpansionSession session;
+    private final AdjacencyIndex index;
+    private final List<GraphNode> addedNodes = new ArrayList<>();
+    private final List<GraphEdge> addedEdges = new ArrayList<>();
+    private final List<String> removedNodes = new ArrayList<>();
+    private final List<String> removedEdges = new ArrayList<>();
+
+    Delta(ExpansionSession session, AdjacencyIndex index) {
+      this.session = session;
+      this.index = index;
+    }
+
+    /** Adds {@code o} and its edges to held nodes; false once the view is full ({@code o} is then not added). */
+    boolean add(int o) {
+      if (session.nodes.get(o)) return true;
+      if (session.nodeCount >= maxViewNodes) return false;
+      session.nodes.set(o);
+      session.nodeCount++;
+      addedNodes.add(index.node(o));
+      for (int k = index.outStart(o); k < index.outEnd(o); k++) addEdge(index.outEdgeAt(k), index.target(index.outEdgeAt(k)));
+      for (int k = index.inStart(o); k < index.inEnd(o); k++) addEdge(index.inEdgeAt(k), index.source(index.inEdgeAt(k)));
+      if (addedNodes.size() >= batchSize) flush(false, false);
+      return true;
+    }
+
+    /** Removes {@code o} and every held edge touching it. */
+    void remove(int o) {
+      session.nodes.clear(o);
+      session.nodeCount--;
+      removedNodes.add(index.node(o).id());
+      for (int k = index.outStart(o); k < index.outEnd(o); k++) removeEdge(index.outEdgeAt(k));
+      for (int k = index.inStart(o); k < index.inEnd(o); k++) removeEdge(index.inEdgeAt(k));
+      if (removedNodes.size() >= batchSize) flush(false, false);
+    }
+
+    /** Sends what is pending; the closing batch ({@code done}) is sent even when empty. */
+    void flush(boolean done, boolean truncated) {
+      if (!done && addedNodes.isEmpty() && removedNodes.isEmpty() && addedEdges.isEmpty() && removedEdges.isEmpty()) {
+        return;
+      }
+      session.broadcast("delta", new ExpansionDeltaDto(++session.seq, List.copyOf(addedNodes), List.copyOf(addedEdges),
+          List.copyOf(removedNodes), List.copyOf(removedEdges), done, truncated ? Boolean.TRUE : null));
+      addedNodes.clear();
+      addedEdges.clear();
+      removedNodes.clear();
+      removedEdges.clear();
+    }
+
+    private void addEdge(int e, int other) {
+      if (!session.nodes.get(other) || session.edges.get(e)) return;
+      session.edges.set(e);
+      session.edgeCount++;
+      addedEdges.add(index.edge(e));
+    }
+
+    private void removeEdge(int e) {
+      if (!session.edges.get(e)) return;
+      session.edges.clear(e);
+      session.edgeCount--;
+      removedEdges.add(index.edge(e).id());
+    }
+  }
+}
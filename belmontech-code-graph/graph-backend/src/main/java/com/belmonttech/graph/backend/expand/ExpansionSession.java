@@ -0,0 +1,78 @@
+package com.belmonttech.graph.backend.expand;
+
+import com.belmonttech.graph.backend.dto.ExpansionSessionDto;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The view one client is exploring: the nodes it expanded (with their depth) and the node and edge ordinals it
+ * currently holds. Changes to the view are published to the SSE subscribers as deltas. All view state is guarded
+ * by the session's monitor; {@link ExpansionService} holds it for the length of an operation.
+ */
+public class ExpansionSession {
+
+  private final String id;
+  private final String snapshot;
+  private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+  // expanded node id -> depth, in expansion order; ids rather than ordinals so they survive a snapshot swap
+  final Map<String, Integer> roots = new LinkedHashMap<>();
+  final BitSet nodes = new BitSet();
+  final BitSet edges = new BitSet();
+  /** Snapshot version the ordinals above refer to; -1 before the first operation. */
+  long version = -1;
+  int nodeCount;
+  int edgeCount;
+  long seq;
+
+  private volatile long lastAccess = System.currentTimeMillis();
+
+  ExpansionSession(String id, String snapshot) {
+    this.id = id;
+    this.snapshot = snapshot;
+  }
+
+  public String id() { return id; }
+  public String snapshot() { return snapshot; }
+  long lastAccess() { return lastAccess; }
+
+  void touch() {
+    lastAccess = System.currentTimeMillis();
+  }
+
+  /** Subscribes {@code emitter} to the deltas; it first receives the session state, so it knows the current seq. */
+  public void subscribe(SseEmitter emitter) {
+    emitters.add(emitter);
+    emitter.onCompletion(() -> emitters.remove(emitter));
+    emitter.onTimeout(() -> emitters.remove(emitter));
+    send(emitter, "session", toDto());
+  }
+
+  public synchronized ExpansionSessionDto toDto() {
+    return new ExpansionSessionDto(id, snapshot, version, new LinkedHashMap<>(roots), nodeCount, edgeCount, seq);
+  }
+
+  void broadcast(String event, Object data) {
+    for (SseEmitter emitter : emitters) send(emitter, event, data);
+  }
+
+  void close() {
+    emitters.forEach(SseEmitter::complete);
+    emitters.clear();
+  }
+
+  private void send(SseEmitter emitter, String event, Object data) {
+    try {
+      emitter.send(SseEmitter.event().name(event).data(data));
+    } catch (IOException | IllegalStateException ex) {
+      emitters.remove(emitter);
+    }
+  }
+}
@@ -0,0 +1,268 @@
+package com.belmonttech.graph.backend.layout;
+
+import com.belmonttech.graph.backend.exec.QueryExecutor;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fruchterman-Reingold force-directed layout with Barnes-Hut repulsion: every iteration builds a quadtree over
+ * the current positions and each node's repulsion is summed over cells instead of all other nodes, which makes
+ * an iteration O(n log n). The per-node force pass is split over a {@link ForkJoinPool}; each task writes only
+ * its own nodes' displacement, so the result does not depend on scheduling.
+ * <p>
+ * Nodes with a known position (warm start) start there and the temperature starts low, so a few iterations
+ * settle the new nodes without moving the old ones far. Unknown nodes start next to the centroid of their
+ * placed neighbours, or on a spiral position derived from their index.
+ */
+final class ForceLayout {
+
+    /** Ideal edge length; coordinates come out in the same unit. */
+    static final double K = 100;
+    private static final double THETA = 0.8;
+    private static final double GRAVITY = 0.02;
+    private static final double MIN_DIST2 = 1e-2;
+    private static final int SPLIT = 256;
+
+    private final ForkJoinPool pool;
+
+    ForceLayout(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param x          initial x per node, {@code NaN} where unknown; overwritten with the result
+     * @param y          initial y per node, {@code NaN} where unknown; overwritten with the result
+     * @param src        edge sources (node indices)
+     * @param tgt        edge targets (node indices)
+     * @param iterations number of force iterations
+     * @param warm       whether most nodes start at known positions (starts cooler)
+     */
+    void run(double[] x, double[] y, int[] src, int[] tgt, int iterations, boolean warm) {
+        int n = x.length;
+        if (n == 0) return;
+        place(x, y, src, tgt);
+        if (n == 1) return;
+        double[] dx = new double[n];
+        double[] dy = new double[n];
+        double start = warm ? K : K * Math.sqrt(n) / 2;
+        QuadTree tree = new QuadTree(n);
+        for (int it = 0; it < iterations; it++) {
+            QueryExecutor.checkCancelled();
+            double temperature = Math.max(K / 100, start * (1 - (double) it / iterations));
+            tree.build(x, y);
+            pool.invoke(new Repulsion(tree, x, y, dx, dy, 0, n));
+            for (int e = 0; e < src.length; e++) {
+                int s = src[e], t = tgt[e];
+                if (s == t) continue;
+                double ex = x[s] - x[t], ey = y[s] - y[t];
+                double d = Math.sqrt(ex * ex + ey * ey) + 1e-9;
+                double f = d / K; // (d^2 / K) / d
+                dx[s] -= ex * f;
+                dy[s] -= ey * f;
+                dx[t] += ex * f;
+                dy[t] += ey * f;
+            }
+            for (int i = 0; i < n; i++) {
+                double len = Math.sqrt(dx[i] * dx[i] + dy[i] * dy[i]);
+                if (len > 0) {
+                    double step = Math.min(len, temperature) / len;
+                    x[i] += dx[i] * step;
+                    y[i] += dy[i] * step;
+                }
+            }
+        }
+    }
+
+    /** Initial positions for nodes without one. */
+    private static void place(double[] x, double[] y, int[] src, int[] tgt) {
+        int n = x.length;
+        double[] sx = new double[n], sy = new double[n];
+        int[] count = new int[n];
+        for (int e = 0; e < src.length; e++) {
+            int s = src[e], t = tgt[e];
+            if (!Double.isNaN(x[t]) && Double.isNaN(x[s])) { sx[s] += x[t]; sy[s] += y[t]; count[s]++; }
+            if (!Double.isNaN(x[s]) && Double.isNaN(x[t])) { sx[t] += x[s]; sy[t] += y[s]; count[t]++; }
+        }
+        for (int i = 0; i < n; i++) {
+            if (!Double.isNaN(x[i])) continue;
+            // golden-angle spiral: deterministic, evenly spread, no two nodes on the same spot
+            double angle = i * 2.399963229728653;
+            double radius = K * Math.sqrt(i + 1) / 2;
+            if (count[i] > 0) {
+                x[i] = sx[i] / count[i] + K / 4 * Math.cos(angle);
+                y[i] = sy[i] / count[i] + K / 4 * Math.sin(angle);
+            } else {
+                x[i] = radius * Math.cos(angle);
+                y[i] = radius * Math.sin(angle);
+            }
+        }
+    }
+
+    private static final class Repulsion extends RecursiveAction {
+        private final QuadTree tree;
+        private final double[] x, y, dx, dy;
+        private final int from, to;
+
+        Repulsion(QuadTree tree, double[] x, double[] y, double[] dx, double[] dy, int from, int to) {
+            this.tree = tree;
+            this.x = x;
+            this.y = y;
+            this.dx = dx;
+            this.dy = dy;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Repulsion(tree, x, y, dx, dy, from, mid), new Repulsion(tree, x, y, dx, dy, mid, to));
+                return;
+            }
+            int[] stack = new int[64];
+            for (int i = from; i < to; i++) {
+                double fx = 0, fy = 0;
+                int top = 0;
+                stack[top++] = 0;
+                while (top > 0) {
+                    int c = stack[--top];
+                    double m = tree.mass[c];
+                    if (m == 0 || tree.body[c] == i) continue;
+                    double ex = x[i] - tree.cx[c], ey = y[i] - tree.cy[c];
+                    double d2 = ex * ex + ey * ey;
+                    double width = 2 * tree.half[c];
+                    if (tree.child[4 * c] < 0 || width * width < THETA * THETA * d2) {
+                        if (d2 < MIN_DIST2) {
+                            // coincident: push apart along a direction fixed by the index
+                            ex = Math.cos(i);
+                            ey = Math.sin(i);
+                            d2 = MIN_DIST2;
+                        }
+                        double f = K * K * m / d2; // (K^2 / d) / d
+                        fx += ex * f;
+                        fy += ey * f;
+                    } else {
+                        if (top + 4 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                        for (int q = 0; q < 4; q++) {
+                            int ch = tree.child[4 * c + q];
+                            if (ch >= 0) stack[top++] = ch;
+                        }
+                    }
+                }
+                dx[i] = fx - GRAVITY * x[i];
+                dy[i] = fy - GRAVITY * y[i];
+            }
+        }
+    }
+
+    /** Array-backed quadtree; a cell is a leaf while {@code child[4 * c] < 0}. */
+    private static final class QuadTree {
+        private static final int MAX_DEPTH = 40;
+
+        int[] child;
+        int[] body;
+        double[] cx, cy, mass, ox, oy, half;
+        int cells;
+
+        QuadTree(int n) {
+            allocate(Math.max(16, 2 * n));
+        }
+
+        private void allocate(int capacity) {
+            child = new int[4 * capacity];
+            body = new int[capacity];
+            cx = new double[capacity];
+            cy = new double[capacity];
+            mass = new double[capacity];
+            ox = new double[capacity];
+            oy = new double[capacity];
+            half = new double[capacity];
+        }
+
+        void build(double[] x, double[] y) {
+            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            for (int i = 0; i < x.length; i++) {
+                minX = Math.min(minX, x[i]);
+                maxX = Math.max(maxX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            cells = 0;
+            newCell((minX + maxX) / 2, (minY + maxY) / 2, Math.max(maxX - minX, maxY - minY) / 2 + 1);
+            for (int i = 0; i < x.length; i++) insert(i, x, y);
+        }
+
+        private int newCell(double centerX, double centerY, double h) {
+            if (cells == body.length) grow();
+            int c = cells++;
+            Arrays.fill(child, 4 * c, 4 * c + 4, -1);
+            body[c] = -1;
+            mass[c] = 0;
+            cx[c] = 0;
+            cy[c] = 0;
+            ox[c] = centerX;
+            oy[c] = centerY;
+            half[c] = h;
+            return c;
+        }
+
+        private void grow() {
+            int capacity = body.length * 2;
+            child = Arrays.copyOf(child, 4 * capacity);
+            body = Arrays.copyOf(body, capacity);
+            cx = Arrays.copyOf(cx, capacity);
+            cy = Arrays.copyOf(cy, capacity);
+            mass = Arrays.copyOf(mass, capacity);
+            ox = Arrays.copyOf(ox, capacity);
+            oy = Arrays.copyOf(oy, capacity);
+            half = Arrays.copyOf(half, capacity);
+        }
+
+        private void insert(int i, double[] x, double[] y) {
+            double px = x[i], py = y[i];
+            int c = 0;
+            for (int depth = 0; ; depth++) {
+                // centre of mass includes everything below this cell
+                double m = mass[c];
+                cx[c] = (cx[c] * m + px) / (m + 1);
+                cy[c] = (cy[c] * m + py) / (m + 1);
+                mass[c] = m + 1;
+                if (child[4 * c] < 0) {
+                    if (m == 0) {
+                        body[c] = i;
+                        return;
+                    }
+                    // coincident points would split forever: past MAX_DEPTH the leaf just aggregates
+                    if (depth >= MAX_DEPTH || body[c] < 0) {
+                        body[c] = -1;
+                        return;
+                    }
+                    int old = body[c];
+                    body[c] = -1;
+                    split(c);
+                    int ch = child[4 * c + quadrant(c, x[old], y[old])];
+                    body[ch] = old;
+                    mass[ch] = 1;
+                    cx[ch] = x[old];
+                    cy[ch] = y[old];
+                }
+                c = child[4 * c + quadrant(c, px, py)];
+            }
+        }
+
+        private void split(int c) {
+            double h = half[c] / 2;
+            for (int q = 0; q < 4; q++) {
+                int ch = newCell(ox[c] + ((q & 1) == 0 ? -h : h), oy[c] + ((q & 2) == 0 ? -h : h), h);
+                child[4 * c + q] = ch;
+            }
+        }
+
+        private int quadrant(int c, double px, double py) {
+            return (px < ox[c] ? 0 : 1) | (py < oy[c] ? 0 : 2);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.belmonttech.graph.backend.layout;
+
+import com.belmonttech.graph.backend.dto.GraphSliceDto;
+import com.belmonttech.graph.backend.metrics.CacheStats;
+import com.belmonttech.graph.model.GraphEdge;
+import com.belmonttech.graph.model.GraphNode;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Server-side layout for slices. Results are cached per (snapshot, version, view), where the view is the
+ * endpoint and its query parameters. When a view is requested for a new snapshot version, the positions last
+ * computed for that view seed the layout (warm start). Nodes that survived the change stay roughly where they
+ * were, and only {@code graph.layout.warm-iterations} iterations are needed instead of a full run.
+ */
+@Service
+public class LayoutService {
+
+  private final ForceLayout layout;
+  private final ForkJoinPool pool;
+  private final int iterations;
+  private final int warmIterations;
+  private final int maxEntries;
+  private final LinkedHashMap<Key, Map<String, float[]>> results = new LinkedHashMap<>(64, 0.75f, true);
+  private final LinkedHashMap<String, Map<String, float[]>> lastByView = new LinkedHashMap<>(64, 0.75f, true);
+  private final CacheStats stats = new CacheStats();
+
+  public LayoutService(@Value("${graph.layout.iterations:300}") int iterations,
+                       @Value("${graph.layout.warm-iterations:60}") int warmIterations,
+                       @Value("${graph.layout.cache-entries:256}") int maxEntries,
+                       @Value("${graph.layout.parallelism:0}") int parallelism) {
+    this.iterations = iterations;
+    this.warmIterations = warmIterations;
+    this.maxEntries = maxEntries;
+    this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    this.layout = new ForceLayout(pool);
+  }
+
+  /** Returns {@code slice} with {@code positions} for all of its nodes. */
+  public GraphSliceDto withLayout(String snapshot, long version, String view, GraphSliceDto slice) {
+    Key key = new Key(snapshot, version, view);
+    Map<String, float[]> cached;
+    Map<String, float[]> previous;
+    synchronized (this) {
+      cached = results.get(key);
+      previous = lastByView.get(snapshot + '|' + view);
+    }
+    // same version and view means the same slice, so the cached positions cover it
+    stats.record(cached != null);
+    if (cached != null) return slice.withPositions(cached);
+
+    Map<String, float[]> positions = compute(slice, previous);
+    synchronized (this) {
+      results.put(key, positions);
+      lastByView.put(snapshot + '|' + view, positions);
+      trim(results);
+      trim(lastByView);
+    }
+    return slice.withPositions(positions);
+  }
+
+  public CacheStats stats() {
+    return stats;
+  }
+
+  private Map<String, float[]> compute(GraphSliceDto slice, Map<String, float[]> previous) {
+    List<GraphNode> nodes = slice.nodes();
+    int n = nodes.size();
+    Map<String, Integer> index = new HashMap<>(Math.max(16, (int) (n / 0.75f) + 1));
+    double[] x = new double[n];
+    double[] y = new double[n];
+    int known = 0;
+    for (int i = 0; i < n; i++) {
+      String id = nodes.get(i).id();
+      index.put(id, i);
+      float[] p = previous == null ? null : previous.get(id);
+      x[i] = p == null ? Double.NaN : p[0];
+      y[i] = p == null ? Double.NaN : p[1];
+      if (p != null) known++;
+    }
+    int[] src = new int[slice.edges().size()];
+    int[] tgt = new int[src.length];
+    int m = 0;
+    for (GraphEdge e : slice.edges()) {
+      Integer s = index.get(e.sourceId()), t = index.get(e.targetId());
+      if (s == null || t == null) continue;
+      src[m] = s;
+      tgt[m++] = t;
+    }
+    boolean warm = known * 2 >= n && n > 0;
+    layout.run(x, y, Arrays.copyOf(src, m), Arrays.copyOf(tgt, m), warm ? warmIterations : iterations, warm);
+
+    Map<String, float[]> positions = new LinkedHashMap<>(Math.max(16, (int) (n / 0.75f) + 1));
+    for (int i = 0; i < n; i++) {
+      positions.put(nodes.get(i).id(), new float[] { round(x[i]), round(y[i]) });
+    }
+    return Collections.unmodifiableMap(positions);
+  }
+
+  private static float round(double v) {
+    return Math.round(v * 10) / 10f;
+  }
+
+  private <K> void trim(LinkedHashMap<K, ?> map) {
+    Iterator<K> it = map.keySet().iterator();
+    while (map.size() > maxEntries && it.hasNext()) {
+      it.next();
+      it.remove();
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  private record Key(String snapshot, long version, String view) {}
+}
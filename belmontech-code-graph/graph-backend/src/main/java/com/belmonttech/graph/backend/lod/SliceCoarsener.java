@@ -0,0 +1,379 @@
+package com.belmonttech.graph.backend.lod;
+
+import com.belmonttech.graph.backend.dto.ClusterDto;
+import com.belmonttech.graph.backend.dto.GraphSliceDto;
+import com.belmonttech.graph.backend.exec.QueryExecutor;
+import com.belmonttech.graph.model.EdgeType;
+import com.belmonttech.graph.model.GraphEdge;
+import com.belmonttech.graph.model.GraphNode;
+import com.belmonttech.graph.model.NodeLevel;
+import com.belmonttech.graph.model.index.AdjacencyIndex;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Level of detail for slices larger than a node budget. The members are grouped by the finest rule that fits the
+ * budget and yields more than one group:
+ * <ol>
+ *   <li>CLASS: methods collapse into their class;</li>
+ *   <li>PACKAGE: everything collapses into its package;</li>
+ *   <li>COMMUNITY, when the slice lies in a single package: parallel label propagation over the slice's own
+ *   edges.</li>
+ * </ol>
+ * If the last applicable rule still leaves too many groups, the most expensive ones are kept and the rest fold
+ * into one OTHER group, so drilling into OTHER pages through the remainder.
+ * <p>
+ * Groups of several nodes become supernodes ({@code lod:...} ids) with summed cost and complexity; edges between
+ * groups are merged per type with summed weight. Edges between two plain nodes are returned unchanged.
+ * <p>
+ * Grouping is deterministic for a given snapshot version, so a supernode is drilled into by repeating the request
+ * with its {@link ClusterDto#expand} path: the slice is grouped again, narrowed to that cluster, and coarsened
+ * once more if it is still over budget.
+ */
+public final class SliceCoarsener {
+
+  public static final String PREFIX = "lod:";
+
+  private static final int LPA_ROUNDS = 10;
+  private static final int TYPES = EdgeType.values().length + 1;
+
+  enum Kind { CLASS, PACKAGE, COMMUNITY, OTHER }
+
+  private SliceCoarsener() {}
+
+  /**
+   * @param budget    maximum number of nodes in the result, at least 2
+   * @param focus     ordinal that always stays a plain node (e.g. the centre of a neighborhood), or -1
+   * @param expand    {@code /}-separated cluster path from an earlier response, or null
+   * @param truncated whether collecting {@code members} already hit a limit; passed through to the result
+   */
+  public static GraphSliceDto coarsen(AdjacencyIndex index, BitSet members, int budget, int focus, String expand,
+                                      boolean truncated) {
+    int[] m = members.stream().toArray();
+    String path = null;
+    if (expand != null && !expand.isBlank()) {
+      for (String segment : expand.split("/")) {
+        Grouping g = group(index, m, budget, focus);
+        int gi = g == null ? -1 : g.find(segment);
+        if (gi < 0) throw new UnknownClusterException(segment);
+        m = g.members(gi);
+        path = path == null ? segment : path + "/" + segment;
+      }
+    }
+    Boolean flag = truncated ? Boolean.TRUE : null;
+    Grouping g = group(index, m, budget, focus);
+    if (g == null) {
+      List<GraphNode> nodes = new ArrayList<>(m.length);
+      BitSet set = new BitSet(index.nodeCount());
+      for (int o : m) {
+        nodes.add(index.node(o));
+        set.set(o);
+      }
+      return new GraphSliceDto(nodes, edgesWithin(index, m, set), null, flag);
+    }
+    return g.toSlice(path, flag);
+  }
+
+  /** Returns null if {@code m} fits the budget as it is. */
+  private static Grouping group(AdjacencyIndex index, int[] m, int budget, int focus) {
+    if (m.length <= budget) return null;
+    Grouping byClass = byKey(index, m, Kind.CLASS, focus);
+    if (byClass.count() > 1 && byClass.count() <= budget) return byClass;
+    Grouping byPackage = byKey(index, m, Kind.PACKAGE, focus);
+    if (byPackage.count() > 1 && byPackage.count() <= budget) return byPackage;
+    int focusPos = -1;
+    for (int p = 0; p < m.length; p++) if (m[p] == focus) focusPos = p;
+    if (byPackage.count() > (focusPos >= 0 ? 2 : 1)) return fold(byPackage, budget, focusPos);
+    return byCommunity(index, m, budget, focusPos);
+  }
+
+  private static Grouping byKey(AdjacencyIndex index, int[] m, Kind kind, int focus) {
+    Grouping g = new Grouping(index, m);
+    Map<String, Integer> byKey = new HashMap<>();
+    for (int p = 0; p < m.length; p++) {
+      String key = m[p] == focus ? null : key(kind, index.node(m[p]));
+      g.groupOf[p] = key == null ? g.add(null, kind) : byKey.computeIfAbsent(key, k -> g.add(k, kind));
+    }
+    return g;
+  }
+
+  private static String key(Kind kind, GraphNode n) {
+    if (kind == Kind.PACKAGE) return n.packageName() == null ? null : "pkg:" + n.packageName();
+    if (n.level() == NodeLevel.METHOD || n.level() == NodeLevel.CLASS || n.level() == NodeLevel.INTERFACE) {
+      String cls = n.className() != null ? n.className() : n.level() == NodeLevel.METHOD ? null : n.id();
+      return cls == null ? null : "class:" + cls;
+    }
+    return null;
+  }
+
+  /**
+   * Synchronous label propagation (every round reads the previous round's labels, so the result does not depend
+   * on thread scheduling). Ties go to the smallest label; the focus neither adopts nor spreads a label.
+   */
+  private static Grouping byCommunity(AdjacencyIndex index, int[] m, int budget, int focusPos) {
+    int n = m.length;
+    int[] pos = positions(index, m);
+    int[] labels = IntStream.range(0, n).toArray();
+    for (int round = 0; round < LPA_ROUNDS; round++) {
+      QueryExecutor.checkCancelled();
+      int[] current = labels;
+      int[] next = IntStream.range(0, n).parallel()
+          .map(p -> p == focusPos ? current[p] : dominantLabel(index, m, pos, current, p, focusPos))
+          .toArray();
+      if (Arrays.equals(next, current)) break;
+      labels = next;
+    }
+
+    Grouping communities = new Grouping(index, m);
+    Map<Integer, Integer> byLabel = new HashMap<>();
+    for (int p = 0; p < n; p++) {
+      communities.groupOf[p] = p == focusPos ? communities.add(null, Kind.COMMUNITY)
+          : byLabel.computeIfAbsent(labels[p], l -> communities.add(null, Kind.COMMUNITY));
+    }
+    // every non-focus member in one community: drilling into it would return the same slice
+    boolean progress = communities.count() > (focusPos >= 0 ? 2 : 1);
+    if (progress && communities.count() <= budget) return communities.named();
+    return fold(progress ? communities : singletons(index, m), budget, focusPos);
+  }
+
+  /** Keeps the {@code budget - 1} most expensive groups of {@code base} (and the focus), folds the rest into OTHER. */
+  private static Grouping fold(Grouping base, int budget, int focusPos) {
+    AdjacencyIndex index = base.index;
+    int[] m = base.m;
+    int n = m.length;
+    long[] cost = new long[base.count()];
+    for (int p = 0; p < n; p++) cost[base.groupOf[p]] += index.node(m[p]).cost();
+    Integer[] order = new Integer[base.count()];
+    for (int k = 0; k < order.length; k++) order[k] = k;
+    Arrays.sort(order, Comparator.comparingLong((Integer k) -> -cost[k]).thenComparingInt(k -> k));
+    boolean[] keep = new boolean[base.count()];
+    int kept = 0;
+    if (focusPos >= 0) {
+      keep[base.groupOf[focusPos]] = true;
+      kept++;
+    }
+    for (int k = 0; k < order.length && kept < budget - 1; k++) {
+      if (!keep[order[k]]) {
+        keep[order[k]] = true;
+        kept++;
+      }
+    }
+    Grouping folded = new Grouping(index, m);
+    int[] remap = new int[base.count()];
+    Arrays.fill(remap, -1);
+    int other = -1;
+    for (int p = 0; p < n; p++) {
+      int b = base.groupOf[p];
+      if (keep[b]) {
+        if (remap[b] < 0) remap[b] = folded.add(base.keys.get(b), base.kinds.get(b));
+        folded.groupOf[p] = remap[b];
+      } else {
+        if (other < 0) other = folded.add("other", Kind.OTHER);
+        folded.groupOf[p] = other;
+      }
+    }
+    return folded.named();
+  }
+
+  private static Grouping singletons(AdjacencyIndex index, int[] m) {
+    Grouping g = new Grouping(index, m);
+    for (int p = 0; p < m.length; p++) g.groupOf[p] = g.add(null, Kind.COMMUNITY);
+    return g;
+  }
+
+  private static int dominantLabel(AdjacencyIndex index, int[] m, int[] pos, int[] labels, int p, int focusPos) {
+    int o = m[p];
+    int[] votes = new int[1 + index.outEnd(o) - index.outStart(o) + index.inEnd(o) - index.inStart(o)];
+    int count = 0;
+    votes[count++] = labels[p];
+    for (int k = index.outStart(o); k < index.outEnd(o); k++) {
+      int t = index.target(index.outEdgeAt(k));
+      int q = t < 0 ? -1 : pos[t];
+      if (q >= 0 && q != focusPos) votes[count++] = labels[q];
+    }
+    for (int k = index.inStart(o); k < index.inEnd(o); k++) {
+      int s = index.source(index.inEdgeAt(k));
+      int q = s < 0 ? -1 : pos[s];
+      if (q >= 0 && q != focusPos) votes[count++] = labels[q];
+    }
+    Arrays.sort(votes, 0, count);
+    int best = votes[0], bestRun = 0;
+    for (int i = 0; i < count; ) {
+      int j = i;
+      while (j < count && votes[j] == votes[i]) j++;
+      if (j - i > bestRun) {
+        best = votes[i];
+        bestRun = j - i;
+      }
+      i = j;
+    }
+    return best;
+  }
+
+  /** Member position by ordinal, -1 for non-members. */
+  private static int[] positions(AdjacencyIndex index, int[] m) {
+    int[] pos = new int[index.nodeCount()];
+    Arrays.fill(pos, -1);
+    for (int p = 0; p < m.length; p++) pos[m[p]] = p;
+    return pos;
+  }
+
+  private static List<GraphEdge> edgesWithin(AdjacencyIndex index, int[] m, BitSet set) {
+    List<GraphEdge> edges = new ArrayList<>();
+    for (int o : m) {
+      for (int k = index.outStart(o); k < index.outEnd(o); k++) {
+        int e = index.outEdgeAt(k);
+        if (set.get(index.target(e))) edges.add(index.edge(e));
+      }
+    }
+    return edges;
+  }
+
+  /** Assignment of member positions to groups; a group with a null key and one member stays a plain node. */
+  private static final class Grouping {
+    final AdjacencyIndex index;
+    final int[] m;
+    final int[] groupOf;
+    final List<String> keys = new ArrayList<>();
+    final List<Kind> kinds = new ArrayList<>();
+    int[] sizes = new int[16];
+    int[] firstOrdinal = new int[16];
+
+    Grouping(AdjacencyIndex index, int[] m) {
+      this.index = index;
+      this.m = m;
+      this.groupOf = new int[m.length];
+    }
+
+    int add(String key, Kind kind) {
+      keys.add(key);
+      kinds.add(kind);
+      return keys.size() - 1;
+    }
+
+    int count() {
+      return keys.size();
+    }
+
+    /** Names unnamed multi-member groups {@code c<smallest member ordinal>}. */
+    Grouping named() {
+      stats();
+      for (int g = 0; g < count(); g++) {
+        if (keys.get(g) == null && sizes[g] > 1) keys.set(g, "c" + firstOrdinal[g]);
+      }
+      return this;
+    }
+
+    int find(String clusterId) {
+      if (!clusterId.startsWith(PREFIX)) return -1;
+      String key = clusterId.substring(PREFIX.length());
+      stats();
+      for (int g = 0; g < count(); g++) {
+        if (key.equals(keys.get(g)) && sizes[g] > 1) return g;
+      }
+      return -1;
+    }
+
+    int[] members(int g) {
+      int[] out = new int[sizes[g]];
+      int k = 0;
+      for (int p = 0; p < m.length; p++) if (groupOf[p] == g) out[k++] = m[p];
+      return out;
+    }
+
+    private void stats() {
+      sizes = new int[count()];
+      firstOrdinal = new int[count()];
+      for (int p = m.length - 1; p >= 0; p--) {
+        sizes[groupOf[p]]++;
+        firstOrdinal[groupOf[p]] = m[p];
+      }
+    }
+
+    GraphSliceDto toSlice(String path, Boolean truncated) {
+      stats();
+      int groups = count();
+      String[] ids = new String[groups];
+      List<List<GraphNode>> grouped = new ArrayList<>(groups);
+      for (int g = 0; g < groups; g++) grouped.add(new ArrayList<>(Math.min(sizes[g], 64)));
+      for (int p = 0; p < m.length; p++) grouped.get(groupOf[p]).add(index.node(m[p]));
+
+      List<GraphNode> nodes = new ArrayList<>(groups);
+      List<ClusterDto> clusters = new ArrayList<>();
+      for (int g = 0; g < groups; g++) {
+        List<GraphNode> members = grouped.get(g);
+        if (members.size() == 1) {
+          ids[g] = members.get(0).id();
+          nodes.add(members.get(0));
+          continue;
+        }
+        ids[g] = PREFIX + keys.get(g);
+        nodes.add(supernode(ids[g], kinds.get(g), members));
+        clusters.add(new ClusterDto(ids[g], kinds.get(g).name(), members.size(),
+            path == null ? ids[g] : path + "/" + ids[g]));
+      }
+
+      int[] pos = positions(index, m);
+      List<GraphEdge> edges = new ArrayList<>();
+      Map<Long, int[]> merged = new LinkedHashMap<>();
+      for (int p = 0; p < m.length; p++) {
+        int o = m[p];
+        for (int k = index.outStart(o); k < index.outEnd(o); k++) {
+          int e = index.outEdgeAt(k);
+          int q = pos[index.target(e)];
+          if (q < 0) continue;
+          int gs = groupOf[p], gt = groupOf[q];
+          if (gs == gt) continue;
+          GraphEdge edge = index.edge(e);
+          if (sizes[gs] == 1 && sizes[gt] == 1) {
+            edges.add(edge);
+            continue;
+          }
+          int type = edge.type() == null ? 0 : edge.type().ordinal() + 1;
+          long key = ((long) gs * groups + gt) * TYPES + type;
+          merged.computeIfAbsent(key, x -> new int[1])[0] += Math.max(1, edge.weight());
+        }
+      }
+      int seq = 0;
+      EdgeType[] types = EdgeType.values();
+      for (Map.Entry<Long, int[]> e : merged.entrySet()) {
+        long key = e.getKey();
+        int type = (int) (key % TYPES);
+        long pair = key / TYPES;
+        edges.add(new GraphEdge(PREFIX + "e" + seq++, ids[(int) (pair / groups)], ids[(int) (pair % groups)],
+            type == 0 ? null : types[type - 1], e.getValue()[0]));
+      }
+      return new GraphSliceDto(nodes, edges, clusters, truncated);
+    }
+  }
+
+  private static GraphNode supernode(String id, Kind kind, List<GraphNode> members) {
+    long cost = 0, complexity = 0;
+    boolean hotspot = false;
+    NodeLevel level = NodeLevel.METHOD;
+    String pkg = members.get(0).packageName();
+    String cls = members.get(0).className();
+    GraphNode top = members.get(0);
+    for (GraphNode n : members) {
+      cost += n.cost();
+      complexity += n.complexity();
+      hotspot |= n.hotspot();
+      if (n.level() != null && n.level().ordinal() > level.ordinal()) level = n.level();
+      if (!Objects.equals(pkg, n.packageName())) pkg = null;
+      if (!Objects.equals(cls, n.className())) cls = null;
+      if (n.cost() > top.cost()) top = n;
+    }
+    int size = members.size();
+    String name = switch (kind) {
+      case CLASS -> (cls == null ? top.displayName() : cls.substring(cls.lastIndexOf('.') + 1)) + " (" + size + ")";
+      case PACKAGE -> pkg + " (" + size + ")";
+      case COMMUNITY -> top.displayName() + " +" + (size - 1);
+      case OTHER -> size + " more";
+    };
+    if (kind == Kind.CLASS) level = NodeLevel.CLASS;
+    if (kind == Kind.PACKAGE) level = NodeLevel.PACKAGE;
+    return new GraphNode(id, level, name, pkg, kind == Kind.PACKAGE ? null : cls, null, null,
+        (int) Math.min(Integer.MAX_VALUE, cost), (int) Math.min(Integer.MAX_VALUE, complexity), hotspot);
+  }
+}
@@ -0,0 +1,12 @@
+package com.belmonttech.graph.backend.lod;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** An {@code expand} path that does not name a cluster of the slice (stale, or for another snapshot version). */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class UnknownClusterException extends RuntimeException {
+  public UnknownClusterException(String clusterId) {
+    super("Unknown cluster: " + clusterId);
+  }
+}
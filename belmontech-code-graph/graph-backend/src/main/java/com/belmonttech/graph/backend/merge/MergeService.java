@@ -0,0 +1,92 @@
+package com.belmonttech.graph.backend.merge;
+
+import com.belmonttech.graph.backend.GraphService;
+import com.belmonttech.graph.backend.registry.SnapshotRegistry;
+import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.io.DataLoader;
+import com.belmonttech.graph.model.io.ISerializer;
+import com.belmonttech.graph.model.merge.MergeSource;
+import com.belmonttech.graph.model.merge.MergeStats;
+import com.belmonttech.graph.model.merge.SnapshotMerger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Federates registered snapshots (one per repo or service) into a new named snapshot. The result is written as a
+ * {@code .cgb} file in the merge spool before it is installed, so the registry can evict it and map it back in
+ * later like any other file-backed snapshot.
+ */
+@Service
+public class MergeService {
+
+  private static final String FORMAT = "cgb";
+
+  private final SnapshotRegistry registry;
+  private final GraphService graphService;
+  private final DataLoader dataLoader;
+  private final Path spoolDir;
+
+  public MergeService(SnapshotRegistry registry, GraphService graphService, DataLoader dataLoader,
+                      @Value("${graph.merge.spool-dir:}") String spoolDir) throws IOException {
+    this.registry = registry;
+    this.graphService = graphService;
+    this.dataLoader = dataLoader;
+    this.spoolDir = Files.createDirectories(spoolDir == null || spoolDir.isBlank()
+        ? Path.of(System.getProperty("java.io.tmpdir"), "graph-merges") : Path.of(spoolDir));
+  }
+
+  /**
+   * Merges {@code sources} (snapshot names, also used as namespaces) into {@code target}. File-backed sources are
+   * re-read raw from their files, in parallel: the registry's copies are normalized, which drops the edges to
+   * unresolved callees that the merge links across snapshots. Sources that only exist in memory are merged as
+   * loaded.
+   */
+  public MergeStats merge(String target, List<String> sources, Set<String> sharedPackages, boolean dedupeCommon)
+      throws Exception {
+    if (sources.size() < 2)
+      throw new IllegalArgumentException("A merge needs at least two source snapshots");
+    if (sources.contains(target))
+      throw new IllegalArgumentException("Merge target must not be one of its sources: " + target);
+    List<MergeSource> inputs = sources.parallelStream()
+        .map(name -> new MergeSource(name, raw(name)))
+        .toList();
+    SnapshotMerger.Result result = SnapshotMerger.merge(inputs,
+        new SnapshotMerger.Options(sharedPackages, dedupeCommon));
+
+    ISerializer serializer = dataLoader.getSerializer(FORMAT);
+    Path tmp = Files.createTempFile(spoolDir, target, "." + FORMAT + ".tmp");
+    Path file = spoolDir.resolve(UUID.randomUUID() + "." + FORMAT);
+    try {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16)) {
+        serializer.serialize(result.snapshot(), out);
+      }
+      Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+    graphService.updateSnapshot(target, result.snapshot(), file, true);
+    MergeStats s = result.stats();
+    System.out.printf("Merged %s into '%s' (nodes=%d, shared=%d, edges=%d, crossLinks=%d, unresolved=%d, %dms)%n",
+        sources, target, s.nodes(), s.sharedNodes(), s.edges(), s.crossLinks(), s.unresolved(), s.millis());
+    return s;
+  }
+
+  private GraphSnapshot raw(String name) {
+    Path source = registry.source(name);
+    if (source == null) return registry.acquire(name).snapshot();
+    try {
+      return dataLoader.load(source);
+    } catch (Exception ex) {
+      throw new IllegalStateException("Failed to read snapshot '" + name + "' from " + source, ex);
+    }
+  }
+}
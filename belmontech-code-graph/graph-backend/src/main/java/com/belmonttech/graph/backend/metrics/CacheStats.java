@@ -0,0 +1,37 @@
+package com.belmonttech.graph.backend.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Hit and miss counters of one cache or index lookup, read by {@link GraphMetrics}. */
+public final class CacheStats {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public void hit() {
+    hits.increment();
+  }
+
+  public void miss() {
+    misses.increment();
+  }
+
+  public void record(boolean hit) {
+    if (hit) hits.increment();
+    else misses.increment();
+  }
+
+  public long hits() {
+    return hits.sum();
+  }
+
+  public long misses() {
+    return misses.sum();
+  }
+
+  /** Share of lookups that hit, or null before the first lookup. */
+  public Double hitRate() {
+    long h = hits.sum(), total = h + misses.sum();
+    return total == 0 ? null : (double) h / total;
+  }
+}
@@ -0,0 +1,247 @@
+package com.belmonttech.graph.backend.metrics;
+
+import com.belmonttech.graph.backend.cache.SliceResponseCache;
+import com.belmonttech.graph.backend.dto.DiffSliceDto;
+import com.belmonttech.graph.backend.dto.GraphSliceDto;
+import com.belmonttech.graph.backend.dto.MetricsDto;
+import com.belmonttech.graph.backend.dto.PathSliceDto;
+import com.belmonttech.graph.backend.dto.QueryResultDto;
+import com.belmonttech.graph.backend.dto.SearchResultDto;
+import com.belmonttech.graph.backend.exec.QueryExecutor;
+import com.belmonttech.graph.backend.layout.LayoutService;
+import com.belmonttech.graph.backend.reach.ReachabilityService;
+import com.belmonttech.graph.backend.registry.SnapshotRegistry;
+import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.io.DataLoader;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime metrics of the backend: latency, outcome and result size per slice endpoint, load time per serializer
+ * format, hit rates of the caches and the snapshot registry, and the heap footprint of the loaded snapshots.
+ * Requests slower than {@code graph.metrics.slow-query-ms} are logged with their parameters and kept in a ring of
+ * the last {@code graph.metrics.slow-query-log-size}. Everything is kept in constant memory and served by
+ * {@code /api/graph/metrics}.
+ */
+@Component
+public class GraphMetrics {
+
+  public enum Outcome { NOT_MODIFIED, CACHED, COMPUTED, SHARED, FAILED }
+
+  private static final int MAX_LOGGED_PARAMS = 2000;
+
+  private final SnapshotRegistry registry;
+  private final SliceResponseCache responseCache;
+  private final ReachabilityService reachability;
+  private final LayoutService layoutService;
+  private final QueryExecutor queryExecutor;
+  private final long slowNanos;
+  private final int slowLogSize;
+  private final long startMillis = System.currentTimeMillis();
+  private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+  private final Map<String, LoadStats> loads = new ConcurrentHashMap<>();
+  private final Deque<MetricsDto.SlowQuery> slowQueries = new ArrayDeque<>();
+
+  public GraphMetrics(DataLoader dataLoader, SnapshotRegistry registry, SliceResponseCache responseCache,
+                      ReachabilityService reachability, LayoutService layoutService, QueryExecutor queryExecutor,
+                      @Value("${graph.metrics.slow-query-ms:1000}") long slowQueryMillis,
+                      @Value("${graph.metrics.slow-query-log-size:100}") int slowLogSize) {
+    this.registry = registry;
+    this.responseCache = responseCache;
+    this.reachability = reachability;
+    this.layoutService = layoutService;
+    this.queryExecutor = queryExecutor;
+    this.slowNanos = slowQueryMillis <= 0 ? Long.MAX_VALUE : slowQueryMillis * 1_000_000;
+    this.slowLogSize = Math.max(0, slowLogSize);
+    dataLoader.setLoadObserver(this::recordLoad);
+  }
+
+  /** Starts timing one request; the caller must {@link Trace#finish()} it. */
+  public Trace start(String endpoint, String snapshot, String params) {
+    return new Trace(endpoint, snapshot, params);
+  }
+
+  /**
+   * One request to a slice endpoint. {@link #result} is called by whichever thread computes the response, so a
+   * trace that never sees it was answered by a computation another request started.
+   */
+  public final class Trace {
+
+    private final String endpoint;
+    private final String snapshot;
+    private final String params;
+    private final long startNanos = System.nanoTime();
+    private volatile Outcome outcome = Outcome.SHARED;
+    private volatile int nodes = -1;
+    private volatile int edges = -1;
+    private int bytes = -1;
+    private Throwable error;
+
+    private Trace(String endpoint, String snapshot, String params) {
+      this.endpoint = endpoint;
+      this.snapshot = snapshot;
+      this.params = params;
+    }
+
+    public void outcome(Outcome outcome) {
+      this.outcome = outcome;
+    }
+
+    /** Marks the request as computed and notes the size of {@code result}, which is returned as is. */
+    public <T> T result(T result) {
+      int[] size = sizeOf(result);
+      if (size != null) {
+        nodes = size[0];
+        edges = size[1];
+      }
+      outcome = Outcome.COMPUTED;
+      return result;
+    }
+
+    public void bytes(int bytes) {
+      this.bytes = bytes;
+    }
+
+    public void failed(Throwable error) {
+      this.error = error;
+      outcome = Outcome.FAILED;
+    }
+
+    public void finish() {
+      long nanos = System.nanoTime() - startNanos;
+      endpoints.computeIfAbsent(endpoint, k -> new EndpointStats()).record(this, nanos);
+      if (nanos >= slowNanos) slow(this, nanos);
+    }
+  }
+
+  private static final class EndpointStats {
+    final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+    final Histogram latency = new Histogram();
+    final Histogram nodes = new Histogram();
+    final Histogram edges = new Histogram();
+    final Histogram bytes = new Histogram();
+
+    EndpointStats() {
+      for (Outcome o : Outcome.values()) outcomes.put(o, new LongAdder());
+    }
+
+    void record(Trace t, long nanos) {
+      outcomes.get(t.outcome).increment();
+      latency.record(nanos);
+      if (t.outcome != Outcome.COMPUTED) return;
+      if (t.nodes >= 0) nodes.record(t.nodes);
+      if (t.edges >= 0) edges.record(t.edges);
+      if (t.bytes >= 0) bytes.record(t.bytes);
+    }
+  }
+
+  private static final class LoadStats {
+    final Histogram nanos = new Histogram();
+    final LongAdder failures = new LongAdder();
+    final LongAdder bytes = new LongAdder();
+    final LongAdder sizedNanos = new LongAdder();
+  }
+
+  private void recordLoad(String format, long bytes, long nanos, GraphSnapshot snapshot) {
+    LoadStats s = loads.computeIfAbsent(format, k -> new LoadStats());
+    s.nanos.record(nanos);
+    if (snapshot == null) {
+      s.failures.increment();
+      return;
+    }
+    if (bytes >= 0) {
+      s.bytes.add(bytes);
+      s.sizedNanos.add(nanos);
+    }
+  }
+
+  private void slow(Trace t, long nanos) {
+    String params = t.params.length() > MAX_LOGGED_PARAMS ? t.params.substring(0, MAX_LOGGED_PARAMS) + "..." : t.params;
+    String error = t.error == null ? null : t.error.getClass().getSimpleName() + ": " + t.error.getMessage();
+    System.err.printf("Slow query: %s on '%s' took %d ms (%s%s) %s%s%n", t.endpoint, t.snapshot, nanos / 1_000_000,
+        t.outcome, t.nodes >= 0 ? ", " + t.nodes + " nodes, " + t.edges + " edges" : "", params,
+        error == null ? "" : " -> " + error);
+    if (slowLogSize == 0) return;
+    MetricsDto.SlowQuery entry = new MetricsDto.SlowQuery(Instant.now().toString(), t.endpoint, t.snapshot, params,
+        nanos / 1e6, t.outcome.name(), t.nodes >= 0 ? t.nodes : null, t.edges >= 0 ? t.edges : null,
+        t.bytes >= 0 ? t.bytes : null, error);
+    synchronized (slowQueries) {
+      slowQueries.addFirst(entry);
+      while (slowQueries.size() > slowLogSize) slowQueries.removeLast();
+    }
+  }
+
+  public MetricsDto snapshot() {
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    MetricsDto.Heap heapDto = new MetricsDto.Heap(heap.getUsed(), heap.getCommitted(), heap.getMax(),
+        registry.loadedBytes(), registry.budgetBytes());
+
+    Map<String, MetricsDto.Load> loadDtos = new TreeMap<>();
+    loads.forEach((format, s) -> {
+      long sizedNanos = s.sizedNanos.sum();
+      loadDtos.put(format, new MetricsDto.Load(s.nanos.count(), s.failures.sum(), s.bytes.sum(), latency(s.nanos),
+          sizedNanos == 0 ? null : s.bytes.sum() / 1e6 / (sizedNanos / 1e9)));
+    });
+
+    Map<String, MetricsDto.Cache> caches = new LinkedHashMap<>();
+    caches.put("responses", cache(responseCache.stats(), responseCache.size(), responseCache.bytes()));
+    caches.put("snapshots", cache(registry.acquireStats(), null, null));
+    caches.put("reach", cache(reachability.stats(), null, null));
+    caches.put("layout", cache(layoutService.stats(), null, null));
+    caches.put("coalescing", cache(queryExecutor.coalescing(), null, null));
+
+    MetricsDto.Executor executor = new MetricsDto.Executor(queryExecutor.inFlight(), queryExecutor.freeHeavySlots(),
+        queryExecutor.queuedHeavyQueries(), queryExecutor.rejected(), latency(queryExecutor.slotWaitNanos()));
+
+    Map<String, MetricsDto.Endpoint> endpointDtos = new TreeMap<>();
+    endpoints.forEach((name, s) -> {
+      Map<String, Long> outcomes = new LinkedHashMap<>();
+      s.outcomes.forEach((o, n) -> {
+        long v = n.sum();
+        if (v > 0) outcomes.put(o.name(), v);
+      });
+      endpointDtos.put(name, new MetricsDto.Endpoint(s.latency.count(), outcomes, latency(s.latency),
+          sizes(s.nodes), sizes(s.edges), sizes(s.bytes)));
+    });
+
+    List<MetricsDto.SlowQuery> slow;
+    synchronized (slowQueries) {
+      slow = List.copyOf(slowQueries);
+    }
+    return new MetricsDto(System.currentTimeMillis() - startMillis, heapDto, registry.list(), loadDtos,
+        latency(registry.prepareNanos()), caches, executor, endpointDtos, slow);
+  }
+
+  /** Node and edge count of a response DTO, or null for responses without a node list. */
+  static int[] sizeOf(Object result) {
+    return switch (result) {
+      case GraphSliceDto s -> new int[]{s.nodes().size(), s.edges().size()};
+      case PathSliceDto p -> new int[]{p.nodes().size(), p.edges().size()};
+      case QueryResultDto q -> new int[]{q.nodes().size(), q.edges().size()};
+      case SearchResultDto s -> new int[]{s.nodes().size(), 0};
+      case DiffSliceDto d -> new int[]{d.nodes().size(), d.edges().size() + d.removedEdges().size()};
+      case null, default -> null;
+    };
+  }
+
+  private static MetricsDto.Latency latency(Histogram h) {
+    return new MetricsDto.Latency(h.count(), h.mean() / 1e6, h.percentile(0.5) / 1e6, h.percentile(0.9) / 1e6,
+        h.percentile(0.99) / 1e6, h.max() / 1e6);
+  }
+
+  private static MetricsDto.Sizes sizes(Histogram h) {
+    return h.count() == 0 ? null : new MetricsDto.Sizes(h.mean(), h.percentile(0.5), h.percentile(0.99), h.max());
+  }
+
+  private static MetricsDto.Cache cache(CacheStats s, Integer entries, Long bytes) {
+    return new MetricsDto.Cache(s.hits(), s.misses(), s.hitRate(), entries, bytes);
+  }
+}
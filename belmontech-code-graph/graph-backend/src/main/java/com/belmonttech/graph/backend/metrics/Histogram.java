@@ -0,0 +1,82 @@
+package com.belmonttech.graph.backend.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values (latencies in nanoseconds, result sizes) with log-linear buckets:
+ * values below 128 are exact, above that every power of two is split into 64 buckets, so a reported percentile
+ * is within 1.6% of the true value. Memory is constant whatever the number of samples, and any number of threads
+ * may record concurrently.
+ */
+public final class Histogram {
+
+  private static final int SUB_BITS = 6;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+  private static final int BUCKETS = 2 * SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+
+  public void record(long value) {
+    long v = Math.max(0, value);
+    counts.incrementAndGet(bucket(v));
+    count.increment();
+    sum.add(v);
+  }
+
+  public long count() {
+    return count.sum();
+  }
+
+  public long sum() {
+    return sum.sum();
+  }
+
+  public double mean() {
+    long n = count.sum();
+    return n == 0 ? 0 : (double) sum.sum() / n;
+  }
+
+  /** Upper bound of the bucket holding the {@code quantile} (0..1) sample; 0 when empty. */
+  public long percentile(double quantile) {
+    long n = count.sum();
+    if (n == 0) return 0;
+    long rank = Math.max(1, (long) Math.ceil(quantile * n));
+    long seen = 0;
+    for (int b = 0; b < BUCKETS; b++) {
+      seen += counts.get(b);
+      if (seen >= rank) return upperBound(b);
+    }
+    return upperBound(BUCKETS - 1);
+  }
+
+  public long max() {
+    for (int b = BUCKETS - 1; b >= 0; b--) if (counts.get(b) > 0) return upperBound(b);
+    return 0;
+  }
+
+  /** Adds the samples of {@code other}. */
+  public void add(Histogram other) {
+    for (int b = 0; b < BUCKETS; b++) {
+      long c = other.counts.get(b);
+      if (c != 0) counts.addAndGet(b, c);
+    }
+    count.add(other.count.sum());
+    sum.add(other.sum.sum());
+  }
+
+  static int bucket(long v) {
+    if (v < 2 * SUB_BUCKETS) return (int) v;
+    int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) (v >>> shift) - SUB_BUCKETS;
+  }
+
+  static long upperBound(int bucket) {
+    if (bucket < 2 * SUB_BUCKETS) return bucket;
+    int shift = bucket / SUB_BUCKETS - 1;
+    long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+    return ((mantissa + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,69 @@
+package com.belmonttech.graph.backend.reach;
+
+import com.belmonttech.graph.backend.metrics.CacheStats;
+import com.belmonttech.graph.backend.registry.PreparedSnapshot;
+import com.belmonttech.graph.model.EdgeType;
+import com.belmonttech.graph.model.index.Reachability;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Reachability queries with a cache of full closures. Depth- or cost-bounded walks are cheap and recomputed;
+ * unbounded ones (everything that can reach a DAO method) touch most of the graph, so their results are kept
+ * per (snapshot, version, node, direction, edge type) in an LRU bounded by {@code graph.reach.cache-bytes}.
+ * Repeated questions about the same hot nodes are then answered from memory.
+ */
+@Service
+public class ReachabilityService {
+
+  private final long maxBytes;
+  private final LinkedHashMap<Key, Reachability.Result> closures = new LinkedHashMap<>(64, 0.75f, true);
+  private final CacheStats stats = new CacheStats();
+  private long totalBytes;
+
+  public ReachabilityService(@Value("${graph.reach.cache-bytes:33554432}") long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Nodes reachable from {@code start} in {@code prepared}, the snapshot {@code name} at {@code version}.
+   * See {@link Reachability#closure} for the bounds.
+   */
+  public Reachability.Result reach(String name, long version, PreparedSnapshot prepared, int start,
+                                   Reachability.Direction direction, EdgeType type, int depth, int minCost) {
+    if (depth > 0 || minCost > 0) {
+      return Reachability.closure(prepared.index(), start, direction, type, depth, minCost);
+    }
+    Key key = new Key(name, version, start, direction, type);
+    synchronized (this) {
+      Reachability.Result cached = closures.get(key);
+      stats.record(cached != null);
+      if (cached != null) return cached;
+    }
+    Reachability.Result result = Reachability.closure(prepared.index(), start, direction, type, 0, 0);
+    long bytes = bytes(result);
+    synchronized (this) {
+      if (bytes <= maxBytes && closures.put(key, result) == null) totalBytes += bytes;
+      Iterator<Reachability.Result> it = closures.values().iterator();
+      while (totalBytes > maxBytes && it.hasNext()) {
+        totalBytes -= bytes(it.next());
+        it.remove();
+      }
+    }
+    return result;
+  }
+
+  /** Lookups of unbounded closures; bounded walks are always recomputed and not counted. */
+  public CacheStats stats() {
+    return stats;
+  }
+
+  private static long bytes(Reachability.Result r) {
+    return r.reached().size() / 8 + 64;
+  }
+
+  private record Key(String snapshot, long version, int start, Reachability.Direction direction, EdgeType type) {}
+}
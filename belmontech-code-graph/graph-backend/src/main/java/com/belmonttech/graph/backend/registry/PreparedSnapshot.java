@@ -0,0 +1,140 @@
+package com.belmonttech.graph.backend.registry;
+
+import com.belmonttech.graph.backend.dto.GraphSliceDto;
+import com.belmonttech.graph.model.*;
+import com.belmonttech.graph.model.columnar.ColumnarSnapshot;
+import com.belmonttech.graph.model.columnar.SnapshotColumns;
+import com.belmonttech.graph.model.index.AdjacencyIndex;
+import com.belmonttech.graph.model.index.NameSearchIndex;
+import com.belmonttech.graph.model.index.RootCauseIndex;
+import com.belmonttech.graph.model.normalize.EdgeNormalizer;
+import com.belmonttech.graph.model.normalize.NormalizationStats;
+import com.belmonttech.graph.model.progress.ProgressListener;
+import com.belmonttech.graph.model.query.NodeColumnIndex;
+
+import java.util.*;
+
+/**
+ * A snapshot together with the indexes and derived views built for it, plus its estimated heap footprint.
+ * {@code normalization} is null when the snapshot was not normalized.
+ */
+public record PreparedSnapshot(AdjacencyIndex index, RootCauseIndex rootCauses, NameSearchIndex search,
+                               NodeColumnIndex columnIndex, GraphSliceDto packageGraph, long estimatedBytes,
+                               NormalizationStats normalization) {
+
+  private static final int DANGLING_SAMPLE = 10;
+
+  public GraphSnapshot snapshot() { return index.snapshot(); }
+
+  /** Edges served from this snapshot: dangling edges a column-backed file still holds are not counted if dropped. */
+  public int edgeCount() { return normalization != null ? normalization.outputEdges() : index.edgeCount(); }
+
+  /** Builds indexes and derived views. Safe to call from any thread; the result is immutable. */
+  public static PreparedSnapshot prepare(GraphSnapshot snapshot) {
+    return prepare(snapshot, false, null);
+  }
+
+  /**
+   * As {@link #prepare(GraphSnapshot)}; with {@code columnar} the snapshot is first re-encoded as a
+   * {@link ColumnarSnapshot} so the registry keeps dictionary-encoded columns instead of one record per node.
+   */
+  public static PreparedSnapshot prepare(GraphSnapshot snapshot, boolean columnar) {
+    return prepare(snapshot, columnar, null);
+  }
+
+  /**
+   * As {@link #prepare(GraphSnapshot, boolean)}, running {@link EdgeNormalizer} first unless {@code normalize}
+   * is null. Column-backed snapshots (memory-mapped .cgb files) are indexed as they are: BinarySnapshotSerializer
+   * merges parallel edges when it writes them, and rewriting them here would copy the whole mapping onto the heap.
+   * Their dangling edges stay in the file (a later merge may resolve them); the index leaves them unlinked, and
+   * with {@code dropDangling} they are counted as dropped.
+   */
+  public static PreparedSnapshot prepare(GraphSnapshot snapshot, boolean columnar, EdgeNormalizer.Options normalize) {
+    return prepare(snapshot, columnar, normalize, null);
+  }
+
+  /** As above; {@code listener} (optional) receives the progress of the index build. */
+  public static PreparedSnapshot prepare(GraphSnapshot snapshot, boolean columnar, EdgeNormalizer.Options normalize,
+                                         ProgressListener listener) {
+    GraphSnapshot s = (snapshot == null) ? new GraphSnapshot(Map.of(), List.of()) : snapshot;
+    NormalizationStats stats = null;
+    if (normalize != null && snapshot != null && SnapshotColumns.of(s) == null) {
+      EdgeNormalizer.Result r = EdgeNormalizer.normalize(s, normalize);
+      s = r.snapshot();
+      stats = r.stats();
+    }
+    if (columnar) s = ColumnarSnapshot.encode(s);
+    AdjacencyIndex index = AdjacencyIndex.build(s, listener);
+    if (normalize != null && stats == null && index.columns() != null) stats = danglingStats(index, normalize);
+    RootCauseIndex rootCauses = RootCauseIndex.build(index);
+    NameSearchIndex search = NameSearchIndex.build(index);
+    NodeColumnIndex columnIndex = NodeColumnIndex.build(index);
+    GraphSliceDto packageGraph = buildPackageLevelGraph(index);
+    long bytes = SnapshotFootprint.estimateBytes(s) + index.estimatedBytes() + rootCauses.estimatedBytes() + search.estimatedBytes()
+      + columnIndex.estimatedBytes()
+      + SnapshotFootprint.estimateBytes(new GraphSnapshot(Map.of(), packageGraph.edges()))
+      + (long) packageGraph.nodes().size() * 128;
+    return new PreparedSnapshot(index, rootCauses, search, columnIndex, packageGraph, bytes, stats);
+  }
+
+  /** Dangling edges of a column-backed snapshot, which {@link AdjacencyIndex} already left out of the adjacency. */
+  private static NormalizationStats danglingStats(AdjacencyIndex index, EdgeNormalizer.Options normalize) {
+    long t0 = System.nanoTime();
+    int m = index.edgeCount();
+    int dangling = 0;
+    List<String> sample = new ArrayList<>();
+    for (int e = 0; e < m; e++) {
+      if (index.source(e) >= 0 && index.target(e) >= 0) continue;
+      if (dangling++ < DANGLING_SAMPLE) sample.add(index.edge(e).id());
+    }
+    return new NormalizationStats(m, normalize.dropDangling() ? m - dangling : m, 0, dangling, 0, List.copyOf(sample),
+      (System.nanoTime() - t0) / 1_000_000);
+  }
+
+  /**
+   * Averages node cost per package and sums INVOCATION weights between packages. Column-backed snapshots are read
+   * through the column accessors, so a mapped file is not materialized record by record.
+   */
+  private static GraphSliceDto buildPackageLevelGraph(AdjacencyIndex index) {
+    SnapshotColumns columns = index.columns();
+    Map<String, Aggregation> packages = new HashMap<>();
+    for (int i = 0; i < index.nodeCount(); i++) {
+      GraphNode node = columns == null ? index.node(i) : null;
+      String pkg = columns != null ? columns.packageName(i) : node.packageName();
+      NodeLevel level = columns != null ? columns.level(i) : node.level();
+      // PACKAGE nodes already are aggregates; counting them again would skew the average
+      if (pkg == null || pkg.isBlank() || level == NodeLevel.PACKAGE) continue;
+      Aggregation agg = packages.computeIfAbsent(pkg, k -> new Aggregation());
+      agg.cost += columns != null ? columns.cost(i) : node.cost();
+      agg.complexity += columns != null ? columns.complexity(i) : node.complexity();
+      agg.count++;
+    }
+    List<GraphNode> packageNodes = new ArrayList<>();
+    for (var e : packages.entrySet()) {
+      String pkg = e.getKey(); Aggregation agg = e.getValue();
+      int avgCost = agg.count == 0 ? 0 : agg.cost / agg.count;
+      boolean hotspot = avgCost >= CostLevel.HIGH.code();
+      packageNodes.add(new GraphNode("pkg:"+pkg, NodeLevel.PACKAGE, pkg, pkg, null, null, null, avgCost, agg.complexity, hotspot));
+    }
+    Map<String,Integer> edgeAgg = new HashMap<>();
+    for (int e = 0; e < index.edgeCount(); e++) {
+      GraphEdge edge = columns == null ? index.edge(e) : null;
+      if ((columns != null ? columns.edgeType(e) : edge.type()) != EdgeType.INVOCATION) continue;
+      int s = index.source(e), t = index.target(e);
+      if (s < 0 || t < 0) continue;
+      String sp = columns != null ? columns.packageName(s) : index.node(s).packageName();
+      String tp = columns != null ? columns.packageName(t) : index.node(t).packageName();
+      if (sp == null || tp == null || sp.equals(tp)) continue;
+      String key = sp+"->"+tp;
+      edgeAgg.merge(key, columns != null ? columns.edgeWeight(e) : edge.weight(), Integer::sum);
+    }
+    List<GraphEdge> packageEdges = new ArrayList<>(); int idx = 0;
+    for (var e : edgeAgg.entrySet()) {
+      String[] parts = e.getKey().split("->"); if (parts.length!=2) continue;
+      packageEdges.add(new GraphEdge("pkgEdge:"+(idx++), "pkg:"+parts[0], "pkg:"+parts[1], EdgeType.INVOCATION, e.getValue()));
+    }
+    return new GraphSliceDto(packageNodes, packageEdges);
+  }
+
+  private static class Aggregation { int cost, complexity, count; }
+}
@@ -0,0 +1,317 @@
+package com.belmonttech.graph.backend.registry;
+
+import com.belmonttech.graph.backend.dto.SnapshotInfoDto;
+import com.belmonttech.graph.backend.metrics.CacheStats;
+import com.belmonttech.graph.backend.metrics.Histogram;
+import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.io.DataLoader;
+import com.belmonttech.graph.model.normalize.EdgeNormalizer;
+import com.belmonttech.graph.model.normalize.NormalizationStats;
+import com.belmonttech.graph.model.progress.ProgressListener;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Named snapshots (repo, branch, run ...) served by one backend. Every loaded snapshot is charged its estimated
+ * heap footprint against {@code graph.registry.heap-budget-mb}; when the budget is exceeded the least recently
+ * used snapshots are unloaded. Snapshots backed by a source file come back lazily on their next access,
+ * snapshots without one are dropped.
+ * <p>
+ * Replacing a snapshot keeps the old one as {@code <name>~previous} so it can be diffed against.
+ */
+@Component
+public class SnapshotRegistry {
+
+  public static final String PREVIOUS_SUFFIX = "~previous";
+
+  private static final PreparedSnapshot EMPTY = PreparedSnapshot.prepare(null);
+
+  private final DataLoader dataLoader;
+  private final long budgetBytes;
+  private final String defaultName;
+  private final boolean columnar;
+  private final EdgeNormalizer.Options normalize;
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final AtomicLong versions = new AtomicLong();
+  private final CacheStats acquireStats = new CacheStats();
+  private final Histogram prepareNanos = new Histogram();
+  private long loadedBytes;
+
+  public SnapshotRegistry(DataLoader dataLoader,
+                          @Value("${graph.registry.heap-budget-mb:0}") long heapBudgetMb,
+                          @Value("${graph.registry.default-snapshot:default}") String defaultName,
+                          @Value("${graph.registry.snapshots:}") String configured,
+                          @Value("${graph.registry.columnar:true}") boolean columnar,
+                          @Value("${graph.normalize.enabled:true}") boolean normalize,
+                          @Value("${graph.normalize.merge-parallel:true}") boolean mergeParallel,
+                          @Value("${graph.normalize.drop-dangling:true}") boolean dropDangling,
+                          @Value("${graph.normalize.remove-self-loops:false}") boolean removeSelfLoops) {
+    this.dataLoader = dataLoader;
+    this.columnar = columnar;
+    this.normalize = normalize ? new EdgeNormalizer.Options(mergeParallel, dropDangling, removeSelfLoops) : null;
+    this.budgetBytes = heapBudgetMb > 0 ? heapBudgetMb << 20 : Runtime.getRuntime().maxMemory() / 2;
+    this.defaultName = defaultName;
+    // "name=path,name=path": registered lazily, nothing is parsed until first requested
+    for (String item : configured.split(",")) {
+      int eq = item.indexOf('=');
+      if (eq > 0) register(item.substring(0, eq).trim(), Path.of(item.substring(eq + 1).trim()));
+    }
+  }
+
+  public String defaultName() {
+    return defaultName;
+  }
+
+  public long budgetBytes() {
+    return budgetBytes;
+  }
+
+  /**
+   * Normalizes and indexes a parsed snapshot the way this registry stores it (column-encoded unless disabled).
+   */
+  public PreparedSnapshot prepare(GraphSnapshot snapshot) {
+    return prepare(snapshot, null);
+  }
+
+  /** As {@link #prepare(GraphSnapshot)}, reporting index-build progress to {@code listener} (optional). */
+  public PreparedSnapshot prepare(GraphSnapshot snapshot, ProgressListener listener) {
+    long t0 = System.nanoTime();
+    PreparedSnapshot p = PreparedSnapshot.prepare(snapshot, columnar, normalize, listener);
+    prepareNanos.record(System.nanoTime() - t0);
+    NormalizationStats n = p.normalization();
+    if (n != null && (n.changed() || n.danglingEdges() > 0)) {
+      System.out.printf("Normalized edges %d -> %d (merged=%d, dangling=%d%s, selfLoops=%d, %dms)%n",
+          n.inputEdges(), n.outputEdges(), n.mergedEdges(), n.danglingEdges(),
+          normalize.dropDangling() ? " dropped" : " kept", n.selfLoops(), n.millis());
+      if (n.danglingEdges() > 0) System.err.println("Dangling edges (sample): " + n.danglingSample());
+    }
+    return p;
+  }
+
+  /** Registers (or re-points) a file-backed snapshot without loading it. */
+  public synchronized void register(String name, Path source) {
+    Entry existing = entries.get(name);
+    if (existing != null && source.equals(existing.source)) return;
+    replace(name, new Entry(name, source, false, versions.incrementAndGet()));
+  }
+
+  /**
+   * Installs an already prepared snapshot under {@code name}. {@code source} may be null for snapshots that
+   * cannot be re-read; when {@code ownsSource} is set the file is deleted once the registry drops the entry.
+   */
+  public synchronized void install(String name, PreparedSnapshot prepared, Path source, boolean ownsSource) {
+    Entry entry = new Entry(name, source, ownsSource, versions.incrementAndGet());
+    replace(name, entry);
+    charge(entry, prepared);
+    evictOverBudget(entry);
+  }
+
+  /** The snapshot's file changed on disk: drop the loaded copy so the next access re-reads it. */
+  public synchronized void invalidate(String name) {
+    Entry e = entries.get(name);
+    if (e == null || e.source == null) return;
+    unload(e);
+    e.version = versions.incrementAndGet();
+  }
+
+  public synchronized boolean isLoaded(String name) {
+    Entry e = entries.get(name);
+    return e != null && e.prepared != null;
+  }
+
+  /** Current version of a snapshot without loading it; changes whenever its content may have changed. */
+  public synchronized long version(String name) {
+    return lookup(name).version;
+  }
+
+  /** File the snapshot is (re)read from, or null if it only exists in memory. */
+  public synchronized Path source(String name) {
+    return lookup(name).source;
+  }
+
+  /** Returns the prepared snapshot, loading it from its source file if it was evicted. */
+  public PreparedSnapshot acquire(String name) {
+    Entry e;
+    synchronized (this) {
+      e = entries.get(name);
+      if (e == null) {
+        if (name.equals(defaultName)) return EMPTY;
+        throw new UnknownSnapshotException(name);
+      }
+      PreparedSnapshot p = e.prepared;
+      acquireStats.record(p != null);
+      if (p != null) return p;
+    }
+    // load outside the registry lock so other snapshots stay available; the entry lock stops duplicate loads
+    synchronized (e) {
+      PreparedSnapshot p = e.prepared;
+      if (p != null) return p;
+      if (e.source == null) throw new UnknownSnapshotException(name);
+      p = load(e);
+      synchronized (this) {
+        if (entries.get(name) == e && e.prepared == null) {
+          charge(e, p);
+          evictOverBudget(e);
+        }
+      }
+      return p;
+    }
+  }
+
+  /** Hits are acquires of a loaded snapshot, misses those that had to (re)load it from its file. */
+  public CacheStats acquireStats() {
+    return acquireStats;
+  }
+
+  /** Time spent normalizing and indexing parsed snapshots. */
+  public Histogram prepareNanos() {
+    return prepareNanos;
+  }
+
+  public synchronized long loadedBytes() {
+    return loadedBytes;
+  }
+
+  public synchronized boolean remove(String name) {
+    Entry e = entries.remove(name);
+    if (e == null) return false;
+    drop(e);
+    return true;
+  }
+
+  public synchronized List<SnapshotInfoDto> list() {
+    List<SnapshotInfoDto> out = new ArrayList<>();
+    for (Entry e : entries.values()) {
+      out.add(new SnapshotInfoDto(e.name, e.source == null ? null : e.source.toString(), e.prepared != null,
+          e.version, e.prepared != null ? e.bytes : 0, e.nodes, e.edges, e.normalization));
+    }
+    return out;
+  }
+
+  private Entry lookup(String name) {
+    Entry e = entries.get(name);
+    if (e == null) {
+      if (name.equals(defaultName)) return new Entry(name, null, false, 0);
+      throw new UnknownSnapshotException(name);
+    }
+    return e;
+  }
+
+  private PreparedSnapshot load(Entry e) {
+    try {
+      long t0 = System.nanoTime();
+      GraphSnapshot snapshot = dataLoader.load(e.source);
+      PreparedSnapshot p = prepare(snapshot);
+      System.out.printf("Loaded snapshot '%s' from %s (nodes=%d, edges=%d, ~%dMB, %dms)%n", e.name, e.source,
+          p.index().nodeCount(), p.edgeCount(), p.estimatedBytes() >> 20,
+          (System.nanoTime() - t0) / 1_000_000);
+      return p;
+    } catch (Exception ex) {
+      throw new IllegalStateException("Failed to load snapshot '" + e.name + "' from " + e.source, ex);
+    }
+  }
+
+  private void replace(String name, Entry entry) {
+    Entry old = entries.put(name, entry);
+    if (old == null) return;
+    if (name.endsWith(PREVIOUS_SUFFIX)) {
+      drop(old);
+      return;
+    }
+    // an external file that was rewritten in place no longer holds the old content, so it cannot back ~previous
+    Path previousSource = old.ownsSource || !Objects.equals(old.source, entry.source) ? old.source : null;
+    if (old.prepared == null && previousSource == null) {
+      drop(old);
+      return;
+    }
+    Entry previous = new Entry(name + PREVIOUS_SUFFIX, previousSource, old.ownsSource, old.version);
+    // the old copy is already accounted for; move the charge over instead of unloading it
+    previous.prepared = old.prepared;
+    previous.bytes = old.bytes;
+    previous.nodes = old.nodes;
+    previous.edges = old.edges;
+    previous.normalization = old.normalization;
+    old.prepared = null;
+    Entry displaced = entries.put(previous.name, previous);
+    if (displaced != null) drop(displaced);
+  }
+
+  private void charge(Entry e, PreparedSnapshot p) {
+    e.prepared = p;
+    e.bytes = p.estimatedBytes();
+    e.nodes = p.index().nodeCount();
+    e.edges = p.edgeCount();
+    e.normalization = p.normalization();
+    loadedBytes += e.bytes;
+  }
+
+  private void unload(Entry e) {
+    if (e.prepared == null) return;
+    e.prepared = null;
+    loadedBytes -= e.bytes;
+  }
+
+  private void drop(Entry e) {
+    unload(e);
+    if (e.ownsSource && e.source != null) {
+      try {
+        Files.deleteIfExists(e.source);
+      } catch (IOException ex) {
+        System.err.println("Could not delete snapshot file " + e.source + ": " + ex.getMessage());
+      }
+    }
+  }
+
+  private void evictOverBudget(Entry keep) {
+    Iterator<Entry> it = entries.values().iterator();
+    while (loadedBytes > budgetBytes && it.hasNext()) {
+      Entry e = it.next();
+      if (e == keep || e.prepared == null) continue;
+      System.out.printf("Evicting snapshot '%s' (~%dMB) to stay within the %dMB budget%n", e.name, e.bytes >> 20,
+          budgetBytes >> 20);
+      if (e.source == null) {
+        it.remove();
+        drop(e);
+      } else {
+        unload(e);
+      }
+    }
+    if (loadedBytes > budgetBytes)
+      System.err.printf("Snapshot '%s' alone exceeds the heap budget (~%dMB > %dMB)%n", keep.name,
+          loadedBytes >> 20, budgetBytes >> 20);
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() {
+    entries.values().forEach(this::drop);
+    entries.clear();
+  }
+
+  private static final class Entry {
+    final String name;
+    final Path source;
+    final boolean ownsSource;
+    long version;
+    volatile PreparedSnapshot prepared;
+    long bytes;
+    Integer nodes;
+    Integer edges;
+    NormalizationStats normalization;
+
+    Entry(String name, Path source, boolean ownsSource, long version) {
+      this.name = name;
+      this.source = source;
+      this.ownsSource = ownsSource;
+      this.version = version;
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package com.belmonttech.graph.backend.registry;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class UnknownSnapshotException extends RuntimeException {
+  public UnknownSnapshotException(String name) {
+    super("Unknown snapshot: " + name);
+  }
+}
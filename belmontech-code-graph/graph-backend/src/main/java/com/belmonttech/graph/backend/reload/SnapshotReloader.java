@@ -0,0 +1,186 @@
+package com.belmonttech.graph.backend.reload;
+
+import com.belmonttech.graph.backend.registry.PreparedSnapshot;
+import com.belmonttech.graph.backend.registry.SnapshotRegistry;
+import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.io.DataLoader;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Keeps file-backed snapshots fresh: the parent directories are watched, bursts of events are debounced, and a
+ * changed file is parsed and indexed on a background thread before being swapped into the registry. Snapshots
+ * the registry has evicted are only invalidated; they are re-read on their next access.
+ * <p>
+ * Writers should publish with write-to-temp + atomic rename; the rename shows up as a create/modify of the
+ * target name and is picked up like any other change. Half-written files are tolerated: if the parse fails
+ * the previous snapshot stays active and the next event retries.
+ */
+@Component
+public class SnapshotReloader {
+
+  private final SnapshotRegistry registry;
+  private final DataLoader dataLoader;
+  private final boolean enabled;
+  private final long debounceMillis;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "graph-reload");
+    t.setDaemon(true);
+    return t;
+  });
+  private final Map<Path, Watched> watched = new ConcurrentHashMap<>();
+  private final Map<Path, WatchKey> watchedDirs = new ConcurrentHashMap<>();
+  private WatchService watchService;
+
+  public SnapshotReloader(SnapshotRegistry registry, DataLoader dataLoader,
+                          @Value("${graph.reload.enabled:true}") boolean enabled,
+                          @Value("${graph.reload.debounce-ms:2000}") long debounceMillis) {
+    this.registry = registry;
+    this.dataLoader = dataLoader;
+    this.enabled = enabled;
+    this.debounceMillis = debounceMillis;
+  }
+
+  /**
+   * Loads {@code path} as snapshot {@code name} on the calling thread and, when reload is enabled, watches it
+   * for replacements. The watch starts first so a broken initial file can still be fixed by publishing a new one.
+   */
+  public void loadAndWatch(String name, Path path) throws Exception {
+    reload(watchFile(name, path));
+  }
+
+  /** Watches an already registered, lazily loaded snapshot; a change only invalidates it until it is used. */
+  public void watch(String name, Path path) throws IOException {
+    Watched w = watchFile(name, path);
+    synchronized (w) {
+      w.initialized = true;
+    }
+  }
+
+  private synchronized Watched watchFile(String name, Path path) throws IOException {
+    Path file = path.toAbsolutePath().normalize();
+    Watched w = watched.computeIfAbsent(file, f -> new Watched(name, f));
+    if (!enabled || watchedDirs.containsKey(file.getParent())) return w;
+    if (watchService == null) {
+      watchService = file.getFileSystem().newWatchService();
+      Thread watcher = new Thread(this::watchLoop, "graph-reload-watch");
+      watcher.setDaemon(true);
+      watcher.start();
+    }
+    watchedDirs.put(file.getParent(), file.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY));
+    System.out.printf("Watching %s for snapshot '%s' updates (debounce=%dms)%n", file, name, debounceMillis);
+    return w;
+  }
+
+  /**
+   * Parses, indexes and installs the current file contents; returns false if the file is unchanged. A snapshot
+   * that is currently evicted is invalidated instead, so nobody pays for a parse nobody asked for.
+   */
+  private boolean reload(Watched w) throws Exception {
+    synchronized (w) {
+      FileStamp stamp = FileStamp.of(w.file);
+      if (stamp.equals(w.loadedStamp)) return false;
+      if (w.initialized && !registry.isLoaded(w.name)) {
+        registry.invalidate(w.name);
+        w.loadedStamp = stamp;
+        System.out.printf("Snapshot '%s' changed on disk; it will be re-read on next access%n", w.name);
+        return true;
+      }
+
+      Runtime rt = Runtime.getRuntime();
+      long heapBefore = rt.totalMemory() - rt.freeMemory();
+      long t0 = System.nanoTime();
+      GraphSnapshot snapshot = dataLoader.load(w.file);
+      long t1 = System.nanoTime();
+      PreparedSnapshot prepared = registry.prepare(snapshot);
+      long t2 = System.nanoTime();
+      registry.install(w.name, prepared, w.file, false);
+      w.loadedStamp = stamp;
+      w.initialized = true;
+      long heapAfter = rt.totalMemory() - rt.freeMemory();
+
+      System.out.printf("Loaded snapshot '%s' from %s (nodes=%d, edges=%d, parse=%dms, index=%dms, ~%dMB, "
+              + "heap %dMB -> %dMB)%n", w.name, w.file, prepared.index().nodeCount(), prepared.edgeCount(),
+          (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, prepared.estimatedBytes() >> 20, heapBefore >> 20,
+          heapAfter >> 20);
+      return true;
+    }
+  }
+
+  private void watchLoop() {
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == OVERFLOW) {
+            // events were lost; any file in this directory may have changed
+            watched.values().stream().filter(w -> w.file.getParent().equals(dir)).forEach(this::scheduleReload);
+          } else {
+            Watched w = watched.get(dir.resolve((Path) event.context()));
+            if (w != null) scheduleReload(w);
+          }
+        }
+        if (!key.reset()) {
+          watchedDirs.remove(dir);
+          System.err.println("Snapshot directory is no longer watchable: " + dir);
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException ex) {
+      // shutting down
+    }
+  }
+
+  private void scheduleReload(Watched w) {
+    synchronized (w.scheduleLock) {
+      if (w.pending != null) w.pending.cancel(false);
+      w.pending = scheduler.schedule(() -> {
+        try {
+          if (Files.exists(w.file)) reload(w);
+        } catch (Exception ex) {
+          System.err.println("Failed to reload snapshot '" + w.name + "' from " + w.file + ": " + ex.getMessage());
+        }
+      }, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() throws IOException {
+    scheduler.shutdownNow();
+    if (watchService != null) watchService.close();
+  }
+
+  /** One watched snapshot file. */
+  public static final class Watched {
+    private final String name;
+    private final Path file;
+    private final Object scheduleLock = new Object();
+    private ScheduledFuture<?> pending;
+    private FileStamp loadedStamp;
+    private boolean initialized;
+
+    private Watched(String name, Path file) {
+      this.name = name;
+      this.file = file;
+    }
+  }
+
+  /** Identity of a file version; an atomic rename always changes at least the file key or mtime. */
+  private record FileStamp(Object fileKey, long size, long modifiedMillis) {
+    static FileStamp of(Path p) throws IOException {
+      BasicFileAttributes a = Files.readAttributes(p, BasicFileAttributes.class);
+      return new FileStamp(a.fileKey(), a.size(), a.lastModifiedTime().toMillis());
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package com.belmonttech.graph.backend.upload;
+
+import com.belmonttech.graph.backend.dto.UploadJobDto;
+import com.belmonttech.graph.model.progress.ProgressListener;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One background parse of an uploaded snapshot. Acts as the {@link ProgressListener} of the parse and fans
+ * progress out to every SSE subscriber; events are throttled so a fast parser does not flood the clients.
+ */
+public class UploadJob implements ProgressListener {
+
+  public enum State { QUEUED, PARSING, COMPLETED, FAILED }
+
+  private static final long EVENT_INTERVAL_NANOS = 200_000_000L;
+
+  private final String id;
+  private final String snapshot;
+  private final String fileName;
+  private final String format;
+  private final long totalBytes;
+  private final long createdAt = System.currentTimeMillis();
+  private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+  private volatile State state = State.QUEUED;
+  private volatile String phase = "Queued";
+  private volatile long bytesRead;
+  private volatile long phaseDone;
+  private volatile long phaseTotal;
+  private volatile long lastEventNanos;
+  private volatile Integer nodes;
+  private volatile Integer edges;
+  private volatile String error;
+  private volatile boolean invalidInput;
+
+  UploadJob(String id, String snapshot, String fileName, String format, long totalBytes) {
+    this.id = id;
+    this.snapshot = snapshot;
+    this.fileName = fileName;
+    this.format = format;
+    this.totalBytes = totalBytes;
+  }
+
+  public String id() { return id; }
+  public String snapshot() { return snapshot; }
+  public String format() { return format; }
+  public long totalBytes() { return totalBytes; }
+  public State state() { return state; }
+  long createdAt() { return createdAt; }
+
+  /** True if the job failed because the uploaded bytes are not a valid snapshot (as opposed to an I/O error). */
+  public boolean invalidInput() { return invalidInput; }
+
+  boolean isFinished() {
+    return state == State.COMPLETED || state == State.FAILED;
+  }
+
+  @Override
+  public synchronized void onProgress(String phase, long current, long total) {
+    // chunked parses report from several threads; keep the counter monotonic within a phase
+    if (current < phaseDone && phase.equals(this.phase)) return;
+    this.phase = phase;
+    this.phaseDone = current;
+    this.phaseTotal = total;
+    if (phase.equals("Parsing")) this.bytesRead = current;
+    long now = System.nanoTime();
+    if (now - lastEventNanos < EVENT_INTERVAL_NANOS) return;
+    lastEventNanos = now;
+    broadcast("progress");
+  }
+
+  /** Moves a queued job to PARSING; false if another request already started it. */
+  synchronized boolean claim() {
+    if (state != State.QUEUED) return false;
+    state = State.PARSING;
+    return true;
+  }
+
+  void started() {
+    state = State.PARSING;
+    phase = "Parsing";
+    broadcast("progress");
+  }
+
+  void completed(int nodeCount, int edgeCount) {
+    nodes = nodeCount;
+    edges = edgeCount;
+    phase = "Done";
+    state = State.COMPLETED;
+    broadcast("completed");
+    emitters.forEach(SseEmitter::complete);
+    emitters.clear();
+  }
+
+  void failed(Throwable ex, boolean invalidInput) {
+    error = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+    this.invalidInput = invalidInput;
+    state = State.FAILED;
+    broadcast("failed");
+    emitters.forEach(SseEmitter::complete);
+    emitters.clear();
+  }
+
+  public void subscribe(SseEmitter emitter) {
+    emitters.add(emitter);
+    emitter.onCompletion(() -> emitters.remove(emitter));
+    emitter.onTimeout(() -> emitters.remove(emitter));
+    send(emitter, isFinished() ? (state == State.COMPLETED ? "completed" : "failed") : "progress");
+    // the job may have finished between the add and the first send; never leave a subscriber hanging
+    if (isFinished() && emitters.remove(emitter)) emitter.complete();
+  }
+
+  public UploadJobDto toDto() {
+    long done = phaseDone, total = phaseTotal;
+    Integer percent = total > 0 ? (int) Math.min(100, done * 100 / total) : null;
+    return new UploadJobDto(id, snapshot, state.name(), fileName, phase, bytesRead, totalBytes, percent, nodes, edges,
+        error);
+  }
+
+  private void broadcast(String event) {
+    for (SseEmitter emitter : emitters) send(emitter, event);
+  }
+
+  private void send(SseEmitter emitter, String event) {
+    try {
+      emitter.send(SseEmitter.event().name(event).data(toDto()));
+    } catch (IOException | IllegalStateException ex) {
+      emitters.remove(emitter);
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package com.belmonttech.graph.backend.upload;
+
+import com.belmonttech.graph.backend.GraphService;
+import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.io.DataLoader;
+import com.belmonttech.graph.model.progress.ProgressInputStream;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs snapshot uploads off the servlet threads. Bytes are streamed into the serializer on a background
+ * executor and the new snapshot replaces the current one only after the parse succeeded. The uploaded bytes
+ * stay in the spool directory as the snapshot's source, so the registry can evict and re-read it.
+ */
+@Service
+public class UploadService {
+
+  private static final long FINISHED_JOB_TTL_MILLIS = 15 * 60 * 1000L;
+  private static final int STREAM_BUFFER = 1 << 16;
+
+  private final DataLoader dataLoader;
+  private final GraphService graphService;
+  private final ExecutorService executor;
+  private final Path spoolDir;
+  private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+
+  public UploadService(DataLoader dataLoader, GraphService graphService,
+                       @Value("${graph.upload.parse-threads:2}") int parseThreads,
+                       @Value("${graph.upload.spool-dir:}") String spoolDir) throws IOException {
+    this.dataLoader = dataLoader;
+    this.graphService = graphService;
+    AtomicInteger seq = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(Math.max(1, parseThreads), r -> {
+      Thread t = new Thread(r, "graph-upload-" + seq.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    this.spoolDir = Files.createDirectories(spoolDir == null || spoolDir.isBlank()
+        ? Path.of(System.getProperty("java.io.tmpdir"), "graph-uploads") : Path.of(spoolDir));
+  }
+
+  /**
+   * Multipart upload. The servlet container has already spooled the part to disk, so it is moved into the
+   * upload spool and parsed from there (in parallel chunks for large files); nothing is held in memory and the
+   * request returns immediately.
+   */
+  public UploadJob submit(String snapshot, MultipartFile file) throws IOException {
+    String fileName = file.getOriginalFilename();
+    UploadJob job = create(snapshot, fileName, DataLoader.formatOf(fileName), file.getSize());
+    Path spool = Files.createTempFile(spoolDir, job.id(), "." + job.format());
+    try {
+      file.transferTo(spool);
+    } catch (IOException ex) {
+      Files.deleteIfExists(spool);
+      jobs.remove(job.id());
+      throw ex;
+    }
+    executor.execute(() -> parse(job, () -> dataLoader.load(spool, job), spool));
+    return job;
+  }
+
+  /** Registers a job for a raw streamed body; the client subscribes to progress before sending the bytes. */
+  public UploadJob create(String snapshot, String fileName, String format, long totalBytes) {
+    String fmt = format == null ? "" : format.toLowerCase(Locale.ROOT);
+    if (!dataLoader.supports(fmt))
+      throw new IllegalArgumentException("Unsupported graph format: " + fmt);
+    pruneFinishedJobs();
+    UploadJob job = new UploadJob(UUID.randomUUID().toString(), snapshot, fileName, fmt, totalBytes);
+    jobs.put(job.id(), job);
+    return job;
+  }
+
+  /**
+   * Streams {@code body} straight into the deserializer on the upload executor, copying the bytes to the
+   * spool as they pass. The caller must keep the stream open until the returned future completes (e.g. by
+   * returning it from an async MVC handler).
+   *
+   * @throws IllegalStateException if the job is no longer queued (another request is already streaming into it)
+   */
+  public CompletableFuture<UploadJob> stream(UploadJob job, InputStream body) {
+    if (!job.claim()) throw new IllegalStateException("Upload job " + job.id() + " is already " + job.state());
+    return CompletableFuture.supplyAsync(() -> {
+      Path spool = null;
+      try {
+        spool = Files.createTempFile(spoolDir, job.id(), "." + job.format());
+        try (OutputStream copy = Files.newOutputStream(spool)) {
+          parse(job, () -> {
+            try (InputStream in = new ProgressInputStream(new BufferedInputStream(new TeeInputStream(body, copy),
+                STREAM_BUFFER), "Parsing", job.totalBytes(), job)) {
+              return dataLoader.load(in, job.format());
+            }
+          }, spool);
+        }
+      } catch (IOException ex) {
+        job.failed(ex, false);
+      }
+      if (job.state() != UploadJob.State.COMPLETED && spool != null) deleteQuietly(spool);
+      return job;
+    }, executor);
+  }
+
+  public UploadJob find(String jobId) {
+    return jobs.get(jobId);
+  }
+
+  private void parse(UploadJob job, SnapshotSource source, Path spool) {
+    job.started();
+    GraphSnapshot snapshot;
+    try {
+      snapshot = source.load();
+    } catch (Exception ex) {
+      System.err.println("Upload " + job.id() + " failed: " + ex.getMessage());
+      job.failed(ex, !isIoError(ex));
+      if (spool != null) deleteQuietly(spool);
+      return;
+    }
+    try {
+      graphService.updateSnapshot(job.snapshot(), snapshot, spool, true, job);
+      job.completed(snapshot.nodes().size(), snapshot.edges().size());
+      System.out.printf("Upload %s parsed (nodes=%d, edges=%d)%n", job.id(), snapshot.nodes().size(),
+          snapshot.edges().size());
+    } catch (Exception ex) {
+      System.err.println("Upload " + job.id() + " failed: " + ex.getMessage());
+      job.failed(ex, false);
+      if (spool != null && job.state() == UploadJob.State.FAILED) deleteQuietly(spool);
+    }
+  }
+
+  /** Parsers report malformed input with runtime exceptions; reading the bytes fails with an IOException. */
+  private static boolean isIoError(Throwable ex) {
+    for (Throwable t = ex; t != null; t = t.getCause()) {
+      if (t instanceof IOException || t instanceof UncheckedIOException) return true;
+    }
+    return false;
+  }
+
+  private void pruneFinishedJobs() {
+    long cutoff = System.currentTimeMillis() - FINISHED_JOB_TTL_MILLIS;
+    jobs.values().removeIf(j -> j.isFinished() && j.createdAt() < cutoff);
+  }
+
+  private static void deleteQuietly(Path p) {
+    try {
+      Files.deleteIfExists(p);
+    } catch (IOException ignored) {
+    }
+  }
+
+  @FunctionalInterface
+  private interface SnapshotSource {
+    GraphSnapshot load() throws Exception;
+  }
+
+  /** Writes everything the parser reads to {@code copy}, so a streamed upload can be re-read later. */
+  private static final class TeeInputStream extends FilterInputStream {
+    private final OutputStream copy;
+
+    TeeInputStream(InputStream in, OutputStream copy) {
+      super(in);
+      this.copy = copy;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) copy.write(b);
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) copy.write(b, off, n);
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      return read(new byte[(int) Math.min(n, 8192)]);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
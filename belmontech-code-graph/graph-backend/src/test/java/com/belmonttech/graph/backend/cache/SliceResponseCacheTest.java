@@ -0,0 +1,85 @@
+package com.belmonttech.graph.backend.cache;
+
+import com.belmonttech.graph.backend.registry.SnapshotRegistry;
+import com.belmonttech.graph.model.*;
+import com.belmonttech.graph.model.io.DataLoader;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SliceResponseCacheTest {
+
+  private static GraphSnapshot snapshot(int cost) {
+    GraphNode n = new GraphNode("com.a.A#f/0", NodeLevel.METHOD, "A.f", "com.a", "com.a.A", "f", null, cost, 1, false);
+    return new GraphSnapshot(Map.of(n.id(), n), List.of());
+  }
+
+  private static SnapshotRegistry registry() {
+    return new SnapshotRegistry(new DataLoader(), 0, "default", "", true, true, true, true, false);
+  }
+
+  private static String etag(SnapshotRegistry registry, String endpoint, String params) {
+    return new SliceResponseCache.Key(endpoint, "default:" + params, registry.version("default")).etag();
+  }
+
+  @Test
+  void etagChangesWhenTheSnapshotIsReplaced() {
+    SnapshotRegistry registry = registry();
+    registry.install("default", registry.prepare(snapshot(1)), null, false);
+    String before = etag(registry, "packages", "");
+    assertEquals(before, etag(registry, "packages", ""));
+
+    registry.install("default", registry.prepare(snapshot(4)), null, false);
+
+    assertNotEquals(before, etag(registry, "packages", ""));
+  }
+
+  @Test
+  void etagDependsOnEndpointAndParams() {
+    SnapshotRegistry registry = registry();
+    registry.install("default", registry.prepare(snapshot(1)), null, false);
+
+    assertNotEquals(etag(registry, "packages", ""), etag(registry, "hotspots", ""));
+    assertNotEquals(etag(registry, "hotspots", "limit=10"), etag(registry, "hotspots", "limit=20"));
+  }
+
+  @Test
+  void etagIsAStrongQuotedTag() {
+    String tag = new SliceResponseCache.Key("packages", "default:", 1).etag();
+
+    assertTrue(tag.startsWith("\"") && tag.endsWith("\""), tag);
+    assertFalse(tag.startsWith("\"1-"), "tag must not be the bare version, which repeats after a restart: " + tag);
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedOverBudget() {
+    SliceResponseCache cache = new SliceResponseCache(2, 1 << 20);
+    SliceResponseCache.Key a = new SliceResponseCache.Key("packages", "a", 1);
+    SliceResponseCache.Key b = new SliceResponseCache.Key("packages", "b", 1);
+    SliceResponseCache.Key c = new SliceResponseCache.Key("packages", "c", 1);
+    cache.put(a, new byte[10]);
+    cache.put(b, new byte[10]);
+    cache.get(a);
+    cache.put(c, new byte[10]);
+
+    assertNotNull(cache.get(a));
+    assertNull(cache.get(b));
+    assertEquals(2, cache.size());
+    assertEquals(20, cache.bytes());
+  }
+
+  @Test
+  void evictsByBytes() {
+    SliceResponseCache cache = new SliceResponseCache(10, 25);
+    cache.put(new SliceResponseCache.Key("packages", "a", 1), new byte[10]);
+    cache.put(new SliceResponseCache.Key("packages", "b", 1), new byte[10]);
+    cache.put(new SliceResponseCache.Key("packages", "c", 1), new byte[10]);
+    cache.put(new SliceResponseCache.Key("packages", "d", 1), new byte[30]);
+
+    assertEquals(2, cache.size());
+    assertEquals(20, cache.bytes());
+  }
+}
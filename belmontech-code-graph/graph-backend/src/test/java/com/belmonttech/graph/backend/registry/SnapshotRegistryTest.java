@@ -0,0 +1,91 @@
+package com.belmonttech.graph.backend.registry;
+
+import com.belmonttech.graph.backend.config.GraphIoConfig;
+import com.belmonttech.graph.backend.dto.SnapshotInfoDto;
+import com.belmonttech.graph.model.*;
+import com.belmonttech.graph.model.io.DataLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotRegistryTest {
+
+  @TempDir
+  Path dir;
+
+  private final DataLoader dataLoader = new GraphIoConfig().dataLoader(0, 8 << 20, true, true, false);
+
+  private static GraphNode method(String id) {
+    return new GraphNode(id, NodeLevel.METHOD, id, "com.a", "com.a.A", id.substring(id.indexOf('#') + 1, id.indexOf('/')),
+        null, 1, 1, false);
+  }
+
+  /** Two methods, a parallel pair of calls between them and a call out of the snapshot. */
+  private static GraphSnapshot sample() {
+    return new GraphSnapshot(Map.of("com.a.A#f/0", method("com.a.A#f/0"), "com.a.A#g/0", method("com.a.A#g/0")),
+        List.of(new GraphEdge("e0", "com.a.A#f/0", "com.a.A#g/0", EdgeType.INVOCATION, 1),
+            new GraphEdge("e1", "com.a.A#f/0", "com.ext.Lib#x/0", EdgeType.INVOCATION, 1),
+            new GraphEdge("e2", "com.a.A#f/0", "com.a.A#g/0", EdgeType.INVOCATION, 1)));
+  }
+
+  private SnapshotRegistry registry() {
+    return new SnapshotRegistry(dataLoader, 0, "default", "", true, true, true, true, false);
+  }
+
+  private SnapshotInfoDto info(SnapshotRegistry registry, String name) {
+    return registry.list().stream().filter(i -> i.name().equals(name)).findFirst().orElseThrow();
+  }
+
+  @Test
+  void binaryAndJsonSnapshotsServeTheSameEdges() throws Exception {
+    new GraphIo().save(dir.resolve("a.json"), sample());
+    GraphIo binary = new GraphIo();
+    binary.getLoader().registerSerializer("cgb", dataLoader.getSerializer("cgb"));
+    binary.save(dir.resolve("a.cgb"), sample());
+    SnapshotRegistry registry = registry();
+    registry.register("json", dir.resolve("a.json"));
+    registry.register("cgb", dir.resolve("a.cgb"));
+
+    PreparedSnapshot json = registry.acquire("json");
+    PreparedSnapshot cgb = registry.acquire("cgb");
+
+    // the file keeps the dangling call for later merges; the index leaves it out
+    assertEquals(2, cgb.index().edgeCount());
+    assertEquals(1, json.edgeCount());
+    assertEquals(1, cgb.edgeCount());
+    assertEquals(1, info(registry, "cgb").edges());
+    assertEquals(1, info(registry, "cgb").normalization().danglingEdges());
+    assertEquals(info(registry, "json").normalization().danglingEdges(),
+        info(registry, "cgb").normalization().danglingEdges());
+  }
+
+  @Test
+  void versionChangesOnEveryInstallAndInvalidation() throws Exception {
+    new GraphIo().save(dir.resolve("a.json"), sample());
+    SnapshotRegistry registry = registry();
+    registry.register("a", dir.resolve("a.json"));
+    long registered = registry.version("a");
+
+    registry.invalidate("a");
+    long invalidated = registry.version("a");
+    registry.install("a", registry.prepare(sample()), dir.resolve("a.json"), false);
+
+    assertNotEquals(registered, invalidated);
+    assertNotEquals(invalidated, registry.version("a"));
+  }
+
+  @Test
+  void keepsTheReplacedSnapshotAsPrevious() {
+    SnapshotRegistry registry = registry();
+    registry.install("a", registry.prepare(sample()), null, false);
+    registry.install("a", registry.prepare(new GraphSnapshot(Map.of(), List.of())), null, false);
+
+    assertEquals(2, registry.acquire("a" + SnapshotRegistry.PREVIOUS_SUFFIX).index().nodeCount());
+    assertEquals(0, registry.acquire("a").index().nodeCount());
+  }
+}
@@ -0,0 +1,32 @@
+plugins {
+    id("java")
+    id("application")
+    id("io.spring.dependency-management")
+    id("me.champeau.jmh")
+}
+
+java {
+    toolchain { languageVersion.set(JavaLanguageVersion.of(21)) }
+}
+
+dependencyManagement {
+    imports { mavenBom(org.springframework.boot.gradle.plugin.SpringBootPlugin.BOM_COORDINATES) }
+}
+
+dependencies {
+    implementation(project(":graph-model"))
+    implementation(project(":graph-backend"))
+    implementation("org.springframework.boot:spring-boot-starter-web")
+}
+
+// ./gradlew :graph-bench:run --args="--methods=200000 --concurrency=64 --duration=30"
+application {
+    mainClass.set("com.belmonttech.graph.bench.LoadTest")
+    applicationDefaultJvmArgs = listOf("-Xmx4g")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    // e.g. ./gradlew :graph-bench:jmh -Pjmh.includes=neighborhood
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.set(listOf(it)) }
+}
@@ -0,0 +1,119 @@
+package com.belmonttech.graph.bench;
+
+import com.belmonttech.graph.backend.GraphService;
+import com.belmonttech.graph.backend.dto.GraphSliceDto;
+import com.belmonttech.graph.backend.dto.NodeQueryDto;
+import com.belmonttech.graph.backend.dto.QueryResultDto;
+import com.belmonttech.graph.backend.dto.SearchResultDto;
+import com.belmonttech.graph.backend.reach.ReachabilityService;
+import com.belmonttech.graph.backend.registry.SnapshotRegistry;
+import com.belmonttech.graph.model.GraphNode;
+import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.NodeLevel;
+import com.belmonttech.graph.model.index.NameSearchIndex;
+import com.belmonttech.graph.model.io.DataLoader;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GraphService} without HTTP, serialization or the response cache: what one slice costs to compute on a
+ * prepared {@link SyntheticSnapshots synthetic snapshot}. Every invocation picks another package or node, so the
+ * numbers are averages over the snapshot rather than one hot entry.
+ * <pre>./gradlew :graph-bench:jmh</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class GraphServiceBenchmark {
+
+    private static final String SNAPSHOT = "bench";
+
+    @Param({"50000", "200000"})
+    public int methods;
+
+    @Param({"0.6"})
+    public double skew;
+
+    private GraphService service;
+    private String[] packages;
+    private String[] nodeIds;
+    private String[] searchTerms;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        SyntheticSnapshots.Scale d = SyntheticSnapshots.Scale.DEFAULT;
+        GraphSnapshot snapshot = SyntheticSnapshots.generate(new SyntheticSnapshots.Scale(methods, methods * 5,
+                Math.max(1, methods / 1000), d.methodsPerClass(), skew, d.localCalls(), d.seed()));
+        SnapshotRegistry registry = new SnapshotRegistry(new DataLoader(), 0, SNAPSHOT, "", true, true, true, true,
+                false);
+        service = new GraphService(registry, new ReachabilityService(32 << 20), 1500, 200_000);
+        service.updateSnapshot(SNAPSHOT, snapshot, null, false);
+
+        List<String> packageNames = new ArrayList<>();
+        List<String> methodIds = new ArrayList<>();
+        for (GraphNode node : snapshot.nodes().values()) {
+            if (node.level() == NodeLevel.PACKAGE) packageNames.add(node.packageName());
+            else if (node.level() == NodeLevel.METHOD) methodIds.add(node.id());
+        }
+        packages = packageNames.toArray(String[]::new);
+        nodeIds = methodIds.toArray(String[]::new);
+        searchTerms = new String[]{"C1", "C42.m", "m3", "C9"};
+    }
+
+    /** Per-thread cursor, so concurrent runs ({@code -t}) do not contend on a shared random. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom(7);
+
+        int next(int bound) {
+            return random.nextInt(bound);
+        }
+    }
+
+    @Benchmark
+    public GraphSliceDto packageLevelGraph() {
+        return service.getPackageLevelGraph(SNAPSHOT);
+    }
+
+    @Benchmark
+    public GraphSliceDto classesInPackage(Cursor cursor) {
+        return service.getClassesInPackage(SNAPSHOT, packages[cursor.next(packages.length)]);
+    }
+
+    @Benchmark
+    public GraphSliceDto neighborhoodDepth1(Cursor cursor) {
+        return service.getNeighborhood(SNAPSHOT, nodeIds[cursor.next(nodeIds.length)], 1);
+    }
+
+    @Benchmark
+    public GraphSliceDto neighborhoodDepth2(Cursor cursor) {
+        return service.getNeighborhood(SNAPSHOT, nodeIds[cursor.next(nodeIds.length)], 2);
+    }
+
+    @Benchmark
+    public GraphSliceDto hotspots() {
+        return service.getHotspots(SNAPSHOT, 100);
+    }
+
+    @Benchmark
+    public SearchResultDto search(Cursor cursor) {
+        return service.search(SNAPSHOT, searchTerms[cursor.next(searchTerms.length)], NameSearchIndex.Mode.AUTO, null,
+                0, 50);
+    }
+
+    @Benchmark
+    public QueryResultDto query(Cursor cursor) {
+        String pkg = packages[cursor.next(packages.length)];
+        NodeQueryDto.Filter where = new NodeQueryDto.Filter(List.of("METHOD"), 2, null, null, null, null,
+                pkg.substring(0, pkg.lastIndexOf('.')), null, null);
+        return service.query(SNAPSHOT, new NodeQueryDto(where, List.of("INVOCATION"), null, "cost", "desc", 200));
+    }
+}
@@ -0,0 +1,237 @@
+package com.belmonttech.graph.bench;
+
+import com.belmonttech.graph.backend.Application;
+import com.belmonttech.graph.backend.GraphService;
+import com.belmonttech.graph.backend.metrics.Histogram;
+import com.belmonttech.graph.backend.registry.SnapshotRegistry;
+import com.belmonttech.graph.model.GraphNode;
+import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.NodeLevel;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP load test of the graph backend. Generates a {@link SyntheticSnapshots synthetic snapshot}, starts the
+ * backend in this JVM on a free port, and drives a closed-loop mixed workload against {@code /packages},
+ * {@code /packages/{pkg}/classes}, {@code /nodes/{id}/neighborhood} and {@code /hotspots}. Each of
+ * {@code --concurrency} virtual threads sends one request after the other through a shared {@link HttpClient}.
+ * After a warmup the throughput and latency percentiles are reported per endpoint.
+ * <p>
+ * Options ({@code --name=value}): {@code methods}, {@code calls}, {@code packages}, {@code methods-per-class},
+ * {@code skew}, {@code local-calls} and {@code seed} shape the snapshot; {@code concurrency}, {@code warmup} and
+ * {@code duration} (seconds) the run; {@code mix} weights the endpoints
+ * ({@code packages:1,classes:3,neighborhood:5,hotspots:1}) and {@code depth} is the neighborhood depth. Options
+ * starting with {@code graph.} or {@code server.} are passed to the backend, e.g. {@code --graph.cache.max-entries=0}
+ * to measure without the response cache.
+ */
+public final class LoadTest {
+
+    enum Endpoint { PACKAGES, CLASSES, NEIGHBORHOOD, HOTSPOTS }
+
+    /** Latencies in nanoseconds, response bytes and failed requests of one endpoint. */
+    record Stats(Histogram latency, LongAdder bytes, LongAdder errors) {
+
+        Stats() {
+            this(new Histogram(), new LongAdder(), new LongAdder());
+        }
+
+        void record(long nanos, long responseBytes, boolean error) {
+            latency.record(nanos);
+            bytes.add(responseBytes);
+            if (error) errors.increment();
+        }
+
+        void add(Stats other) {
+            latency.add(other.latency);
+            bytes.add(other.bytes.sum());
+            errors.add(other.errors.sum());
+        }
+    }
+
+    private final String base;
+    private final HttpClient client;
+    private final Endpoint[] mix;
+    private final List<String> packages;
+    private final List<String> methods;
+    private final int depth;
+
+    private LoadTest(String base, HttpClient client, Endpoint[] mix, List<String> packages, List<String> methods,
+                     int depth) {
+        this.base = base;
+        this.client = client;
+        this.mix = mix;
+        this.packages = packages;
+        this.methods = methods;
+        this.depth = depth;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        SyntheticSnapshots.Scale d = SyntheticSnapshots.Scale.DEFAULT;
+        SyntheticSnapshots.Scale scale = new SyntheticSnapshots.Scale(
+                intOption(options, "methods", d.methods()), intOption(options, "calls", d.calls()),
+                intOption(options, "packages", d.packages()), intOption(options, "methods-per-class", d.methodsPerClass()),
+                Double.parseDouble(options.getOrDefault("skew", String.valueOf(d.skew()))),
+                Double.parseDouble(options.getOrDefault("local-calls", String.valueOf(d.localCalls()))),
+                Long.parseLong(options.getOrDefault("seed", String.valueOf(d.seed()))));
+        int concurrency = intOption(options, "concurrency", 32);
+        int warmup = intOption(options, "warmup", 10);
+        int duration = intOption(options, "duration", 30);
+        int depth = intOption(options, "depth", 2);
+        Endpoint[] mix = mix(options.getOrDefault("mix", "packages:1,classes:3,neighborhood:5,hotspots:1"));
+
+        long t0 = System.nanoTime();
+        GraphSnapshot snapshot = SyntheticSnapshots.generate(scale);
+        System.out.printf("Generated %,d nodes and %,d edges in %d ms (%s)%n", snapshot.nodes().size(),
+                snapshot.edges().size(), (System.nanoTime() - t0) / 1_000_000, scale);
+
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("graph.reload.enabled", "false");
+        options.forEach((k, v) -> {
+            if (k.startsWith("graph.") || k.startsWith("server.")) properties.put(k, v);
+        });
+        SpringApplication app = new SpringApplication(Application.class);
+        app.setBannerMode(Banner.Mode.OFF);
+        app.setDefaultProperties(properties);
+        try (ConfigurableApplicationContext context = app.run();
+             ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String name = context.getBean(SnapshotRegistry.class).defaultName();
+            t0 = System.nanoTime();
+            context.getBean(GraphService.class).updateSnapshot(name, snapshot, null, false);
+            System.out.printf("Prepared snapshot '%s' in %d ms%n", name, (System.nanoTime() - t0) / 1_000_000);
+
+            List<String> packageNames = new ArrayList<>();
+            List<String> methodIds = new ArrayList<>();
+            for (GraphNode node : snapshot.nodes().values()) {
+                if (node.level() == NodeLevel.PACKAGE) packageNames.add(node.packageName());
+                else if (node.level() == NodeLevel.METHOD) methodIds.add(node.id());
+            }
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor).connectTimeout(Duration.ofSeconds(10)).build();
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/graph";
+            LoadTest test = new LoadTest(base, client, mix, packageNames, methodIds, depth);
+
+            System.out.printf("Warming up for %d s with %d clients%n", warmup, concurrency);
+            test.run(concurrency, warmup);
+            System.out.printf("Measuring for %d s with %d clients%n", duration, concurrency);
+            Map<Endpoint, Stats> result = test.run(concurrency, duration);
+            report(result, duration);
+        }
+    }
+
+    /** Runs the workload for {@code seconds} and returns the latencies per endpoint. */
+    Map<Endpoint, Stats> run(int concurrency, int seconds) {
+        Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint e : Endpoint.values()) stats.put(e, new Stats());
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Endpoint endpoint = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+                        HttpRequest request = HttpRequest.newBuilder(uri(endpoint)).timeout(Duration.ofSeconds(60))
+                                .GET().build();
+                        long start = System.nanoTime();
+                        long bytes = 0;
+                        boolean error;
+                        try {
+                            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                            try (InputStream body = response.body()) {
+                                bytes = body.transferTo(OutputStream.nullOutputStream());
+                            }
+                            error = response.statusCode() >= 400;
+                        }
+                        catch (Exception ex) {
+                            error = true;
+                        }
+                        stats.get(endpoint).record(System.nanoTime() - start, bytes, error);
+                    }
+                    return null;
+                });
+            }
+        }
+        return stats;
+    }
+
+    private URI uri(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return URI.create(base + switch (endpoint) {
+            case PACKAGES -> "/packages";
+            case CLASSES -> "/packages/" + encode(packages.get(random.nextInt(packages.size()))) + "/classes";
+            case NEIGHBORHOOD -> "/nodes/" + encode(methods.get(random.nextInt(methods.size()))) + "/neighborhood?depth="
+                    + depth;
+            case HOTSPOTS -> "/hotspots?limit=100";
+        });
+    }
+
+    private static void report(Map<Endpoint, Stats> stats, int seconds) {
+        Stats total = new Stats();
+        System.out.printf("%n%-13s %9s %9s %7s %9s %9s %9s %9s %9s %9s %10s%n", "endpoint", "requests", "req/s",
+                "errors", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "avg bytes");
+        for (Map.Entry<Endpoint, Stats> e : stats.entrySet()) {
+            if (e.getValue().latency().count() == 0) continue;
+            row(e.getKey().name().toLowerCase(Locale.ROOT), e.getValue(), seconds);
+            total.add(e.getValue());
+        }
+        row("total", total, seconds);
+    }
+
+    private static void row(String label, Stats s, int seconds) {
+        Histogram h = s.latency();
+        System.out.printf("%-13s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %10d%n", label, h.count(),
+                (double) h.count() / seconds, s.errors().sum(), h.mean() / 1e6, h.percentile(0.5) / 1e6,
+                h.percentile(0.9) / 1e6, h.percentile(0.99) / 1e6, h.percentile(0.999) / 1e6, h.max() / 1e6,
+                h.count() == 0 ? 0 : s.bytes().sum() / h.count());
+    }
+
+    /** Expands {@code packages:1,classes:3} into a pick table holding each endpoint as often as its weight. */
+    static Endpoint[] mix(String spec) {
+        List<Endpoint> table = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            Endpoint endpoint = Endpoint.valueOf(kv[0].trim().toUpperCase(Locale.ROOT));
+            int weight = kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) table.add(endpoint);
+        }
+        if (table.isEmpty()) throw new IllegalArgumentException("Empty workload mix: " + spec);
+        return table.toArray(Endpoint[]::new);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            int eq = arg.indexOf('=');
+            if (eq < 0) options.put(arg.substring(2), "true");
+            else options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String v = options.get(name);
+        return v == null ? defaultValue : Integer.parseInt(v.replace("_", ""));
+    }
+
+    private static String encode(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,157 @@
+package com.belmonttech.graph.bench;
+
+import com.belmonttech.graph.model.CostLevel;
+import com.belmonttech.graph.model.EdgeType;
+import com.belmonttech.graph.model.GraphEdge;
+import com.belmonttech.graph.model.GraphNode;
+import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.NodeLevel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates snapshots shaped like the ones {@code ToonParser} produces: packages of classes of methods, with
+ * INVOCATION edges between methods and INHERITANCE edges between classes of a package. Ids follow the parser
+ * ({@code com.synthetic.m3.p3.C203#m2/1}, {@code pkg:com.synthetic.m3.p3}), so every endpoint accepts them as is.
+ * <p>
+ * Callees are drawn from a Zipf-like distribution: with {@code skew} 0 every method is equally likely to be called,
+ * towards 1 a few hub methods collect most of the calls, which is what real call graphs look like (logging, DAOs,
+ * utilities). Generation is deterministic for a given {@link Scale}.
+ */
+public final class SyntheticSnapshots {
+
+    /**
+     * @param methods         number of METHOD nodes; classes and packages come on top
+     * @param calls           number of INVOCATION edges between methods
+     * @param packages        number of packages the classes are spread over
+     * @param methodsPerClass average methods per class
+     * @param skew            in-degree skew in [0, 1): 0 is uniform, higher concentrates calls on hub methods
+     * @param localCalls      share of calls whose callee is in the caller's package
+     */
+    public record Scale(int methods, int calls, int packages, int methodsPerClass, double skew, double localCalls,
+                        long seed) {
+
+        public static final Scale DEFAULT = new Scale(200_000, 1_000_000, 200, 8, 0.6, 0.6, 42);
+
+        public Scale {
+            if (methods <= 0 || calls < 0 || packages <= 0 || methodsPerClass <= 0)
+                throw new IllegalArgumentException("methods, packages and methodsPerClass must be positive");
+            if (skew < 0 || skew >= 1) throw new IllegalArgumentException("skew must be in [0, 1)");
+            if (localCalls < 0 || localCalls > 1) throw new IllegalArgumentException("localCalls must be in [0, 1]");
+        }
+    }
+
+    private SyntheticSnapshots() {}
+
+    public static GraphSnapshot generate(Scale scale) {
+        Random random = new Random(scale.seed());
+        int classCount = Math.max(scale.packages(), scale.methods() / scale.methodsPerClass());
+        Map<String, GraphNode> nodes = new LinkedHashMap<>(scale.methods() + classCount + scale.packages());
+        List<GraphEdge> edges = new ArrayList<>(scale.calls() + classCount / 10);
+
+        String[] classIds = new String[classCount];
+        int[] classPackage = new int[classCount];
+        int[] classCost = new int[classCount];
+        int[] classComplexity = new int[classCount];
+        for (int c = 0; c < classCount; c++) {
+            classPackage[c] = c % scale.packages();
+            classIds[c] = packageName(classPackage[c]) + ".C" + c;
+        }
+
+        // methods are numbered class by class, so the methods of package p are those of classes c % packages == p
+        String[] methodIds = new String[scale.methods()];
+        int[] methodPackage = new int[scale.methods()];
+        List<List<Integer>> byPackage = new ArrayList<>(scale.packages());
+        for (int p = 0; p < scale.packages(); p++) byPackage.add(new ArrayList<>());
+        for (int m = 0; m < scale.methods(); m++) {
+            int c = m % classCount;
+            String className = classIds[c];
+            String pkg = packageName(classPackage[c]);
+            int params = random.nextInt(4);
+            String methodName = "m" + (m / classCount);
+            String id = className + "#" + methodName + "/" + params;
+            int cost = cost(random);
+            int complexity = 1 + (int) Math.min(60, -Math.log(1 - random.nextDouble()) * 4);
+            nodes.put(id, new GraphNode(id, NodeLevel.METHOD, "C" + c + "." + methodName, pkg, className, methodName,
+                    "public void " + methodName + "(" + String.join(", ", Collections.nCopies(params, "Object")) + ")",
+                    cost, complexity, cost >= CostLevel.HIGH.code()));
+            methodIds[m] = id;
+            methodPackage[m] = classPackage[c];
+            byPackage.get(classPackage[c]).add(m);
+            classCost[c] = Math.max(classCost[c], cost);
+            classComplexity[c] += complexity;
+        }
+
+        int[] packageCost = new int[scale.packages()];
+        int[] packageComplexity = new int[scale.packages()];
+        for (int c = 0; c < classCount; c++) {
+            String pkg = packageName(classPackage[c]);
+            nodes.put(classIds[c], new GraphNode(classIds[c], NodeLevel.CLASS, "C" + c, pkg, classIds[c], null,
+                    "/src/" + classIds[c].replace('.', '/') + ".java", classCost[c], classComplexity[c],
+                    classCost[c] >= CostLevel.HIGH.code()));
+            packageCost[classPackage[c]] = Math.max(packageCost[classPackage[c]], classCost[c]);
+            packageComplexity[classPackage[c]] += classComplexity[c];
+            // one class in ten extends an earlier class of its package
+            if (c >= scale.packages() && random.nextInt(10) == 0) {
+                int parent = c - scale.packages() * (1 + random.nextInt(c / scale.packages()));
+                edges.add(new GraphEdge("e" + edges.size(), classIds[c], classIds[parent], EdgeType.INHERITANCE, 1));
+            }
+        }
+        for (int p = 0; p < scale.packages(); p++) {
+            String pkg = packageName(p);
+            nodes.put("pkg:" + pkg, new GraphNode("pkg:" + pkg, NodeLevel.PACKAGE, pkg, pkg, null, null, null,
+                    packageCost[p], packageComplexity[p], packageCost[p] >= CostLevel.HIGH.code()));
+        }
+
+        // popularity rank -> method; a random permutation scatters the hubs over packages and classes
+        int[] byRank = permutation(scale.methods(), random);
+        int[][] localByRank = new int[scale.packages()][];
+        for (int p = 0; p < scale.packages(); p++) {
+            List<Integer> members = byPackage.get(p);
+            int[] order = permutation(members.size(), random);
+            localByRank[p] = new int[members.size()];
+            for (int k = 0; k < order.length; k++) localByRank[p][k] = members.get(order[k]);
+        }
+        double exponent = 1 / (1 - scale.skew());
+        for (int e = 0; e < scale.calls(); e++) {
+            int caller = random.nextInt(scale.methods());
+            int[] candidates = random.nextDouble() < scale.localCalls() ? localByRank[methodPackage[caller]] : byRank;
+            int callee = candidates[zipfRank(candidates.length, exponent, random)];
+            edges.add(new GraphEdge("e" + edges.size(), methodIds[caller], methodIds[callee], EdgeType.INVOCATION,
+                    1 + (random.nextInt(8) == 0 ? random.nextInt(5) : 0)));
+        }
+        return new GraphSnapshot(nodes, edges);
+    }
+
+    public static String packageName(int p) {
+        return "com.synthetic.m" + (p % 16) + ".p" + p;
+    }
+
+    /** Rank in {@code [0, n)} whose probability decays with the rank; exponent 1 is uniform. */
+    private static int zipfRank(int n, double exponent, Random random) {
+        return Math.min(n - 1, (int) (n * Math.pow(random.nextDouble(), exponent)));
+    }
+
+    /** Costs skewed towards the cheap end, as in analyzed code bases. */
+    private static int cost(Random random) {
+        int r = random.nextInt(100);
+        return r < 40 ? 0 : r < 70 ? 1 : r < 88 ? 2 : r < 97 ? 3 : 4;
+    }
+
+    private static int[] permutation(int n, Random random) {
+        int[] out = new int[n];
+        for (int i = 0; i < n; i++) out[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = out[i];
+            out[i] = out[j];
+            out[j] = t;
+        }
+        return out;
+    }
+}
@@ -1,9 +1,22 @@
 export type NodeLevel = 'METHOD'|'CLASS'|'INTERFACE'|'PACKAGE';
 export interface NodeDto { id:string; level:NodeLevel; displayName:string; packageName?:string|null; className?:string|null; methodName?:string|null; signature?:string|null; cost:number; complexity:number; hotspot:boolean; }
 export interface EdgeDto { id:string; sourceId:string; targetId:string; type:string; weight:number; }
-export interface GraphSliceDto { nodes:NodeDto[]; edges:EdgeDto[]; }
+export interface ClusterDto { id:string; kind:'CLASS'|'PACKAGE'|'COMMUNITY'|'OTHER'; members:number; expand:string; }
+export interface GraphSliceDto { nodes:NodeDto[]; edges:EdgeDto[]; clusters?:ClusterDto[]; truncated?:boolean; positions?:Record<string,[number,number]>; }
+export interface PathSliceDto { nodes:NodeDto[]; edges:EdgeDto[]; paths:string[][]; }
+export interface SearchResultDto { nodes:NodeDto[]; total:number; offset:number; limit:number; }
+export interface ReachabilityDto { nodeId:string; direction:'CALLERS'|'CALLEES'; reached:number; leaves:number; depth:number; complete:boolean; byLevel:Record<string,number>; byPackage?:Record<string,number>; }
+export interface QueryFilter { level?:NodeLevel[]; minCost?:number; maxCost?:number; minComplexity?:number; maxComplexity?:number; hotspot?:boolean; packagePrefix?:string; and?:QueryFilter[]; or?:QueryFilter[]; }
+export interface NodeQueryDto { where?:QueryFilter; edgeTypes?:string[]; minWeight?:number; sort?:'cost'|'complexity'|'id'; order?:'asc'|'desc'; limit?:number; }
+export interface QueryResultDto { nodes:NodeDto[]; edges:EdgeDto[]; total:number; }
+export interface ExpansionSessionDto { sessionId:string; snapshot:string; version:number; roots:Record<string,number>; nodes:number; edges:number; seq:number; }
+export interface ExpansionDeltaDto { seq:number; addedNodes?:NodeDto[]; addedEdges?:EdgeDto[]; removedNodes?:string[]; removedEdges?:string[]; done:boolean; truncated?:boolean; }
+export interface LatencyDto { count:number; meanMs:number; p50Ms:number; p90Ms:number; p99Ms:number; maxMs:number; }
+export interface SizesDto { mean:number; p50:number; p99:number; max:number; }
+export interface MetricsDto { uptimeMillis:number; heap:{ usedBytes:number; committedBytes:number; maxBytes:number; snapshotBytes:number; budgetBytes:number; }; snapshots:{ name:string; source?:string; loaded:boolean; version:number; estimatedBytes:number; nodes?:number; edges?:number; }[]; loads:Record<string,{ count:number; failures:number; bytes:number; duration:LatencyDto; mbPerSecond?:number; }>; prepare:LatencyDto; caches:Record<string,{ hits:number; misses:number; hitRate?:number; entries?:number; bytes?:number; }>; executor:{ inFlight:number; freeHeavySlots:number; queuedHeavyQueries:number; rejected:number; slotWait:LatencyDto; }; endpoints:Record<string,{ requests:number; outcomes:Partial<Record<'NOT_MODIFIED'|'CACHED'|'COMPUTED'|'SHARED'|'FAILED',number>>; latency:LatencyDto; nodes?:SizesDto; edges?:SizesDto; bytes?:SizesDto; }>; slowQueries:{ time:string; endpoint:string; snapshot:string; params:string; millis:number; outcome:string; nodes?:number; edges?:number; bytes?:number; error?:string; }[]; }
 const BASE='http://localhost:8080/api/graph';
 export const fetchPackages=async():Promise<GraphSliceDto>=>{const r=await fetch(BASE+'/packages');if(!r.ok)throw new Error('packages');return r.json();};
+export const searchNodes=async(q:string,offset=0,limit=50):Promise<SearchResultDto>=>{const r=await fetch(BASE+'/search?q='+encodeURIComponent(q)+'&offset='+offset+'&limit='+limit);if(!r.ok)throw new Error('search');return r.json();};
 export function costLabel(cost: number): string {
   switch (cost) {
     case 0: return "LOWEST";
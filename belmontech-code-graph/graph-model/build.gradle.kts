@@ -15,4 +15,12 @@ dependencies {
     // jtoon uses Jackson 3.x natively
     implementation("dev.toonformat:jtoon:1.0.6")
     implementation("commons-io:commons-io:2.15.1")
+
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
@@ -1,22 +1,23 @@
 package com.belmonttech.graph.model;
 
-import tools.jackson.databind.*;
+import com.belmonttech.graph.model.io.ToonSerializer;
 
-import java.io.File;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
- * Simple default Toon parser that assumes the Toon file is a JSON
- * serialization of {@link GraphSnapshot}. Replace this with a real
- * parser for your custom Toon format if needed.
+ * Default {@link ToonGraphLoader}: streams the analyzer's TOON report through {@link ToonSerializer}.
  */
 public class DefaultToonParser implements ToonGraphLoader {
 
-    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final ToonSerializer TOON = new ToonSerializer();
 
     @Override
     public GraphSnapshot load(String toonFilePath) {
-        try {
-            return JSON.readValue(new File(toonFilePath), GraphSnapshot.class);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Path.of(toonFilePath)))) {
+            return TOON.deserialize(in);
         } catch (Exception ex) {
             ex.printStackTrace();
             return new GraphSnapshot(java.util.Map.of(), java.util.List.of());
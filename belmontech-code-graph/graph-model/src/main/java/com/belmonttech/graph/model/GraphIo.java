@@ -1,43 +1,59 @@
 package com.belmonttech.graph.model;
 
 import com.belmonttech.graph.model.io.*;
+import com.belmonttech.graph.model.progress.ProgressListener;
 
-import tools.jackson.databind.ObjectMapper;
-
-import java.io.IOException;
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
 import java.nio.file.*;
 import java.util.Locale;
 
 public class GraphIo {
     private final DataLoader loader;
-    private final ObjectMapper jsonMapper = new ObjectMapper();
 
     public GraphIo() {
         this.loader = new DataLoader();
         loader.registerSerializer("json", new JsonSerializer());
         loader.registerSerializer("toon", new ToonSerializer());
+        loader.registerSerializer("cgb", new BinarySnapshotSerializer());
+    }
+
+    public DataLoader getLoader() {
+        return loader;
     }
 
+    /**
+     * Maps or streams the file through {@link DataLoader}; the file is never read into a heap array. A
+     * {@code .gz}/{@code .deflate} suffix (or a compressed header) is inflated on the fly.
+     */
     public GraphSnapshot load(Path file) throws Exception {
         String ext = getExtension(file);
-        ISerializer s = loader.getSerializer(ext);
-        if (s == null)
+        if (loader.getSerializer(ext) == null)
             throw new IllegalArgumentException("Unsupported format: " + ext);
-        return s.deserialize(Files.readAllBytes(file));
+        return loader.load(file);
+    }
+
+    /** Writes in the format named by the extension, compressed if it ends in {@code .gz} or {@code .deflate}. */
+    public void save(Path file, GraphSnapshot s) throws Exception {
+        save(file, s, null);
     }
 
-    public void save(Path file, GraphSnapshot s) throws IOException {
+    /** As {@link #save(Path, GraphSnapshot)}, reporting progress if the serializer supports it. */
+    public void save(Path file, GraphSnapshot s, ProgressListener listener) throws Exception {
         String ext = getExtension(file);
-        if ("json".equals(ext)) {
-            jsonMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), s);
-        } else if ("toon".equals(ext)) {
-            Files.writeString(file, ToonSerializer.encodeSnapshot(s));
-        } else
+        ISerializer serializer = loader.getSerializer(ext);
+        if (serializer == null)
             throw new IllegalArgumentException("Unsupported output: " + ext);
+        Compression compression = Compression.fromFileName(file.getFileName().toString());
+        try (OutputStream out = compression.encode(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            serializer.serialize(s, out, listener);
+        }
     }
 
+    /** Serializer extension, ignoring a compression suffix ({@code a.toon.gz} gives {@code toon}). */
     private static String getExtension(Path f) {
         String n = f.getFileName().toString();
+        n = Compression.fromFileName(n).strip(n);
         int i = n.lastIndexOf('.');
         return i == -1 ? "" : n.substring(i + 1).toLowerCase(Locale.ROOT);
     }
@@ -0,0 +1,49 @@
+package com.belmonttech.graph.model;
+
+import com.belmonttech.graph.model.columnar.SnapshotColumns;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Rough retained-heap estimate of a {@link GraphSnapshot}, assuming a 64-bit JVM with compressed oops and
+ * compact (Latin-1) strings. Strings shared between records are counted once. Good enough for budgeting and
+ * capacity planning; it is not a substitute for a heap dump. Column-backed snapshots report their own figure.
+ */
+public final class SnapshotFootprint {
+
+    private static final int NODE_RECORD = 48;
+    private static final int EDGE_RECORD = 32;
+    private static final int HASH_ENTRY = 40;
+    private static final int LIST_SLOT = 4;
+    private static final int STRING_HEADER = 24 + 16;
+
+    private SnapshotFootprint() {
+    }
+
+    public static long estimateBytes(GraphSnapshot s) {
+        SnapshotColumns columns = SnapshotColumns.of(s);
+        if (columns != null) return columns.estimatedHeapBytes();
+        Map<String, Boolean> seen = new IdentityHashMap<>();
+        long bytes = 0;
+        for (GraphNode n : s.nodes().values()) {
+            bytes += NODE_RECORD + HASH_ENTRY;
+            bytes += string(n.id(), seen) + string(n.displayName(), seen) + string(n.packageName(), seen)
+                    + string(n.className(), seen) + string(n.methodName(), seen) + string(n.signature(), seen);
+        }
+        for (GraphEdge e : s.edges()) {
+            bytes += EDGE_RECORD + LIST_SLOT;
+            bytes += string(e.id(), seen) + string(e.sourceId(), seen) + string(e.targetId(), seen);
+        }
+        return bytes;
+    }
+
+    private static long string(String v, Map<String, Boolean> seen) {
+        if (v == null || seen.put(v, Boolean.TRUE) != null) return 0;
+        return align(STRING_HEADER + v.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
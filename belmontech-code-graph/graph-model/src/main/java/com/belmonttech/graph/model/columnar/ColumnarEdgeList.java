@@ -0,0 +1,28 @@
+package com.belmonttech.graph.model.columnar;
+
+import com.belmonttech.graph.model.GraphEdge;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/** Read-only {@code List<GraphEdge>} view over {@link SnapshotColumns}; records are created per access. */
+final class ColumnarEdgeList extends AbstractList<GraphEdge> implements RandomAccess {
+
+    private final SnapshotColumns columns;
+
+    ColumnarEdgeList(SnapshotColumns columns) {
+        this.columns = columns;
+    }
+
+    @Override
+    public GraphEdge get(int index) {
+        if (index < 0 || index >= columns.edgeCount())
+            throw new IndexOutOfBoundsException(index);
+        return columns.edge(index);
+    }
+
+    @Override
+    public int size() {
+        return columns.edgeCount();
+    }
+}
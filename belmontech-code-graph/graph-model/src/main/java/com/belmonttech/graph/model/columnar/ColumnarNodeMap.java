@@ -0,0 +1,107 @@
+package com.belmonttech.graph.model.columnar;
+
+import com.belmonttech.graph.model.GraphNode;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/** Read-only {@code Map<String, GraphNode>} view over {@link SnapshotColumns}, iterating in ordinal order. */
+final class ColumnarNodeMap extends AbstractMap<String, GraphNode> {
+
+    private final SnapshotColumns columns;
+
+    ColumnarNodeMap(SnapshotColumns columns) {
+        this.columns = columns;
+    }
+
+    SnapshotColumns columns() {
+        return columns;
+    }
+
+    @Override
+    public int size() {
+        return columns.nodeCount();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String id && columns.ordinal(id) >= 0;
+    }
+
+    @Override
+    public GraphNode get(Object key) {
+        if (!(key instanceof String id)) return null;
+        int o = columns.ordinal(id);
+        return o < 0 ? null : columns.node(o);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Ordinals<>(columns::nodeId);
+            }
+
+            @Override
+            public int size() {
+                return columns.nodeCount();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+        };
+    }
+
+    @Override
+    public Collection<GraphNode> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<GraphNode> iterator() {
+                return new Ordinals<>(columns::node);
+            }
+
+            @Override
+            public int size() {
+                return columns.nodeCount();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, GraphNode>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, GraphNode>> iterator() {
+                return new Ordinals<>(o -> new SimpleImmutableEntry<>(columns.nodeId(o), columns.node(o)));
+            }
+
+            @Override
+            public int size() {
+                return columns.nodeCount();
+            }
+        };
+    }
+
+    private final class Ordinals<T> implements Iterator<T> {
+        private final IntFunction<T> at;
+        private int next;
+
+        Ordinals(IntFunction<T> at) {
+            this.at = at;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < columns.nodeCount();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return at.apply(next++);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.belmonttech.graph.model.columnar;
+
+import com.belmonttech.graph.model.*;
+
+import java.util.*;
+
+/**
+ * Dictionary-encoded, column-oriented in-memory snapshot. Every distinct string (ids, packages, classes,
+ * signatures) is stored once and referenced by an {@code int}; levels, costs and complexities are primitive
+ * columns, hotspots a {@link BitSet}, and edges parallel {@code int} arrays. Compared with a map of
+ * {@link GraphNode} records this drops the per-record and per-entry overhead and every repeated string.
+ * <p>
+ * {@link #encode} returns an ordinary {@link GraphSnapshot} whose map and list are read-only views (see
+ * {@link SnapshotColumns#asSnapshot}), so existing callers keep working; they get fresh records on access.
+ */
+public final class ColumnarSnapshot implements SnapshotColumns {
+
+    private static final NodeLevel[] LEVELS = NodeLevel.values();
+    private static final EdgeType[] TYPES = EdgeType.values();
+    private static final int NONE = -1;
+    /** Edge id {@code "e" + index}, the id the TOON reader assigns; not worth a dictionary entry per edge. */
+    private static final int POSITIONAL_ID = -2;
+
+    private final String[] dictionary;
+    private final int nodeCount;
+    private final int[] nodeIds;
+    private final byte[] levels;
+    private final int[] displayNames;
+    private final int[] packages;
+    private final int[] classes;
+    private final int[] methods;
+    private final int[] signatures;
+    private final int[] costs;
+    private final int[] complexities;
+    private final BitSet hotspots;
+    private final int[] idTable;
+
+    private final int[] edgeIds;
+    /** Ordinal, or {@code -(dictionary index + 2)} for an endpoint that is not a node, or -1 for null. */
+    private final int[] sources;
+    private final int[] targets;
+    private final byte[] types;
+    private final int[] weights;
+
+    private ColumnarSnapshot(GraphSnapshot s) {
+        int n = s.nodes().size();
+        int m = s.edges().size();
+        Map<String, Integer> dict = new HashMap<>(Math.max(16, (int) (n * 2 / 0.75f)));
+        List<String> strings = new ArrayList<>();
+
+        this.nodeCount = n;
+        this.nodeIds = new int[n];
+        this.levels = new byte[n];
+        this.displayNames = new int[n];
+        this.packages = new int[n];
+        this.classes = new int[n];
+        this.methods = new int[n];
+        this.signatures = new int[n];
+        this.costs = new int[n];
+        this.complexities = new int[n];
+        this.hotspots = new BitSet(n);
+        Map<String, Integer> ordinals = new HashMap<>(Math.max(16, (int) (n / 0.75f) + 1));
+        int i = 0;
+        for (Map.Entry<String, GraphNode> e : s.nodes().entrySet()) {
+            GraphNode node = e.getValue();
+            ordinals.put(e.getKey(), i);
+            nodeIds[i] = intern(e.getKey(), dict, strings);
+            levels[i] = (byte) (node.level() == null ? NONE : node.level().ordinal());
+            displayNames[i] = intern(node.displayName(), dict, strings);
+            packages[i] = intern(node.packageName(), dict, strings);
+            classes[i] = intern(node.className(), dict, strings);
+            methods[i] = intern(node.methodName(), dict, strings);
+            signatures[i] = intern(node.signature(), dict, strings);
+            costs[i] = node.cost();
+            complexities[i] = node.complexity();
+            if (node.hotspot()) hotspots.set(i);
+            i++;
+        }
+
+        this.edgeIds = new int[m];
+        this.sources = new int[m];
+        this.targets = new int[m];
+        this.types = new byte[m];
+        this.weights = new int[m];
+        int k = 0;
+        for (GraphEdge e : s.edges()) {
+            edgeIds[k] = isPositional(e.id(), k) ? POSITIONAL_ID : intern(e.id(), dict, strings);
+            sources[k] = endpoint(e.sourceId(), ordinals, dict, strings);
+            targets[k] = endpoint(e.targetId(), ordinals, dict, strings);
+            types[k] = (byte) (e.type() == null ? NONE : e.type().ordinal());
+            weights[k] = e.weight();
+            k++;
+        }
+        this.dictionary = strings.toArray(new String[0]);
+
+        this.idTable = new int[Integer.highestOneBit(Math.max(2, n) * 2 - 1) << 1];
+        for (int o = 0; o < n; o++) {
+            int slot = slot(dictionary[nodeIds[o]]);
+            while (idTable[slot] != 0) slot = (slot + 1) & (idTable.length - 1);
+            idTable[slot] = o + 1;
+        }
+    }
+
+    /** Column-encodes {@code snapshot}; snapshots that already are column-backed are returned unchanged. */
+    public static GraphSnapshot encode(GraphSnapshot snapshot) {
+        if (snapshot == null || SnapshotColumns.of(snapshot) != null) return snapshot;
+        return SnapshotColumns.asSnapshot(new ColumnarSnapshot(snapshot));
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeIds.length;
+    }
+
+    @Override
+    public int ordinal(String nodeId) {
+        int slot = slot(nodeId);
+        while (true) {
+            int entry = idTable[slot];
+            if (entry == 0) return -1;
+            if (dictionary[nodeIds[entry - 1]].equals(nodeId)) return entry - 1;
+            slot = (slot + 1) & (idTable.length - 1);
+        }
+    }
+
+    @Override
+    public String nodeId(int ordinal) {
+        return dictionary[nodeIds[ordinal]];
+    }
+
+    @Override
+    public NodeLevel level(int ordinal) {
+        return levels[ordinal] < 0 ? null : LEVELS[levels[ordinal]];
+    }
+
+    @Override
+    public String packageName(int ordinal) {
+        return string(packages[ordinal]);
+    }
+
+    @Override
+    public int cost(int ordinal) {
+        return costs[ordinal];
+    }
+
+    @Override
+    public int complexity(int ordinal) {
+        return complexities[ordinal];
+    }
+
+    @Override
+    public boolean hotspot(int ordinal) {
+        return hotspots.get(ordinal);
+    }
+
+    @Override
+    public String displayName(int ordinal) {
+        return string(displayNames[ordinal]);
+    }
+
+    @Override
+    public String className(int ordinal) {
+        return string(classes[ordinal]);
+    }
+
+    @Override
+    public String methodName(int ordinal) {
+        return string(methods[ordinal]);
+    }
+
+    @Override
+    public String signature(int ordinal) {
+        return string(signatures[ordinal]);
+    }
+
+    @Override
+    public GraphNode node(int o) {
+        return new GraphNode(nodeId(o), level(o), string(displayNames[o]), packageName(o), string(classes[o]),
+                string(methods[o]), string(signatures[o]), costs[o], complexities[o], hotspots.get(o));
+    }
+
+    @Override
+    public int edgeSource(int edge) {
+        return Math.max(NONE, sources[edge]);
+    }
+
+    @Override
+    public int edgeTarget(int edge) {
+        return Math.max(NONE, targets[edge]);
+    }
+
+    @Override
+    public EdgeType edgeType(int edge) {
+        return types[edge] < 0 ? null : TYPES[types[edge]];
+    }
+
+    @Override
+    public int edgeWeight(int edge) {
+        return weights[edge];
+    }
+
+    @Override
+    public GraphEdge edge(int e) {
+        String id = edgeIds[e] == POSITIONAL_ID ? "e" + e : string(edgeIds[e]);
+        return new GraphEdge(id, endpointId(sources[e]), endpointId(targets[e]), edgeType(e),
+                weights[e]);
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        long bytes = 16 + 4L * dictionary.length;
+        for (String s : dictionary) bytes += (40 + s.length() + 7) & ~7L;
+        bytes += 4L * nodeCount * 8 + nodeCount + hotspots.size() / 8 + 4L * idTable.length;
+        bytes += 4L * edgeIds.length * 4 + types.length;
+        return bytes;
+    }
+
+    private String endpointId(int ref) {
+        if (ref >= 0) return nodeId(ref);
+        return ref == NONE ? null : dictionary[-ref - 2];
+    }
+
+    private String string(int id) {
+        return id < 0 ? null : dictionary[id];
+    }
+
+    private int slot(String id) {
+        int h = id.hashCode();
+        return (h ^ (h >>> 16)) & (idTable.length - 1);
+    }
+
+    private static boolean isPositional(String id, int index) {
+        if (id == null || id.length() < 2 || id.length() > 11 || id.charAt(0) != 'e') return false;
+        if (id.charAt(1) == '0' && id.length() > 2) return false;
+        long value = 0;
+        for (int c = 1; c < id.length(); c++) {
+            char ch = id.charAt(c);
+            if (ch < '0' || ch > '9') return false;
+            value = value * 10 + (ch - '0');
+        }
+        return value == index;
+    }
+
+    private static int endpoint(String id, Map<String, Integer> ordinals, Map<String, Integer> dict,
+                                List<String> strings) {
+        if (id == null) return NONE;
+        Integer o = ordinals.get(id);
+        return o != null ? o : -intern(id, dict, strings) - 2;
+    }
+
+    private static int intern(String value, Map<String, Integer> dict, List<String> strings) {
+        if (value == null) return NONE;
+        Integer existing = dict.get(value);
+        if (existing != null) return existing;
+        int id = strings.size();
+        dict.put(value, id);
+        strings.add(value);
+        return id;
+    }
+}
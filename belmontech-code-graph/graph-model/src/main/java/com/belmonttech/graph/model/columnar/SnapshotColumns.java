@@ -0,0 +1,80 @@
+package com.belmonttech.graph.model.columnar;
+
+import com.belmonttech.graph.model.*;
+
+/**
+ * Column-oriented, ordinal-addressed access to a snapshot. Nodes are numbered {@code 0..nodeCount()-1} and edges
+ * {@code 0..edgeCount()-1}; records are only created when {@link #node} or {@link #edge} is called, so a
+ * snapshot backed by columns (a memory-mapped file, dictionary-encoded arrays) never holds a record per node.
+ * <p>
+ * {@link #asSnapshot} wraps columns in a {@link GraphSnapshot} whose map and list are read-only views; code that
+ * knows about columns gets them back with {@link #of}.
+ */
+public interface SnapshotColumns {
+
+    int nodeCount();
+
+    int edgeCount();
+
+    /** Ordinal of {@code nodeId}, or {@code -1}. */
+    int ordinal(String nodeId);
+
+    String nodeId(int ordinal);
+
+    NodeLevel level(int ordinal);
+
+    String packageName(int ordinal);
+
+    int cost(int ordinal);
+
+    int complexity(int ordinal);
+
+    boolean hotspot(int ordinal);
+
+    /**
+     * Name columns, for indexes that read every node's names once (name search). Mapped columns decode these
+     * without caching, so such a pass does not pin the string dictionary on the heap.
+     */
+    String displayName(int ordinal);
+
+    String className(int ordinal);
+
+    String methodName(int ordinal);
+
+    String signature(int ordinal);
+
+    /** Materializes the full record; callers in hot loops should prefer the column accessors. */
+    GraphNode node(int ordinal);
+
+    /** Source ordinal of an edge, or {@code -1} if its source is not a node of this snapshot. */
+    int edgeSource(int edge);
+
+    /** Target ordinal of an edge, or {@code -1} if its target is not a node of this snapshot. */
+    int edgeTarget(int edge);
+
+    EdgeType edgeType(int edge);
+
+    int edgeWeight(int edge);
+
+    GraphEdge edge(int edge);
+
+    /**
+     * Precomputed adjacency {@code {outOffsets, outEdges, inOffsets, inEdges}} in
+     * {@link com.belmonttech.graph.model.index.AdjacencyIndex} layout, or {@code null} to have the index count it.
+     */
+    default int[][] adjacency() {
+        return null;
+    }
+
+    /** Heap retained by the columns (off-heap mappings count only their heap-side caches). */
+    long estimatedHeapBytes();
+
+    static GraphSnapshot asSnapshot(SnapshotColumns columns) {
+        return new GraphSnapshot(new ColumnarNodeMap(columns), new ColumnarEdgeList(columns));
+    }
+
+    /** The columns behind {@code snapshot}, or {@code null} if it is an ordinary map-and-list snapshot. */
+    static SnapshotColumns of(GraphSnapshot snapshot) {
+        return snapshot != null && snapshot.nodes() instanceof ColumnarNodeMap m ? m.columns() : null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.belmonttech.graph.model.diff;
+
+import com.belmonttech.graph.model.GraphNode;
+
+/** A node present in both snapshots whose cost, complexity or hotspot flag differs. */
+public record NodeChange(GraphNode before, GraphNode after) {
+
+    public String id() {
+        return after.id();
+    }
+
+    public int costDelta() {
+        return after.cost() - before.cost();
+    }
+
+    public int complexityDelta() {
+        return after.complexity() - before.complexity();
+    }
+
+    /** True when the node got more expensive or more complex. */
+    public boolean isRegression() {
+        return costDelta() > 0 || (costDelta() == 0 && complexityDelta() > 0);
+    }
+}
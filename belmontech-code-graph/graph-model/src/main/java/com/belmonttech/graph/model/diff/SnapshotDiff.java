@@ -0,0 +1,23 @@
+package com.belmonttech.graph.model.diff;
+
+import com.belmonttech.graph.model.GraphEdge;
+import com.belmonttech.graph.model.GraphNode;
+
+import java.util.List;
+
+/**
+ * Differences between a base and a target snapshot. Nodes are matched by id; edges are matched by
+ * (source, target, type) since edge ids are not guaranteed to be stable between analysis runs.
+ */
+public record SnapshotDiff(
+        List<GraphNode> addedNodes,
+        List<GraphNode> removedNodes,
+        List<NodeChange> changedNodes,
+        List<GraphEdge> addedEdges,
+        List<GraphEdge> removedEdges
+) {
+    public boolean isEmpty() {
+        return addedNodes.isEmpty() && removedNodes.isEmpty() && changedNodes.isEmpty()
+                && addedEdges.isEmpty() && removedEdges.isEmpty();
+    }
+}
@@ -0,0 +1,197 @@
+package com.belmonttech.graph.model.index;
+
+import com.belmonttech.graph.model.GraphEdge;
+import com.belmonttech.graph.model.GraphNode;
+import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.columnar.SnapshotColumns;
+import com.belmonttech.graph.model.progress.ProgressListener;
+import com.belmonttech.graph.model.progress.ProgressReporter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable CSR (compressed sparse row) adjacency over a {@link GraphSnapshot}. Nodes get dense ordinals in
+ * the snapshot's iteration order; for every node the indices of its outgoing and incoming edges are stored
+ * contiguously, so walking a node's neighbours never scans the full edge list.
+ * <p>
+ * Edges whose endpoints are missing from {@code nodes()} are kept in {@link #edges()} but are not linked
+ * into the adjacency (their endpoint ordinal is {@code -1}).
+ * <p>
+ * For column-backed snapshots ({@link SnapshotColumns}) the index reuses the columns' ordinals and, if
+ * present, their precomputed adjacency; records are then materialized per {@link #node}/{@link #edge} call
+ * instead of being held in arrays.
+ */
+public final class AdjacencyIndex {
+
+    private static final int PROGRESS_BATCH = 1 << 16;
+
+    private final GraphSnapshot snapshot;
+    private final SnapshotColumns columns;
+    private final int nodeCount;
+    private final GraphNode[] nodes;
+    private final Map<String, Integer> ordinals;
+    private final GraphEdge[] edges;
+    private final int[] edgeSource;
+    private final int[] edgeTarget;
+    private final int[] outOffsets;
+    private final int[] outEdges;
+    private final int[] inOffsets;
+    private final int[] inEdges;
+
+    private AdjacencyIndex(GraphSnapshot snapshot, ProgressReporter progress) {
+        this.snapshot = snapshot;
+        this.columns = null;
+        int n = snapshot.nodes().size();
+        this.nodeCount = n;
+        this.nodes = new GraphNode[n];
+        this.ordinals = new HashMap<>(Math.max(16, (int) (n / 0.75f) + 1));
+        int i = 0;
+        for (Map.Entry<String, GraphNode> e : snapshot.nodes().entrySet()) {
+            nodes[i] = e.getValue();
+            ordinals.put(e.getKey(), i++);
+        }
+        progress.step(n);
+
+        List<GraphEdge> edgeList = snapshot.edges();
+        int m = edgeList.size();
+        this.edges = edgeList.toArray(new GraphEdge[0]);
+        this.edgeSource = new int[m];
+        this.edgeTarget = new int[m];
+        for (int e = 0; e < m; e++) {
+            edgeSource[e] = ordinal(edges[e].sourceId());
+            edgeTarget[e] = ordinal(edges[e].targetId());
+            if ((e + 1) % PROGRESS_BATCH == 0) progress.step(PROGRESS_BATCH);
+        }
+        progress.step(m % PROGRESS_BATCH);
+        int[][] csr = csr(n, edgeSource, edgeTarget);
+        this.outOffsets = csr[0];
+        this.outEdges = csr[1];
+        this.inOffsets = csr[2];
+        this.inEdges = csr[3];
+    }
+
+    private AdjacencyIndex(GraphSnapshot snapshot, SnapshotColumns columns, ProgressReporter progress) {
+        this.snapshot = snapshot;
+        this.columns = columns;
+        this.nodeCount = columns.nodeCount();
+        this.nodes = null;
+        this.ordinals = null;
+        this.edges = null;
+        progress.step(nodeCount);
+        int m = columns.edgeCount();
+        this.edgeSource = new int[m];
+        this.edgeTarget = new int[m];
+        for (int e = 0; e < m; e++) {
+            edgeSource[e] = columns.edgeSource(e);
+            edgeTarget[e] = columns.edgeTarget(e);
+            if ((e + 1) % PROGRESS_BATCH == 0) progress.step(PROGRESS_BATCH);
+        }
+        progress.step(m % PROGRESS_BATCH);
+        int[][] csr = columns.adjacency();
+        if (csr == null) csr = csr(nodeCount, edgeSource, edgeTarget);
+        this.outOffsets = csr[0];
+        this.outEdges = csr[1];
+        this.inOffsets = csr[2];
+        this.inEdges = csr[3];
+    }
+
+    public static AdjacencyIndex build(GraphSnapshot snapshot) {
+        return build(snapshot, null);
+    }
+
+    /** As {@link #build(GraphSnapshot)}; {@code listener} (optional) receives nodes plus edges indexed. */
+    public static AdjacencyIndex build(GraphSnapshot snapshot, ProgressListener listener) {
+        SnapshotColumns columns = SnapshotColumns.of(snapshot);
+        long total = columns != null ? columns.nodeCount() + (long) columns.edgeCount()
+                : snapshot.nodes().size() + (long) snapshot.edges().size();
+        ProgressReporter progress = new ProgressReporter("Indexing", total, listener);
+        AdjacencyIndex index = columns != null ? new AdjacencyIndex(snapshot, columns, progress)
+                : new AdjacencyIndex(snapshot, progress);
+        progress.finish();
+        return index;
+    }
+
+    /**
+     * Counting-sort CSR over edge endpoint ordinals: {@code {outOffsets, outEdges, inOffsets, inEdges}}.
+     * Edges with a {@code -1} endpoint are left out; each node's edges stay in ascending edge order.
+     */
+    public static int[][] csr(int nodeCount, int[] edgeSource, int[] edgeTarget) {
+        int n = nodeCount;
+        int m = edgeSource.length;
+        int[] outOffsets = new int[n + 1];
+        int[] inOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            int s = edgeSource[e];
+            int t = edgeTarget[e];
+            if (s >= 0 && t >= 0) {
+                outOffsets[s + 1]++;
+                inOffsets[t + 1]++;
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            outOffsets[k + 1] += outOffsets[k];
+            inOffsets[k + 1] += inOffsets[k];
+        }
+        int[] outEdges = new int[outOffsets[n]];
+        int[] inEdges = new int[inOffsets[n]];
+        int[] outFill = new int[n];
+        int[] inFill = new int[n];
+        for (int e = 0; e < m; e++) {
+            int s = edgeSource[e];
+            int t = edgeTarget[e];
+            if (s < 0 || t < 0) continue;
+            outEdges[outOffsets[s] + outFill[s]++] = e;
+            inEdges[inOffsets[t] + inFill[t]++] = e;
+        }
+        return new int[][]{outOffsets, outEdges, inOffsets, inEdges};
+    }
+
+    public GraphSnapshot snapshot() { return snapshot; }
+
+    /** The columns behind the snapshot, or {@code null} for a map-and-list snapshot. */
+    public SnapshotColumns columns() { return columns; }
+
+    public int nodeCount() { return nodeCount; }
+
+    public int edgeCount() { return edgeSource.length; }
+
+    /** Dense ordinal of a node id, or {@code -1} if the snapshot has no such node. */
+    public int ordinal(String nodeId) {
+        if (nodeId == null) return -1;
+        if (columns != null) return columns.ordinal(nodeId);
+        Integer o = ordinals.get(nodeId);
+        return o == null ? -1 : o;
+    }
+
+    public GraphNode node(int ordinal) { return columns != null ? columns.node(ordinal) : nodes[ordinal]; }
+
+    public GraphEdge edge(int edgeIndex) { return columns != null ? columns.edge(edgeIndex) : edges[edgeIndex]; }
+
+    public int source(int edgeIndex) { return edgeSource[edgeIndex]; }
+
+    public int target(int edgeIndex) { return edgeTarget[edgeIndex]; }
+
+    /** Outgoing edges of {@code ordinal} are {@code outEdgeAt(k)} for {@code outStart <= k < outEnd}. */
+    public int outStart(int ordinal) { return outOffsets[ordinal]; }
+
+    public int outEnd(int ordinal) { return outOffsets[ordinal + 1]; }
+
+    public int outEdgeAt(int k) { return outEdges[k]; }
+
+    public int inStart(int ordinal) { return inOffsets[ordinal]; }
+
+    public int inEnd(int ordinal) { return inOffsets[ordinal + 1]; }
+
+    public int inEdgeAt(int k) { return inEdges[k]; }
+
+    /** Heap held by the index itself, excluding the snapshot's records. */
+    public long estimatedBytes() {
+        long ints = (long) edgeSource.length + edgeTarget.length + outOffsets.length + inOffsets.length
+                + outEdges.length + inEdges.length;
+        long bytes = ints * 4;
+        if (columns == null) bytes += (long) (nodes.length + edges.length) * 4 + (long) ordinals.size() * 56;
+        return bytes;
+    }
+}
@@ -0,0 +1,414 @@
+package com.belmonttech.graph.model.index;
+
+import com.belmonttech.graph.model.GraphNode;
+import com.belmonttech.graph.model.NodeLevel;
+import com.belmonttech.graph.model.columnar.SnapshotColumns;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * Search over node names, built once per snapshot. Three structures answer the three kinds of query:
+ * <ul>
+ *   <li>prefix: sorted distinct lower-case names (display name, simple and qualified class name, method name),
+ *       each with its nodes; a query is a binary search plus a scan over the matching key range</li>
+ *   <li>camel case: the same table over hump initials ({@code HashSetCache.get} is {@code hscg}), so
+ *       {@code HSC} or {@code HaSeC} finds it; humps longer than one letter are verified per candidate</li>
+ *   <li>substring: trigram posting lists over display name, class name, method name and signature; the lists
+ *       of the query's trigrams are intersected and the survivors checked against the text</li>
+ * </ul>
+ * Matches are collected into bit sets indexed by rank (cost, then complexity, descending), so ordering and
+ * paging a large match set costs one pass over the set bits and no sort.
+ */
+public final class NameSearchIndex {
+
+    public enum Mode {
+        /** Prefix and camel-case matches first, then substring matches (queries of three or more characters). */
+        AUTO,
+        PREFIX,
+        SUBSTRING,
+        CAMEL
+    }
+
+    /** One page of results: {@code total} matches overall, {@code ordinals} in rank order. */
+    public record Page(int total, int[] ordinals) {}
+
+    private final AdjacencyIndex index;
+    private final KeyTable names;
+    private final KeyTable humps;
+    private final long[] trigrams;
+    private final int[][] postings;
+    private final int[] byRank;
+    private final int[] rankOf;
+    private final byte[] level;
+
+    private NameSearchIndex(AdjacencyIndex index) {
+        this.index = index;
+        int n = index.nodeCount();
+        KeyTable.Builder nameKeys = new KeyTable.Builder();
+        KeyTable.Builder humpKeys = new KeyTable.Builder();
+        LongIntMap trigramIds = new LongIntMap();
+        List<IntList> lists = new ArrayList<>();
+        SnapshotColumns columns = index.columns();
+        int[] cost = new int[n];
+        int[] complexity = new int[n];
+        int[] length = new int[n];
+        this.level = new byte[n];
+        for (int o = 0; o < n; o++) {
+            // column-backed snapshots are read column by column instead of materializing a record per node
+            GraphNode node = columns == null ? index.node(o) : null;
+            String displayName = columns != null ? columns.displayName(o) : node.displayName();
+            String className = columns != null ? columns.className(o) : node.className();
+            String methodName = columns != null ? columns.methodName(o) : node.methodName();
+            NodeLevel nodeLevel = columns != null ? columns.level(o) : node.level();
+            cost[o] = columns != null ? columns.cost(o) : node.cost();
+            complexity[o] = columns != null ? columns.complexity(o) : node.complexity();
+            length[o] = displayName == null ? 0 : displayName.length();
+            level[o] = (byte) (nodeLevel == null ? -1 : nodeLevel.ordinal());
+
+            nameKeys.add(lower(displayName), o);
+            nameKeys.add(lower(simpleName(className)), o);
+            nameKeys.add(lower(className), o);
+            nameKeys.add(lower(methodName), o);
+            humpKeys.add(initials(humps(displayName)), o);
+            humpKeys.add(initials(humps(methodName)), o);
+
+            String s = text(displayName, className, methodName,
+                    columns != null ? columns.signature(o) : node.signature());
+            for (int k = 0; k + 2 < s.length(); k++) {
+                long code = trigram(s, k);
+                int id = trigramIds.get(code);
+                if (id < 0) {
+                    id = lists.size();
+                    trigramIds.put(code, id);
+                    lists.add(new IntList());
+                }
+                IntList list = lists.get(id);
+                // repeated trigram within the same node
+                if (list.size == 0 || list.items[list.size - 1] != o) list.add(o);
+            }
+        }
+        this.names = nameKeys.build();
+        this.humps = humpKeys.build();
+
+        this.trigrams = trigramIds.keys();
+        Arrays.sort(trigrams);
+        this.postings = new int[trigrams.length][];
+        for (int k = 0; k < trigrams.length; k++) postings[k] = lists.get(trigramIds.get(trigrams[k])).toArray();
+
+        Integer[] order = new Integer[n];
+        for (int o = 0; o < n; o++) order[o] = o;
+        Arrays.sort(order, Comparator.comparingInt((Integer o) -> -cost[o])
+                .thenComparingInt(o -> -complexity[o])
+                .thenComparingInt(o -> length[o])
+                .thenComparingInt(o -> o));
+        this.byRank = new int[n];
+        this.rankOf = new int[n];
+        for (int r = 0; r < n; r++) {
+            byRank[r] = order[r];
+            rankOf[order[r]] = r;
+        }
+    }
+
+    public static NameSearchIndex build(AdjacencyIndex index) {
+        return new NameSearchIndex(index);
+    }
+
+    /**
+     * Matches of {@code query} ranked by cost, skipping {@code offset} and returning at most {@code limit}.
+     * {@code level} (optional) restricts matches to one node level. Substring search needs at least three
+     * characters; shorter substring queries are answered as prefix queries.
+     */
+    public Page search(String query, Mode mode, NodeLevel level, int offset, int limit) {
+        String q = query == null ? "" : query.strip();
+        if (q.isEmpty()) return new Page(0, new int[0]);
+        String lower = lower(q);
+        IntPredicate accept = level == null ? o -> true : o -> this.level[o] == level.ordinal();
+        BitSet first = new BitSet(byRank.length);
+        BitSet second = new BitSet(byRank.length);
+        boolean substring = (mode == Mode.AUTO || mode == Mode.SUBSTRING) && lower.length() >= 3;
+        if (mode == Mode.AUTO || mode == Mode.PREFIX || mode == Mode.SUBSTRING && !substring) {
+            names.collect(lower, accept, rankOf, first);
+        }
+        if (mode == Mode.AUTO || mode == Mode.CAMEL) camel(q, accept, first);
+        if (substring) substring(lower, accept, second);
+        second.andNot(first);
+
+        int total = first.cardinality() + second.cardinality();
+        int[] page = new int[Math.max(0, Math.min(limit, total - offset))];
+        int skipped = 0, filled = 0;
+        for (BitSet tier : List.of(first, second)) {
+            for (int r = tier.nextSetBit(0); r >= 0 && filled < page.length; r = tier.nextSetBit(r + 1)) {
+                if (skipped++ < offset) continue;
+                page[filled++] = byRank[r];
+            }
+        }
+        return new Page(total, page);
+    }
+
+    public long estimatedBytes() {
+        long bytes = names.estimatedBytes() + humps.estimatedBytes() + 8L * trigrams.length + 9L * byRank.length;
+        for (int[] p : postings) bytes += 16 + 4L * p.length;
+        return bytes;
+    }
+
+    private void camel(String query, IntPredicate accept, BitSet out) {
+        List<String> queryHumps = queryHumps(query);
+        if (queryHumps.isEmpty()) return;
+        boolean verify = queryHumps.stream().anyMatch(h -> h.length() > 1);
+        humps.collect(initials(queryHumps), o -> accept.test(o) && (!verify || camelMatches(o, queryHumps)), rankOf, out);
+    }
+
+    private boolean camelMatches(int ordinal, List<String> queryHumps) {
+        SnapshotColumns columns = index.columns();
+        GraphNode node = columns == null ? index.node(ordinal) : null;
+        return humpsMatch(humps(columns != null ? columns.displayName(ordinal) : node.displayName()), queryHumps)
+                || humpsMatch(humps(columns != null ? columns.methodName(ordinal) : node.methodName()), queryHumps);
+    }
+
+    private static boolean humpsMatch(List<String> word, List<String> query) {
+        if (word.size() < query.size()) return false;
+        for (int k = 0; k < query.size(); k++) {
+            if (!word.get(k).regionMatches(true, 0, query.get(k), 0, query.get(k).length())) return false;
+        }
+        return true;
+    }
+
+    private void substring(String query, IntPredicate accept, BitSet out) {
+        int[][] lists = new int[query.length() - 2][];
+        for (int k = 0; k < lists.length; k++) {
+            int at = Arrays.binarySearch(trigrams, trigram(query, k));
+            if (at < 0) return;
+            lists[k] = postings[at];
+        }
+        Arrays.sort(lists, Comparator.comparingInt(l -> l.length));
+        int[] candidates = lists[0];
+        for (int k = 1; k < lists.length && candidates.length > 0; k++) candidates = intersect(candidates, lists[k]);
+        // a three-letter query is a single trigram: its posting list is the answer
+        boolean verify = query.length() > 3;
+        for (int o : candidates) {
+            if (accept.test(o) && (!verify || text(o).contains(query))) out.set(rankOf[o]);
+        }
+    }
+
+    /** Merge intersection of two ascending arrays. */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Searchable text of a candidate, rebuilt per check rather than kept for every node; only nodes that survive
+     * the trigram intersection are verified.
+     */
+    private String text(int ordinal) {
+        SnapshotColumns columns = index.columns();
+        if (columns != null)
+            return text(columns.displayName(ordinal), columns.className(ordinal), columns.methodName(ordinal),
+                    columns.signature(ordinal));
+        GraphNode node = index.node(ordinal);
+        return text(node.displayName(), node.className(), node.methodName(), node.signature());
+    }
+
+    /** Lower-case searchable text; fields are separated by a character no query contains. */
+    private static String text(String displayName, String className, String methodName, String signature) {
+        return lower(displayName) + '\0' + lower(className) + '\0' + lower(methodName) + '\0' + lower(signature);
+    }
+
+    private static long trigram(String s, int at) {
+        return ((long) s.charAt(at) << 32) | ((long) s.charAt(at + 1) << 16) | s.charAt(at + 2);
+    }
+
+    /** Humps of an identifier: split at separators and at an upper-case letter following a lower-case one. */
+    private static List<String> humps(String s) {
+        List<String> humps = new ArrayList<>();
+        if (s == null) return humps;
+        int start = -1;
+        for (int k = 0; k < s.length(); k++) {
+            char c = s.charAt(k);
+            if (!Character.isLetterOrDigit(c)) {
+                if (start >= 0) humps.add(s.substring(start, k));
+                start = -1;
+            } else if (start < 0) {
+                start = k;
+            } else if (Character.isUpperCase(c) && !Character.isUpperCase(s.charAt(k - 1))) {
+                humps.add(s.substring(start, k));
+                start = k;
+            }
+        }
+        if (start >= 0) humps.add(s.substring(start));
+        return humps;
+    }
+
+    /**
+     * Humps of a query: every upper-case letter starts one ({@code HSC} is three humps). An all-lower-case query
+     * without separators abbreviates one hump per letter.
+     */
+    private static List<String> queryHumps(String q) {
+        boolean lowerOnly = q.chars().allMatch(c -> Character.isLetterOrDigit(c) && !Character.isUpperCase(c));
+        List<String> humps = new ArrayList<>();
+        int start = -1;
+        for (int k = 0; k < q.length(); k++) {
+            char c = q.charAt(k);
+            if (!Character.isLetterOrDigit(c)) {
+                if (start >= 0) humps.add(q.substring(start, k));
+                start = -1;
+            } else if (start < 0) {
+                start = k;
+            } else if (lowerOnly || Character.isUpperCase(c)) {
+                humps.add(q.substring(start, k));
+                start = k;
+            }
+        }
+        if (start >= 0) humps.add(q.substring(start));
+        return humps;
+    }
+
+    private static String initials(List<String> humps) {
+        StringBuilder sb = new StringBuilder(humps.size());
+        for (String h : humps) sb.append(Character.toLowerCase(h.charAt(0)));
+        return sb.toString();
+    }
+
+    private static String simpleName(String qualified) {
+        return qualified == null ? null : qualified.substring(qualified.lastIndexOf('.') + 1);
+    }
+
+    private static String lower(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    /** Sorted distinct keys, each with the ascending ordinals of the nodes carrying it. */
+    private static final class KeyTable {
+        private final String[] keys;
+        private final int[] offsets;
+        private final int[] ordinals;
+
+        private KeyTable(String[] keys, int[] offsets, int[] ordinals) {
+            this.keys = keys;
+            this.offsets = offsets;
+            this.ordinals = ordinals;
+        }
+
+        /** Sets {@code rankOf[o]} in {@code out} for every accepted node with a key starting with {@code prefix}. */
+        void collect(String prefix, IntPredicate accept, int[] rankOf, BitSet out) {
+            int lo = 0, hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(prefix) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            for (int k = lo; k < keys.length && keys[k].startsWith(prefix); k++) {
+                for (int j = offsets[k]; j < offsets[k + 1]; j++) {
+                    int o = ordinals[j];
+                    if (accept.test(o)) out.set(rankOf[o]);
+                }
+            }
+        }
+
+        long estimatedBytes() {
+            long bytes = 4L * offsets.length + 4L * ordinals.length + 16;
+            for (String k : keys) bytes += 48 + k.length();
+            return bytes;
+        }
+
+        static final class Builder {
+            private final Map<String, IntList> byKey = new HashMap<>();
+
+            void add(String key, int ordinal) {
+                if (key.isEmpty()) return;
+                IntList list = byKey.computeIfAbsent(key, k -> new IntList());
+                // a node may carry the same key twice (display name equal to the method name)
+                if (list.size == 0 || list.items[list.size - 1] != ordinal) list.add(ordinal);
+            }
+
+            KeyTable build() {
+                String[] keys = byKey.keySet().toArray(new String[0]);
+                Arrays.sort(keys);
+                int[] offsets = new int[keys.length + 1];
+                for (int k = 0; k < keys.length; k++) offsets[k + 1] = offsets[k] + byKey.get(keys[k]).size;
+                int[] ordinals = new int[offsets[keys.length]];
+                for (int k = 0; k < keys.length; k++) {
+                    IntList list = byKey.get(keys[k]);
+                    System.arraycopy(list.items, 0, ordinals, offsets[k], list.size);
+                }
+                return new KeyTable(keys, offsets, ordinals);
+            }
+        }
+    }
+
+    /** Open-addressing map from trigram code to id; codes are at most 48 bits, so -1 marks a free slot. */
+    private static final class LongIntMap {
+        private long[] keys = new long[1 << 12];
+        private int[] values = new int[1 << 12];
+        private int size;
+
+        LongIntMap() {
+            Arrays.fill(keys, -1);
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+                if (keys[i] == -1) return -1;
+            }
+        }
+
+        void put(long key, int value) {
+            if (2 * (size + 1) > keys.length) rehash();
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != -1 && keys[i] != key) i = (i + 1) & mask;
+            if (keys[i] == -1) size++;
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        long[] keys() {
+            long[] out = new long[size];
+            int n = 0;
+            for (long k : keys) if (k != -1) out[n++] = k;
+            return out;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, -1);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) if (oldKeys[i] != -1) put(oldKeys[i], oldValues[i]);
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    private static final class IntList {
+        int[] items = new int[4];
+        int size;
+
+        void add(int v) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.belmonttech.graph.model.index;
+
+import com.belmonttech.graph.model.EdgeType;
+import com.belmonttech.graph.model.columnar.SnapshotColumns;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Transitive callers or callees of a node over an {@link AdjacencyIndex}. The BFS keeps its visited set and
+ * frontiers as {@code long[]} bit sets, so per level the bookkeeping ({@code next &= ~visited},
+ * {@code visited |= next}) is one pass over the words rather than one test per edge. Only the set bits of the
+ * frontier are expanded, and only the word range the frontier spans is swept.
+ */
+public final class Reachability {
+
+    public enum Direction {
+        /** Follow edges backwards: everything that can reach the start node. */
+        CALLERS,
+        /** Follow edges forwards: everything the start node can reach. */
+        CALLEES
+    }
+
+    /**
+     * Nodes reached from {@code start} (included in {@code reached}); {@code depth} is the number of levels
+     * expanded and {@code complete} tells whether the walk ran out of nodes rather than hitting the depth bound.
+     */
+    public record Result(int start, BitSet reached, int depth, boolean complete) {
+
+        /** Reached nodes besides the start node. */
+        public int count() {
+            return reached.cardinality() - 1;
+        }
+    }
+
+    private Reachability() {}
+
+    /**
+     * @param type     edge type to follow, or null for all
+     * @param maxDepth levels to expand; {@code <= 0} for the full closure
+     * @param minCost  nodes cheaper than this are neither reported nor walked through (the start node is)
+     */
+    public static Result closure(AdjacencyIndex index, int start, Direction direction, EdgeType type,
+                                 int maxDepth, int minCost) {
+        int n = index.nodeCount();
+        int words = (n + 63) >>> 6;
+        long[] visited = new long[words];
+        long[] frontier = new long[words];
+        long[] next = new long[words];
+        visited[start >>> 6] |= 1L << start;
+        frontier[start >>> 6] |= 1L << start;
+        SnapshotColumns columns = index.columns();
+        boolean callers = direction == Direction.CALLERS;
+        int limit = maxDepth <= 0 ? Integer.MAX_VALUE : maxDepth;
+
+        // word range holding the frontier; deep narrow walks then never sweep the whole graph per level
+        int lo = start >>> 6, hi = lo;
+        int depth = 0;
+        boolean more = true;
+        while (more && depth < limit) {
+            // a query executor interrupts timed-out queries
+            if (Thread.currentThread().isInterrupted()) throw new CancellationException("Reachability query cancelled");
+            int nextLo = words, nextHi = -1;
+            for (int w = lo; w <= hi; w++) {
+                long bits = frontier[w];
+                while (bits != 0) {
+                    int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    int from = callers ? index.inStart(u) : index.outStart(u);
+                    int to = callers ? index.inEnd(u) : index.outEnd(u);
+                    for (int k = from; k < to; k++) {
+                        int e = callers ? index.inEdgeAt(k) : index.outEdgeAt(k);
+                        int v = callers ? index.source(e) : index.target(e);
+                        if ((visited[v >>> 6] & (1L << v)) != 0) continue;
+                        if (type != null && type != (columns != null ? columns.edgeType(e) : index.edge(e).type())) continue;
+                        if (minCost > 0 && (columns != null ? columns.cost(v) : index.node(v).cost()) < minCost) continue;
+                        next[v >>> 6] |= 1L << v;
+                        nextLo = Math.min(nextLo, v >>> 6);
+                        nextHi = Math.max(nextHi, v >>> 6);
+                    }
+                }
+            }
+            more = false;
+            Arrays.fill(frontier, lo, hi + 1, 0L);
+            for (int w = nextLo; w <= nextHi; w++) {
+                long fresh = next[w] & ~visited[w];
+                visited[w] |= fresh;
+                frontier[w] = fresh;
+                next[w] = 0;
+                more |= fresh != 0;
+            }
+            lo = nextLo;
+            hi = nextHi;
+            if (more) depth++;
+        }
+        return new Result(start, BitSet.valueOf(visited), depth, !more);
+    }
+}
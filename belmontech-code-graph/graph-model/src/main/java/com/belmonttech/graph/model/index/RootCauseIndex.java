@@ -0,0 +1,235 @@
+package com.belmonttech.graph.model.index;
+
+import com.belmonttech.graph.model.EdgeType;
+import com.belmonttech.graph.model.columnar.SnapshotColumns;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed answers to "why is this node that expensive?". The analyzer propagates cost up the call graph (a
+ * caller is at least as expensive as its callees), so a node of cost {@code c} reaches, through INVOCATION
+ * callees of the same cost, the nodes where {@code c} originates: its <em>root causes</em>, which have no
+ * callee of their own cost (typically the DB or REST call).
+ * <p>
+ * For every node the index keeps the distance to its nearest root cause and two successor pointers: one on a
+ * shortest path, and one on the heaviest of the shortest paths (largest summed call weight). A root-cause path is
+ * then a pointer walk. Nodes on a same-cost cycle with no way out count as their own root causes.
+ * <p>
+ * {@link #shortestPath} answers the general question (any INVOCATION path between two nodes) with a
+ * bidirectional BFS over the adjacency index.
+ */
+public final class RootCauseIndex {
+
+    private final AdjacencyIndex index;
+    private final BitSet invocation;
+    private final int[] cost;
+    private final int[] distance;
+    private final int[] next;
+    private final int[] heavyNext;
+
+    private RootCauseIndex(AdjacencyIndex index) {
+        this.index = index;
+        int n = index.nodeCount();
+        int m = index.edgeCount();
+        SnapshotColumns columns = index.columns();
+        this.cost = new int[n];
+        this.invocation = new BitSet(m);
+        for (int i = 0; i < n; i++) cost[i] = columns != null ? columns.cost(i) : index.node(i).cost();
+        for (int e = 0; e < m; e++) {
+            if (EdgeType.INVOCATION == (columns != null ? columns.edgeType(e) : index.edge(e).type())) invocation.set(e);
+        }
+
+        this.distance = new int[n];
+        this.next = new int[n];
+        this.heavyNext = new int[n];
+        Arrays.fill(distance, -1);
+        Arrays.fill(next, -1);
+        Arrays.fill(heavyNext, -1);
+        boolean[] root = new boolean[n];
+        IntStream.range(0, n).parallel().forEach(i -> root[i] = !hasSameCostCallee(i));
+
+        // multi-source BFS backwards from all root causes; edges only ever join nodes of equal cost
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for (int i = 0; i < n; i++) {
+            if (root[i]) {
+                distance[i] = 0;
+                queue[tail++] = i;
+            }
+        }
+        while (head < tail) {
+            int v = queue[head++];
+            for (int k = index.inStart(v); k < index.inEnd(v); k++) {
+                int e = index.inEdgeAt(k);
+                int u = index.source(e);
+                if (distance[u] >= 0 || !invocation.get(e) || cost[u] != cost[v]) continue;
+                distance[u] = distance[v] + 1;
+                next[u] = v;
+                queue[tail++] = u;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (distance[i] < 0) {
+                distance[i] = 0;
+                queue[tail++] = i;
+            }
+        }
+
+        // BFS order visits every node after all nodes one step closer to a root cause
+        long[] weight = new long[n];
+        for (int q = 0; q < n; q++) {
+            int u = queue[q];
+            if (distance[u] == 0) continue;
+            long best = -1;
+            for (int k = index.outStart(u); k < index.outEnd(u); k++) {
+                int e = index.outEdgeAt(k);
+                int v = index.target(e);
+                if (!invocation.get(e) || cost[v] != cost[u] || distance[v] != distance[u] - 1) continue;
+                long w = weight[v] + Math.max(1, edgeWeight(e));
+                if (w > best) {
+                    best = w;
+                    heavyNext[u] = v;
+                }
+            }
+            weight[u] = best;
+        }
+    }
+
+    public static RootCauseIndex build(AdjacencyIndex index) {
+        return new RootCauseIndex(index);
+    }
+
+    public AdjacencyIndex index() {
+        return index;
+    }
+
+    public boolean isInvocation(int edge) {
+        return invocation.get(edge);
+    }
+
+    public boolean isRootCause(int ordinal) {
+        return distance[ordinal] == 0;
+    }
+
+    /** INVOCATION hops from {@code ordinal} to its nearest root cause. */
+    public int distance(int ordinal) {
+        return distance[ordinal];
+    }
+
+    public int rootCause(int ordinal) {
+        int o = ordinal;
+        while (distance[o] > 0) o = next[o];
+        return o;
+    }
+
+    /** Ordinals from {@code ordinal} to a nearest root cause, both included. */
+    public int[] path(int ordinal, boolean heaviest) {
+        int[] path = new int[distance[ordinal] + 1];
+        int o = ordinal;
+        for (int k = 0; k < path.length; k++) {
+            path[k] = o;
+            if (k + 1 < path.length) o = heaviest ? heavyNext[o] : next[o];
+        }
+        return path;
+    }
+
+    /**
+     * Up to {@code limit} paths from {@code ordinal} to distinct root causes: the pointer path first, then one
+     * through each other same-cost callee (closest first; heaviest call first on ties) whose root cause is not covered yet.
+     */
+    public List<int[]> paths(int ordinal, int limit, boolean heaviest) {
+        List<int[]> paths = new ArrayList<>();
+        if (limit <= 0) return paths;
+        int[] first = path(ordinal, heaviest);
+        paths.add(first);
+        Set<Integer> roots = new HashSet<>();
+        roots.add(first[first.length - 1]);
+        Map<Integer, Integer> callees = new HashMap<>();
+        for (int k = index.outStart(ordinal); k < index.outEnd(ordinal); k++) {
+            int e = index.outEdgeAt(k);
+            int v = index.target(e);
+            if (invocation.get(e) && v != ordinal && cost[v] == cost[ordinal]) callees.merge(v, edgeWeight(e), Math::max);
+        }
+        Comparator<Integer> order = Comparator.comparingInt((Integer v) -> distance[v]);
+        if (heaviest) order = order.thenComparing(callees::get, Comparator.reverseOrder());
+        List<Integer> sorted = new ArrayList<>(callees.keySet());
+        sorted.sort(order.thenComparingInt(v -> v));
+        for (int v : sorted) {
+            if (paths.size() >= limit) break;
+            int[] tail = path(v, heaviest);
+            if (!roots.add(tail[tail.length - 1])) continue;
+            int[] p = new int[tail.length + 1];
+            p[0] = ordinal;
+            System.arraycopy(tail, 0, p, 1, tail.length);
+            paths.add(p);
+        }
+        return paths;
+    }
+
+    /**
+     * Shortest INVOCATION path from {@code from} to {@code to} (ordinals, both included), or null if there is none
+     * within {@code maxDepth} hops. Searches forward from {@code from} and backward from {@code to}, always
+     * expanding the smaller frontier, so it touches roughly the square root of what a one-sided BFS would.
+     */
+    public int[] shortestPath(int from, int to, int maxDepth) {
+        if (from == to) return new int[] { from };
+        Map<Integer, Integer> forward = new HashMap<>();
+        Map<Integer, Integer> backward = new HashMap<>();
+        forward.put(from, -1);
+        backward.put(to, -1);
+        List<Integer> fFrontier = new ArrayList<>(List.of(from));
+        List<Integer> bFrontier = new ArrayList<>(List.of(to));
+        for (int depth = 0; depth < maxDepth && !fFrontier.isEmpty() && !bFrontier.isEmpty(); depth++) {
+            boolean expandForward = fFrontier.size() <= bFrontier.size();
+            List<Integer> frontier = expandForward ? fFrontier : bFrontier;
+            Map<Integer, Integer> seen = expandForward ? forward : backward;
+            Map<Integer, Integer> other = expandForward ? backward : forward;
+            List<Integer> grown = new ArrayList<>();
+            int meet = -1;
+            for (int u : frontier) {
+                int start = expandForward ? index.outStart(u) : index.inStart(u);
+                int end = expandForward ? index.outEnd(u) : index.inEnd(u);
+                for (int k = start; k < end && meet < 0; k++) {
+                    int e = expandForward ? index.outEdgeAt(k) : index.inEdgeAt(k);
+                    if (!invocation.get(e)) continue;
+                    int v = expandForward ? index.target(e) : index.source(e);
+                    if (seen.containsKey(v)) continue;
+                    seen.put(v, u);
+                    if (other.containsKey(v)) meet = v;
+                    grown.add(v);
+                }
+                if (meet >= 0) break;
+            }
+            if (meet >= 0) return join(forward, backward, meet);
+            if (expandForward) fFrontier = grown;
+            else bFrontier = grown;
+        }
+        return null;
+    }
+
+    public long estimatedBytes() {
+        return 12L * distance.length + 4L * cost.length + invocation.size() / 8 + 64;
+    }
+
+    private static int[] join(Map<Integer, Integer> forward, Map<Integer, Integer> backward, int meet) {
+        Deque<Integer> path = new ArrayDeque<>();
+        for (int o = meet; o >= 0; o = forward.get(o)) path.addFirst(o);
+        for (int o = backward.get(meet); o >= 0; o = backward.get(o)) path.addLast(o);
+        return path.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private boolean hasSameCostCallee(int u) {
+        for (int k = index.outStart(u); k < index.outEnd(u); k++) {
+            int e = index.outEdgeAt(k);
+            int v = index.target(e);
+            if (v != u && invocation.get(e) && cost[v] == cost[u]) return true;
+        }
+        return false;
+    }
+
+    private int edgeWeight(int e) {
+        SnapshotColumns columns = index.columns();
+        return columns != null ? columns.edgeWeight(e) : index.edge(e).weight();
+    }
+}
@@ -0,0 +1,255 @@
+package com.belmonttech.graph.model.io;
+
+import com.belmonttech.graph.model.*;
+import com.belmonttech.graph.model.columnar.SnapshotColumns;
+import com.belmonttech.graph.model.index.AdjacencyIndex;
+import com.belmonttech.graph.model.normalize.EdgeNormalizer;
+import com.belmonttech.graph.model.progress.ProgressListener;
+import com.belmonttech.graph.model.progress.ProgressReporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Binary snapshot format ({@code .cgb}) meant to be memory-mapped and read in place. Opening a file validates
+ * the header and returns a view over the mapping, so start-up cost no longer grows with the graph; records
+ * and strings are decoded on access.
+ * <p>
+ * Layout (big-endian, all sections 4-byte aligned, offsets relative to the start of the file):
+ * <pre>
+ * header      magic "CGB1", version, nodeCount, edgeCount, stringCount, hashCapacity, section offsets
+ * strings     int[stringCount + 1] byte offsets into the UTF-8 data that follows (string -1 = null)
+ * nodes       int columns of nodeCount: id, level, displayName, package, class, method, signature, cost,
+ *             complexity, flags (bit 0 = hotspot)
+ * edges       int columns of edgeCount: id, source ordinal, target ordinal, sourceId, targetId, type, weight
+ * adjacency   outOffsets[nodeCount + 1], outEdges, inOffsets[nodeCount + 1], inEdges (AdjacencyIndex layout)
+ * id hash     int[hashCapacity] open-addressing table of ordinal + 1 keyed by the id's String.hashCode()
+ * </pre>
+ * Enum columns hold the ordinal or -1 for null. Files are limited to 2 GB (one mapping). Replace a mapped file
+ * by writing a new one and renaming it over the old; truncating it in place breaks readers that still map it.
+ * <p>
+ * Edges are run through {@link EdgeNormalizer} before they are written, so a mapped file can be indexed as it is
+ * without copying its edges onto the heap to clean them up. Dangling edges are always kept: their missing endpoint
+ * is stored as ordinal -1 with its id, so calls out of the report survive for a later merge to resolve, and the
+ * index leaves them unlinked.
+ */
+public class BinarySnapshotSerializer implements ISerializer {
+
+    static final int MAGIC = 0x43474231; // "CGB1"
+    static final int VERSION = 1;
+
+    static final int NODE_COLUMNS = 10;
+    static final int N_ID = 0, N_LEVEL = 1, N_DISPLAY = 2, N_PACKAGE = 3, N_CLASS = 4, N_METHOD = 5,
+            N_SIGNATURE = 6, N_COST = 7, N_COMPLEXITY = 8, N_FLAGS = 9;
+    static final int EDGE_COLUMNS = 7;
+    static final int E_ID = 0, E_SOURCE = 1, E_TARGET = 2, E_SOURCE_ID = 3, E_TARGET_ID = 4, E_TYPE = 5,
+            E_WEIGHT = 6;
+    static final int FLAG_HOTSPOT = 1;
+
+    // header: 6 ints, then section offsets
+    static final int SECTIONS = 9;
+    static final int S_STRING_INDEX = 0, S_STRING_DATA = 1, S_NODES = 2, S_EDGES = 3, S_OUT_OFFSETS = 4,
+            S_OUT_EDGES = 5, S_IN_OFFSETS = 6, S_IN_EDGES = 7, S_HASH = 8;
+    static final int HEADER_BYTES = 6 * 4 + SECTIONS * 4;
+
+    private final EdgeNormalizer.Options normalize;
+
+    public BinarySnapshotSerializer() {
+        this(EdgeNormalizer.Options.DEFAULT);
+    }
+
+    /**
+     * {@code normalize} is applied to every written snapshot, except that dangling edges are never dropped; null
+     * writes edges as they are.
+     */
+    public BinarySnapshotSerializer(EdgeNormalizer.Options normalize) {
+        this.normalize = normalize == null ? null
+                : new EdgeNormalizer.Options(normalize.mergeParallel(), false, normalize.removeSelfLoops());
+    }
+
+    @Override
+    public GraphSnapshot deserialize(byte[] raw) throws Exception {
+        return deserialize(ByteBuffer.wrap(raw));
+    }
+
+    @Override
+    public GraphSnapshot deserialize(ByteBuffer data) {
+        return SnapshotColumns.asSnapshot(new MappedColumns(data));
+    }
+
+    @Override
+    public boolean readsInPlace() {
+        return true;
+    }
+
+    @Override
+    public void serialize(GraphSnapshot s, OutputStream out) throws Exception {
+        serialize(s, out, null);
+    }
+
+    /** Reports bytes written; the total is known once the layout has been computed. */
+    @Override
+    public void serialize(GraphSnapshot snapshot, OutputStream out, ProgressListener listener) throws Exception {
+        GraphSnapshot s = normalize == null ? snapshot : EdgeNormalizer.normalize(snapshot, normalize).snapshot();
+        int n = s.nodes().size();
+        int m = s.edges().size();
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        Map<String, Integer> ordinals = new HashMap<>(Math.max(16, (int) (n / 0.75f) + 1));
+
+        int[][] nodeCols = new int[NODE_COLUMNS][n];
+        String[] ids = new String[n];
+        int i = 0;
+        for (Map.Entry<String, GraphNode> entry : s.nodes().entrySet()) {
+            GraphNode node = entry.getValue();
+            ordinals.put(entry.getKey(), i);
+            ids[i] = entry.getKey();
+            nodeCols[N_ID][i] = intern(entry.getKey(), dictionary, strings);
+            nodeCols[N_LEVEL][i] = node.level() == null ? -1 : node.level().ordinal();
+            nodeCols[N_DISPLAY][i] = intern(node.displayName(), dictionary, strings);
+            nodeCols[N_PACKAGE][i] = intern(node.packageName(), dictionary, strings);
+            nodeCols[N_CLASS][i] = intern(node.className(), dictionary, strings);
+            nodeCols[N_METHOD][i] = intern(node.methodName(), dictionary, strings);
+            nodeCols[N_SIGNATURE][i] = intern(node.signature(), dictionary, strings);
+            nodeCols[N_COST][i] = node.cost();
+            nodeCols[N_COMPLEXITY][i] = node.complexity();
+            nodeCols[N_FLAGS][i] = node.hotspot() ? FLAG_HOTSPOT : 0;
+            i++;
+        }
+
+        int[][] edgeCols = new int[EDGE_COLUMNS][m];
+        int e = 0;
+        for (GraphEdge edge : s.edges()) {
+            Integer src = edge.sourceId() == null ? null : ordinals.get(edge.sourceId());
+            Integer tgt = edge.targetId() == null ? null : ordinals.get(edge.targetId());
+            edgeCols[E_ID][e] = intern(edge.id(), dictionary, strings);
+            edgeCols[E_SOURCE][e] = src == null ? -1 : src;
+            edgeCols[E_TARGET][e] = tgt == null ? -1 : tgt;
+            edgeCols[E_SOURCE_ID][e] = intern(edge.sourceId(), dictionary, strings);
+            edgeCols[E_TARGET_ID][e] = intern(edge.targetId(), dictionary, strings);
+            edgeCols[E_TYPE][e] = edge.type() == null ? -1 : edge.type().ordinal();
+            edgeCols[E_WEIGHT][e] = edge.weight();
+            e++;
+        }
+        int[][] csr = AdjacencyIndex.csr(n, edgeCols[E_SOURCE], edgeCols[E_TARGET]);
+
+        int hashCapacity = hashCapacity(n);
+        int[] hash = new int[hashCapacity];
+        for (int o = 0; o < n; o++) {
+            int slot = slot(ids[o], hashCapacity);
+            while (hash[slot] != 0) slot = (slot + 1) & (hashCapacity - 1);
+            hash[slot] = o + 1;
+        }
+
+        int[] stringIndex = new int[strings.size() + 1];
+        for (int k = 0; k < strings.size(); k++) stringIndex[k + 1] = stringIndex[k] + strings.get(k).length;
+        int stringData = align(stringIndex[strings.size()]);
+
+        long[] sections = new long[SECTIONS];
+        sections[S_STRING_INDEX] = HEADER_BYTES;
+        sections[S_STRING_DATA] = sections[S_STRING_INDEX] + 4L * stringIndex.length;
+        sections[S_NODES] = sections[S_STRING_DATA] + stringData;
+        sections[S_EDGES] = sections[S_NODES] + 4L * NODE_COLUMNS * n;
+        sections[S_OUT_OFFSETS] = sections[S_EDGES] + 4L * EDGE_COLUMNS * m;
+        sections[S_OUT_EDGES] = sections[S_OUT_OFFSETS] + 4L * csr[0].length;
+        sections[S_IN_OFFSETS] = sections[S_OUT_EDGES] + 4L * csr[1].length;
+        sections[S_IN_EDGES] = sections[S_IN_OFFSETS] + 4L * csr[2].length;
+        sections[S_HASH] = sections[S_IN_EDGES] + 4L * csr[3].length;
+        long end = sections[S_HASH] + 4L * hashCapacity;
+        if (end > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Snapshot too large for the binary format: " + end + " bytes");
+
+        IntWriter w = new IntWriter(out, new ProgressReporter("Writing", end, listener));
+        w.write(MAGIC);
+        w.write(VERSION);
+        w.write(n);
+        w.write(m);
+        w.write(strings.size());
+        w.write(hashCapacity);
+        for (long section : sections) w.write((int) section);
+        w.write(stringIndex);
+        for (byte[] b : strings) w.write(b);
+        w.pad(stringData - stringIndex[strings.size()]);
+        for (int[] col : nodeCols) w.write(col);
+        for (int[] col : edgeCols) w.write(col);
+        for (int[] part : csr) w.write(part);
+        w.write(hash);
+        w.flush();
+        w.progress.finish();
+    }
+
+    static int hashCapacity(int nodeCount) {
+        return Integer.highestOneBit(Math.max(2, nodeCount) * 2 - 1) << 1;
+    }
+
+    static int slot(String id, int capacity) {
+        int h = id.hashCode();
+        return (h ^ (h >>> 16)) & (capacity - 1);
+    }
+
+    private static int intern(String value, Map<String, Integer> dictionary, List<byte[]> strings) {
+        if (value == null) return -1;
+        Integer existing = dictionary.get(value);
+        if (existing != null) return existing;
+        int id = strings.size();
+        dictionary.put(value, id);
+        strings.add(value.getBytes(StandardCharsets.UTF_8));
+        return id;
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 3) & ~3;
+    }
+
+    /** Big-endian int and byte writer with its own buffer, so columns are not written an int at a time. */
+    private static final class IntWriter {
+        private final OutputStream out;
+        private final ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+        final ProgressReporter progress;
+
+        IntWriter(OutputStream out, ProgressReporter progress) {
+            this.out = out;
+            this.progress = progress;
+        }
+
+        void write(int v) throws IOException {
+            if (buf.remaining() < 4) drain();
+            buf.putInt(v);
+        }
+
+        void write(int[] values) throws IOException {
+            for (int v : values) write(v);
+        }
+
+        void write(byte[] bytes) throws IOException {
+            if (buf.remaining() < bytes.length) drain();
+            if (bytes.length > buf.capacity()) {
+                out.write(bytes);
+                progress.step(bytes.length);
+                return;
+            }
+            buf.put(bytes);
+        }
+
+        void pad(int count) throws IOException {
+            for (int k = 0; k < count; k++) {
+                if (!buf.hasRemaining()) drain();
+                buf.put((byte) 0);
+            }
+        }
+
+        void flush() throws IOException {
+            drain();
+            out.flush();
+        }
+
+        private void drain() throws IOException {
+            out.write(buf.array(), 0, buf.position());
+            progress.step(buf.position());
+            buf.clear();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.belmonttech.graph.model.io;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/** Reads a {@link ByteBuffer} (typically a memory-mapped file or a slice of one) without copying it to the heap. */
+public class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buf;
+
+    public ByteBufferInputStream(ByteBuffer buf) {
+        this.buf = buf.slice();
+    }
+
+    @Override
+    public int read() {
+        return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) return 0;
+        if (!buf.hasRemaining()) return -1;
+        int n = Math.min(len, buf.remaining());
+        buf.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        int k = (int) Math.max(0, Math.min(n, buf.remaining()));
+        buf.position(buf.position() + k);
+        return k;
+    }
+
+    @Override
+    public int available() {
+        return buf.remaining();
+    }
+}
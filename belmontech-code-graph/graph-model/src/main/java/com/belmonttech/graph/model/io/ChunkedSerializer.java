@@ -0,0 +1,29 @@
+package com.belmonttech.graph.model.io;
+
+import com.belmonttech.graph.model.GraphSnapshot;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * A serializer whose format can be cut at record boundaries into byte ranges that parse independently.
+ * {@link DataLoader} maps the file, asks for the ranges, parses them concurrently and hands the per-chunk
+ * results back for a single merge.
+ *
+ * @param <P> per-chunk parse result (node and edge buffers plus whatever the merge needs)
+ */
+public interface ChunkedSerializer<P> extends ISerializer {
+
+    /**
+     * Splits {@code data} into about {@code targetChunks} {@code int[]{start, end, ...}} ranges, in file order;
+     * elements after {@code end} are the serializer's own tags. Returns an empty list if the input cannot be split
+     * safely; the caller then parses sequentially.
+     */
+    List<int[]> split(ByteBuffer data, int targetChunks);
+
+    /** Parses {@code chunk}, the bytes of {@code range}; called concurrently for different ranges. */
+    P parseChunk(ByteBuffer chunk, int[] range, int chunkIndex) throws Exception;
+
+    /** Merges the chunk results (in range order) and resolves anything that crosses chunk boundaries. */
+    GraphSnapshot merge(List<P> parts);
+}
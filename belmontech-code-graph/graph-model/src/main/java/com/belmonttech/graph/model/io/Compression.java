@@ -0,0 +1,80 @@
+package com.belmonttech.graph.model.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.*;
+
+/**
+ * Streaming compression layers that wrap any serializer. A layer is chosen by the outer file extension
+ * ({@code report.toon.gz}) or, for input whose name does not say, by the first two bytes.
+ */
+public enum Compression {
+    NONE,
+    GZIP("gz", "gzip"),
+    /** zlib-wrapped deflate (RFC 1950), as written by {@link DeflaterOutputStream}. */
+    DEFLATE("deflate", "zz");
+
+    private static final int BUFFER = 1 << 16;
+
+    private final String[] extensions;
+
+    Compression(String... extensions) {
+        this.extensions = extensions;
+    }
+
+    /** Preferred file extension, without the dot; empty for {@link #NONE}. */
+    public String extension() {
+        return extensions.length == 0 ? "" : extensions[0];
+    }
+
+    /** The layer named by the last extension of {@code fileName}, or {@link #NONE}. */
+    public static Compression fromFileName(String fileName) {
+        if (fileName == null) return NONE;
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? NONE : fromExtension(fileName.substring(dot + 1));
+    }
+
+    public static Compression fromExtension(String ext) {
+        String e = ext.toLowerCase(Locale.ROOT);
+        for (Compression c : values()) {
+            for (String candidate : c.extensions) {
+                if (candidate.equals(e)) return c;
+            }
+        }
+        return NONE;
+    }
+
+    /** Detects gzip ({@code 1f 8b}) or a zlib header (CMF 0x78 with a valid check value). */
+    public static Compression sniff(int b0, int b1) {
+        if (b0 == 0x1f && b1 == 0x8b) return GZIP;
+        if (b0 == 0x78 && b1 >= 0 && ((b0 << 8) | b1) % 31 == 0) return DEFLATE;
+        return NONE;
+    }
+
+    /** Strips this layer's extension: {@code report.toon.gz} becomes {@code report.toon}. */
+    public String strip(String fileName) {
+        if (this == NONE || fileName == null) return fileName;
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? fileName : fileName.substring(0, dot);
+    }
+
+    /** Decompresses while the caller reads; nothing is inflated ahead into a buffer. */
+    public InputStream decode(InputStream in) throws IOException {
+        return switch (this) {
+            case NONE -> in;
+            case GZIP -> new GZIPInputStream(in, BUFFER);
+            case DEFLATE -> new InflaterInputStream(in, new Inflater(), BUFFER);
+        };
+    }
+
+    /** Compresses as the caller writes; closing the returned stream finishes the layer and closes {@code out}. */
+    public OutputStream encode(OutputStream out) throws IOException {
+        return switch (this) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, BUFFER);
+            case DEFLATE -> new DeflaterOutputStream(out, new Deflater(), BUFFER);
+        };
+    }
+}
@@ -1,14 +1,35 @@
 package com.belmonttech.graph.model.io;
 
 import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.progress.ProgressInputStream;
+import com.belmonttech.graph.model.progress.ProgressListener;
+import com.belmonttech.graph.model.progress.ProgressReporter;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import org.apache.commons.io.FilenameUtils;
 
 public class DataLoader {
+    /** Chunks per worker thread; a few more chunks than threads evens out uneven class blocks. */
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int BUFFER = 1 << 16;
+
     private final Map<String, ISerializer> serializers = new HashMap<>();
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long parallelThreshold = 8L << 20;
+    private volatile LoadObserver observer;
 
     public void registerSerializer(String ext, ISerializer s) {
         serializers.put(ext.toLowerCase(), s);
@@ -19,9 +40,183 @@ public class DataLoader {
         return serializer;
     }
 
+    /** True if {@code format} ({@code toon}, {@code json.gz} ...) names a registered serializer. */
+    public boolean supports(String format) {
+        return format != null && getSerializer(Compression.fromFileName(format).strip(format)) != null;
+    }
+
+    /** Serializer key plus compression suffix for a file name: {@code report.toon.gz} gives {@code toon.gz}. */
+    public static String formatOf(String fileName) {
+        if (fileName == null) return "";
+        Compression c = Compression.fromFileName(fileName);
+        String inner = FilenameUtils.getExtension(c.strip(fileName)).toLowerCase(Locale.ROOT);
+        return c == Compression.NONE ? inner : inner + "." + c.extension();
+    }
+
+    /** Worker threads for chunked loads; 1 disables parallel parsing. */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /** Files smaller than this are parsed sequentially; splitting them costs more than it saves. */
+    public void setParallelThreshold(long bytes) {
+        this.parallelThreshold = bytes;
+    }
+
+    /** Receives the format, size and duration of every subsequent load; null to stop observing. */
+    public void setLoadObserver(LoadObserver observer) {
+        this.observer = observer;
+    }
+
     public GraphSnapshot load(Path filePath) throws Exception {
-        byte[] raw = Files.readAllBytes(filePath);
-        ISerializer serializer = getSerializer(FilenameUtils.getExtension(filePath.toString()));
-        return serializer.deserialize(raw);
+        return load(filePath, null);
+    }
+
+    /**
+     * Loads a snapshot file without copying it to the heap. Files up to 2 GB are memory-mapped; large ones in a
+     * {@link ChunkedSerializer} format are also split at record boundaries and parsed on {@code parallelism}
+     * threads. Bigger files are streamed through a channel. Compressed files ({@code .toon.gz}, or any file that
+     * starts with a gzip/zlib header) are inflated while the serializer reads them. {@code listener} (optional)
+     * receives byte progress, in file bytes.
+     */
+    public GraphSnapshot load(Path filePath, ProgressListener listener) throws Exception {
+        long size = Files.isRegularFile(filePath) ? Files.size(filePath) : -1;
+        return observed(formatOf(filePath.getFileName().toString()), size, () -> loadFile(filePath, listener));
+    }
+
+    private GraphSnapshot loadFile(Path filePath, ProgressListener listener) throws Exception {
+        String name = filePath.getFileName().toString();
+        Compression compression = Compression.fromFileName(name);
+        ISerializer serializer = requireSerializer(FilenameUtils.getExtension(compression.strip(name)));
+        long size = Files.size(filePath);
+        if (compression == Compression.NONE) compression = sniff(filePath);
+        if (compression != Compression.NONE) {
+            try (InputStream raw = Files.newInputStream(filePath)) {
+                InputStream counted = listener == null ? raw : new ProgressInputStream(raw, "Parsing", size, listener);
+                return serializer.deserialize(compression.decode(counted));
+            }
+        }
+        if (size > Integer.MAX_VALUE) {
+            try (ReadableByteChannel ch = FileChannel.open(filePath, StandardOpenOption.READ)) {
+                if (listener == null) return serializer.deserialize(ch);
+                return serializer.deserialize(new ProgressInputStream(Channels.newInputStream(ch), "Parsing", size,
+                        listener));
+            }
+        }
+        MappedByteBuffer data = map(filePath);
+        if (serializer instanceof ChunkedSerializer<?> chunked && parallelism > 1 && size >= parallelThreshold) {
+            GraphSnapshot s = loadChunked(chunked, data, filePath, listener);
+            if (s != null) return s;
+        }
+        if (serializer.readsInPlace()) {
+            GraphSnapshot s = serializer.deserialize(data);
+            if (listener != null) listener.onProgress("Parsing", size, size);
+            return s;
+        }
+        if (listener == null) return serializer.deserialize(data);
+        return serializer.deserialize(new ProgressInputStream(new ByteBufferInputStream(data), "Parsing", size,
+                listener));
+    }
+
+    /**
+     * Parses a snapshot directly from a stream (e.g. an HTTP request body) without buffering it first.
+     *
+     * @param format serializer key, usually the file extension ({@code json}, {@code toon}), optionally with a
+     *               compression suffix ({@code toon.gz}); compressed input is also recognized by its header
+     */
+    public GraphSnapshot load(InputStream in, String format) throws Exception {
+        return observed(format.toLowerCase(Locale.ROOT), -1, () -> loadStream(in, format));
+    }
+
+    private GraphSnapshot loadStream(InputStream in, String format) throws Exception {
+        Compression compression = Compression.fromFileName(format);
+        ISerializer serializer = requireSerializer(compression.strip(format));
+        InputStream body = in.markSupported() ? in : new BufferedInputStream(in, BUFFER);
+        if (compression == Compression.NONE) compression = sniff(body);
+        return serializer.deserialize(compression.decode(body));
+    }
+
+    /** Channel variant of {@link #load(InputStream, String)}; the caller closes the channel. */
+    public GraphSnapshot load(ReadableByteChannel channel, String format) throws Exception {
+        if (Compression.fromFileName(format) != Compression.NONE)
+            return load(Channels.newInputStream(channel), format);
+        return observed(format.toLowerCase(Locale.ROOT), -1, () -> requireSerializer(format).deserialize(channel));
+    }
+
+    /** Returns {@code null} if the serializer finds no safe split points. */
+    private <P> GraphSnapshot loadChunked(ChunkedSerializer<P> serializer, MappedByteBuffer data, Path filePath,
+                                          ProgressListener listener) throws Exception {
+        List<int[]> ranges = serializer.split(data, parallelism * CHUNKS_PER_THREAD);
+        if (ranges.size() < 2) return null;
+
+        // workers step it concurrently; the reporter throttles, so the listener is not called per chunk
+        ProgressReporter progress = new ProgressReporter("Parsing", data.limit(), listener);
+        List<P> parts = new ArrayList<>(Collections.nCopies(ranges.size(), null));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, ranges.size()).parallel().forEach(i -> {
+                int[] r = ranges.get(i);
+                try {
+                    parts.set(i, serializer.parseChunk(data.slice(r[0], r[1] - r[0]), r, i));
+                } catch (Exception ex) {
+                    throw new CompletionException(ex);
+                }
+                progress.step(r[1] - r[0]);
+            })).get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause() instanceof CompletionException c ? c.getCause() : ex.getCause();
+            if (cause instanceof Exception e) throw e;
+            throw ex;
+        } finally {
+            pool.shutdown();
+        }
+        GraphSnapshot merged = serializer.merge(parts);
+        progress.finish();
+        return merged;
+    }
+
+    private GraphSnapshot observed(String format, long bytes, Load load) throws Exception {
+        LoadObserver o = observer;
+        if (o == null) return load.run();
+        long t0 = System.nanoTime();
+        GraphSnapshot snapshot = null;
+        try {
+            snapshot = load.run();
+            return snapshot;
+        } finally {
+            o.loaded(format, bytes, System.nanoTime() - t0, snapshot);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Load {
+        GraphSnapshot run() throws Exception;
+    }
+
+    private static Compression sniff(Path filePath) throws IOException {
+        try (InputStream in = Files.newInputStream(filePath)) {
+            return Compression.sniff(in.read(), in.read());
+        }
+    }
+
+    private static Compression sniff(InputStream in) throws IOException {
+        in.mark(2);
+        Compression c = Compression.sniff(in.read(), in.read());
+        in.reset();
+        return c;
+    }
+
+    /** The mapping stays valid after the channel is closed and is released when the buffer is collected. */
+    private static MappedByteBuffer map(Path filePath) throws IOException {
+        try (FileChannel ch = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+    }
+
+    private ISerializer requireSerializer(String ext) {
+        ISerializer serializer = getSerializer(ext);
+        if (serializer == null)
+            throw new IllegalArgumentException("Unsupported graph format: " + ext);
+        return serializer;
     }
 }
@@ -1,7 +1,55 @@
 package com.belmonttech.graph.model.io;
 
 import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.progress.ProgressListener;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 
 public interface ISerializer {
+    /** Adapter for callers that already hold the bytes; file and network input should use the streaming forms. */
     GraphSnapshot deserialize(byte[] raw) throws Exception;
+
+    /**
+     * Streaming entry point. The default buffers the stream for serializers that only understand
+     * {@code byte[]}; formats that can parse incrementally should override it.
+     */
+    default GraphSnapshot deserialize(InputStream in) throws Exception {
+        return deserialize(in.readAllBytes());
+    }
+
+    /** Reads from a channel (socket, file, pipe); the caller owns and closes it. */
+    default GraphSnapshot deserialize(ReadableByteChannel channel) throws Exception {
+        return deserialize(Channels.newInputStream(channel));
+    }
+
+    /**
+     * Reads from a buffer, typically a read-only memory-mapped file whose pages the OS loads on demand and can
+     * drop again, so none of it counts against the heap. Formats with random access may override this to read
+     * the buffer in place.
+     */
+    default GraphSnapshot deserialize(ByteBuffer data) throws Exception {
+        return deserialize(new ByteBufferInputStream(data));
+    }
+
+    /**
+     * True if {@link #deserialize(ByteBuffer)} reads the buffer in place instead of scanning it once; such
+     * formats always get the mapped file, never a copy, and open in constant time.
+     */
+    default boolean readsInPlace() {
+        return false;
+    }
+
+    /** Writes {@code s} to {@code out}; the caller owns the stream and closes it afterwards. */
+    default void serialize(GraphSnapshot s, OutputStream out) throws Exception {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " is read-only");
+    }
+
+    /** As {@link #serialize(GraphSnapshot, OutputStream)}, reporting records written; the default reports nothing. */
+    default void serialize(GraphSnapshot s, OutputStream out, ProgressListener listener) throws Exception {
+        serialize(s, out);
+    }
 }
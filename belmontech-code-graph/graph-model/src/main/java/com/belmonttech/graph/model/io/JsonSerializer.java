@@ -1,17 +1,186 @@
 package com.belmonttech.graph.model.io;
 
 import com.belmonttech.graph.model.*;
+import com.belmonttech.graph.model.progress.ProgressListener;
 
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
 import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * JSON form of {@link GraphSnapshot}, read and written token by token through {@link JsonSnapshotCodec} (no
+ * databind reflection). Output is compact unless constructed with {@code pretty}. For parallel loads the
+ * document is cut between members of the top-level {@code nodes} object and elements of the {@code edges}
+ * array; each chunk is re-wrapped as a small snapshot document of its own and parsed independently.
+ */
+public class JsonSerializer implements ChunkedSerializer<GraphSnapshot> {
+    private static final byte[] NODES = "nodes".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EDGES = "edges".getBytes(StandardCharsets.US_ASCII);
 
-public class JsonSerializer implements ISerializer {
     private final ObjectMapper mapper = new ObjectMapper();
+    private final boolean pretty;
 
     public JsonSerializer() {
+        this(false);
+    }
+
+    /** @param pretty indent the output (larger files, for humans); compact otherwise */
+    public JsonSerializer(boolean pretty) {
+        this.pretty = pretty;
     }
 
     @Override
     public GraphSnapshot deserialize(byte[] raw) throws Exception {
-        return mapper.readValue(raw, GraphSnapshot.class);
+        try (JsonParser p = mapper.createParser(raw)) {
+            return JsonSnapshotCodec.read(p, raw.length);
+        }
+    }
+
+    @Override
+    public GraphSnapshot deserialize(InputStream in) throws Exception {
+        try (JsonParser p = mapper.createParser(in)) {
+            return JsonSnapshotCodec.read(p, -1);
+        }
+    }
+
+    @Override
+    public GraphSnapshot deserialize(ByteBuffer data) throws Exception {
+        try (JsonParser p = mapper.createParser(new ByteBufferInputStream(data))) {
+            return JsonSnapshotCodec.read(p, data.remaining());
+        }
+    }
+
+    @Override
+    public void serialize(GraphSnapshot s, OutputStream out) throws Exception {
+        serialize(s, out, null);
+    }
+
+    @Override
+    public void serialize(GraphSnapshot s, OutputStream out, ProgressListener listener) throws Exception {
+        ObjectWriter writer = pretty ? mapper.writerWithDefaultPrettyPrinter() : mapper.writer();
+        try (JsonGenerator g = writer.createGenerator(out)) {
+            JsonSnapshotCodec.write(s, g, listener);
+        }
+    }
+
+    /**
+     * One structural pass (strings and escapes aware) that records a cut at the first top-level separator
+     * past each target offset. Each range carries its section as a third element: 0 = nodes, 1 = edges.
+     */
+    @Override
+    public List<int[]> split(ByteBuffer data, int targetChunks) {
+        int size = data.limit();
+        int step = Math.max(1, size / targetChunks);
+        List<int[]> ranges = new ArrayList<>(targetChunks + 2);
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        int keyStart = -1;
+        int keyEnd = -1;
+        int section = -1; // 0 nodes, 1 edges
+        int rangeStart = 0;
+        int nextCut = 0;
+        for (int i = 0; i < size; i++) {
+            byte b = data.get(i);
+            if (inString) {
+                if (escaped) escaped = false;
+                else if (b == '\\') escaped = true;
+                else if (b == '"') {
+                    inString = false;
+                    keyEnd = i;
+                }
+                continue;
+            }
+            switch (b) {
+                case '"' -> {
+                    inString = true;
+                    keyStart = i + 1;
+                }
+                case ':' -> {
+                    if (depth == 1) {
+                        section = is(data, keyStart, keyEnd, NODES) ? 0 : is(data, keyStart, keyEnd, EDGES) ? 1 : -1;
+                    }
+                }
+                case '{', '[' -> {
+                    depth++;
+                    if (depth == 2 && section >= 0) {
+                        if ((section == 0) != (b == '{')) return List.of();
+                        rangeStart = i + 1;
+                        nextCut = i + step;
+                    }
+                }
+                case '}', ']' -> {
+                    if (depth == 2 && section >= 0) {
+                        ranges.add(new int[]{rangeStart, i, section});
+                        section = -1;
+                    }
+                    depth--;
+                }
+                case ',' -> {
+                    if (depth == 2 && section >= 0 && i >= nextCut) {
+                        ranges.add(new int[]{rangeStart, i, section});
+                        rangeStart = i + 1;
+                        nextCut = i + step;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return depth == 0 ? ranges : List.of();
+    }
+
+    @Override
+    public GraphSnapshot parseChunk(ByteBuffer chunk, int[] range, int chunkIndex) throws Exception {
+        boolean nodes = range[2] == 0;
+        InputStream in = new SequenceInputStream(Collections.enumeration(List.of(
+                ascii(nodes ? "{\"nodes\":{" : "{\"edges\":["),
+                new ByteBufferInputStream(chunk),
+                ascii(nodes ? "}}" : "]}"))));
+        try (JsonParser p = mapper.createParser(in)) {
+            return JsonSnapshotCodec.read(p, chunk.remaining());
+        }
+    }
+
+    /**
+     * Chunks merge in file order, giving the same snapshot as a sequential parse: a repeated node id keeps the
+     * last value, and edges are concatenated as they are, repeated ids included.
+     */
+    @Override
+    public GraphSnapshot merge(List<GraphSnapshot> parts) {
+        int nodeCount = 0;
+        int edgeCount = 0;
+        for (GraphSnapshot p : parts) {
+            if (p.nodes() != null) nodeCount += p.nodes().size();
+            if (p.edges() != null) edgeCount += p.edges().size();
+        }
+        Map<String, GraphNode> nodes = new LinkedHashMap<>(Math.max(16, (int) (nodeCount / 0.75f) + 1));
+        List<GraphEdge> edges = new ArrayList<>(edgeCount);
+        for (GraphSnapshot p : parts) {
+            if (p.nodes() != null) nodes.putAll(p.nodes());
+            if (p.edges() != null) edges.addAll(p.edges());
+        }
+        return new GraphSnapshot(nodes, edges);
+    }
+
+    private static boolean is(ByteBuffer data, int start, int end, byte[] word) {
+        if (start < 0 || end - start != word.length) return false;
+        for (int k = 0; k < word.length; k++) {
+            if (data.get(start + k) != word[k]) return false;
+        }
+        return true;
+    }
+
+    private static InputStream ascii(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.US_ASCII));
     }
 }
@@ -0,0 +1,331 @@
+package com.belmonttech.graph.model.io;
+
+import com.belmonttech.graph.model.*;
+import com.belmonttech.graph.model.progress.ProgressListener;
+import com.belmonttech.graph.model.progress.ProgressReporter;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+
+import java.util.*;
+
+/**
+ * Hand-written token-level codec for the {@link GraphSnapshot} JSON layout that databind produces
+ * ({@code {"nodes": {id: node, ...}, "edges": [edge, ...]}}, null node fields omitted). Reading is a single pass
+ * without reflection: property names are matched with a {@code switch} and enums are decoded from the token
+ * text. Edge endpoints are looked up straight from the parser's character buffer in a table of the node ids
+ * read so far, so an edge to a known node neither allocates a string nor holds its own copy of the id;
+ * package and class names are interned. Unknown properties are skipped.
+ */
+final class JsonSnapshotCodec {
+
+    /** Rough bytes per node and per edge in typical output; used only to pre-size collections. */
+    private static final int BYTES_PER_NODE = 512;
+    private static final int BYTES_PER_EDGE = 256;
+    private static final int PROGRESS_BATCH = 1024;
+
+    private final Map<String, String> canonical = new HashMap<>();
+    private final IdTable ids = new IdTable();
+
+    private JsonSnapshotCodec() {
+    }
+
+    /**
+     * @param expectedBytes input size if known (else {@code -1}), to pre-size the node map and edge list
+     */
+    static GraphSnapshot read(JsonParser p, long expectedBytes) {
+        return new JsonSnapshotCodec().readSnapshot(p, expectedBytes);
+    }
+
+    static void write(GraphSnapshot s, JsonGenerator g, ProgressListener listener) {
+        Map<String, GraphNode> nodes = s.nodes();
+        List<GraphEdge> edges = s.edges();
+        long total = (nodes == null ? 0 : nodes.size()) + (edges == null ? 0 : edges.size());
+        ProgressReporter progress = new ProgressReporter("Writing", total, listener);
+        int pending = 0;
+
+        g.writeStartObject();
+        g.writeName("nodes");
+        if (nodes == null) {
+            g.writeNull();
+        } else {
+            g.writeStartObject();
+            for (Map.Entry<String, GraphNode> e : nodes.entrySet()) {
+                g.writeName(e.getKey());
+                writeNode(e.getValue(), g);
+                if (++pending == PROGRESS_BATCH) {
+                    progress.step(pending);
+                    pending = 0;
+                }
+            }
+            g.writeEndObject();
+        }
+        g.writeName("edges");
+        if (edges == null) {
+            g.writeNull();
+        } else {
+            g.writeStartArray();
+            for (GraphEdge e : edges) {
+                writeEdge(e, g);
+                if (++pending == PROGRESS_BATCH) {
+                    progress.step(pending);
+                    pending = 0;
+                }
+            }
+            g.writeEndArray();
+        }
+        g.writeEndObject();
+        if (pending > 0) progress.step(pending);
+        progress.finish();
+    }
+
+    private GraphSnapshot readSnapshot(JsonParser p, long expectedBytes) {
+        expect(p.nextToken(), JsonToken.START_OBJECT, p);
+        Map<String, GraphNode> nodes = null;
+        List<GraphEdge> edges = null;
+        String name;
+        while ((name = p.nextName()) != null) {
+            JsonToken t = p.nextToken();
+            switch (name) {
+                case "nodes" -> nodes = t == JsonToken.VALUE_NULL ? null : readNodes(p, expectedBytes);
+                case "edges" -> edges = t == JsonToken.VALUE_NULL ? null : readEdges(p, expectedBytes);
+                default -> p.skipChildren();
+            }
+        }
+        return new GraphSnapshot(nodes, edges);
+    }
+
+    private Map<String, GraphNode> readNodes(JsonParser p, long expectedBytes) {
+        expect(p.currentToken(), JsonToken.START_OBJECT, p);
+        int expected = expectedBytes > 0 ? (int) Math.min(1 << 24, expectedBytes / BYTES_PER_NODE) : 0;
+        Map<String, GraphNode> nodes = new LinkedHashMap<>(Math.max(16, (int) (expected / 0.75f) + 1));
+        String key;
+        while ((key = p.nextName()) != null) {
+            GraphNode node = p.nextToken() == JsonToken.VALUE_NULL ? null : readNode(p, key);
+            nodes.put(key, node);
+            if (node != null && node.id() != null) ids.add(node.id());
+        }
+        return nodes;
+    }
+
+    private GraphNode readNode(JsonParser p, String key) {
+        expect(p.currentToken(), JsonToken.START_OBJECT, p);
+        String id = null;
+        NodeLevel level = null;
+        String displayName = null;
+        String packageName = null;
+        String className = null;
+        String methodName = null;
+        String signature = null;
+        int cost = 0;
+        int complexity = 0;
+        boolean hotspot = false;
+        String name;
+        while ((name = p.nextName()) != null) {
+            JsonToken t = p.nextToken();
+            switch (name) {
+                case "id" -> {
+                    String v = text(p, t);
+                    id = key.equals(v) ? key : v;
+                }
+                case "level" -> level = level(text(p, t));
+                case "displayName" -> displayName = text(p, t);
+                case "packageName" -> packageName = intern(text(p, t));
+                case "className" -> className = intern(text(p, t));
+                case "methodName" -> methodName = text(p, t);
+                case "signature" -> signature = text(p, t);
+                case "cost" -> cost = intValue(p, t);
+                case "complexity" -> complexity = intValue(p, t);
+                case "hotspot" -> hotspot = t == JsonToken.VALUE_TRUE;
+                default -> p.skipChildren();
+            }
+        }
+        return new GraphNode(id, level, displayName, packageName, className, methodName, signature, cost,
+                complexity, hotspot);
+    }
+
+    private List<GraphEdge> readEdges(JsonParser p, long expectedBytes) {
+        expect(p.currentToken(), JsonToken.START_ARRAY, p);
+        int expected = expectedBytes > 0 ? (int) Math.min(1 << 24, expectedBytes / BYTES_PER_EDGE) : 0;
+        List<GraphEdge> edges = new ArrayList<>(Math.max(16, expected));
+        JsonToken t;
+        while ((t = p.nextToken()) != JsonToken.END_ARRAY) {
+            edges.add(t == JsonToken.VALUE_NULL ? null : readEdge(p));
+        }
+        return edges;
+    }
+
+    private GraphEdge readEdge(JsonParser p) {
+        expect(p.currentToken(), JsonToken.START_OBJECT, p);
+        String id = null;
+        String sourceId = null;
+        String targetId = null;
+        EdgeType type = null;
+        int weight = 0;
+        String name;
+        while ((name = p.nextName()) != null) {
+            JsonToken t = p.nextToken();
+            switch (name) {
+                case "id" -> id = text(p, t);
+                case "sourceId" -> sourceId = endpoint(p, t);
+                case "targetId" -> targetId = endpoint(p, t);
+                case "type" -> type = edgeType(text(p, t));
+                case "weight" -> weight = intValue(p, t);
+                default -> p.skipChildren();
+            }
+        }
+        return new GraphEdge(id, sourceId, targetId, type, weight);
+    }
+
+    private static void writeNode(GraphNode n, JsonGenerator g) {
+        if (n == null) {
+            g.writeNull();
+            return;
+        }
+        g.writeStartObject();
+        if (n.id() != null) g.writeStringProperty("id", n.id());
+        if (n.level() != null) g.writeStringProperty("level", n.level().name());
+        if (n.displayName() != null) g.writeStringProperty("displayName", n.displayName());
+        if (n.packageName() != null) g.writeStringProperty("packageName", n.packageName());
+        if (n.className() != null) g.writeStringProperty("className", n.className());
+        if (n.methodName() != null) g.writeStringProperty("methodName", n.methodName());
+        if (n.signature() != null) g.writeStringProperty("signature", n.signature());
+        g.writeNumberProperty("cost", n.cost());
+        g.writeNumberProperty("complexity", n.complexity());
+        g.writeBooleanProperty("hotspot", n.hotspot());
+        g.writeEndObject();
+    }
+
+    private static void writeEdge(GraphEdge e, JsonGenerator g) {
+        if (e == null) {
+            g.writeNull();
+            return;
+        }
+        g.writeStartObject();
+        g.writeStringProperty("id", e.id());
+        g.writeStringProperty("sourceId", e.sourceId());
+        g.writeStringProperty("targetId", e.targetId());
+        if (e.type() == null) g.writeNullProperty("type");
+        else g.writeStringProperty("type", e.type().name());
+        g.writeNumberProperty("weight", e.weight());
+        g.writeEndObject();
+    }
+
+    /** The node's own id instance if the node is known, else the (interned) text. */
+    private String endpoint(JsonParser p, JsonToken t) {
+        if (t != JsonToken.VALUE_STRING) return intern(text(p, t));
+        String known = ids.find(p.getStringCharacters(), p.getStringOffset(), p.getStringLength());
+        return known != null ? known : intern(p.getString());
+    }
+
+    private String intern(String s) {
+        if (s == null) return null;
+        String existing = canonical.putIfAbsent(s, s);
+        return existing != null ? existing : s;
+    }
+
+    /** Open-addressing set of node ids that can be probed with a character range (same hash as String). */
+    private static final class IdTable {
+        private String[] slots = new String[1024];
+        private int size;
+
+        void add(String id) {
+            if (size * 2 >= slots.length) grow();
+            int mask = slots.length - 1;
+            int i = spread(id.hashCode()) & mask;
+            while (slots[i] != null) {
+                if (slots[i].equals(id)) return;
+                i = (i + 1) & mask;
+            }
+            slots[i] = id;
+            size++;
+        }
+
+        String find(char[] chars, int offset, int length) {
+            int h = 0;
+            for (int k = 0; k < length; k++) h = 31 * h + chars[offset + k];
+            int mask = slots.length - 1;
+            for (int i = spread(h) & mask; slots[i] != null; i = (i + 1) & mask) {
+                String s = slots[i];
+                if (s.length() == length && matches(s, chars, offset)) return s;
+            }
+            return null;
+        }
+
+        private static boolean matches(String s, char[] chars, int offset) {
+            for (int k = 0; k < s.length(); k++) {
+                if (s.charAt(k) != chars[offset + k]) return false;
+            }
+            return true;
+        }
+
+        private void grow() {
+            String[] old = slots;
+            slots = new String[old.length * 2];
+            size = 0;
+            for (String s : old) {
+                if (s != null) add(s);
+            }
+        }
+
+        private static int spread(int h) {
+            return h ^ (h >>> 16);
+        }
+    }
+
+    private static String text(JsonParser p, JsonToken t) {
+        if (t == JsonToken.VALUE_NULL) return null;
+        if (t == JsonToken.START_OBJECT || t == JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return null;
+        }
+        return p.getString();
+    }
+
+    private static int intValue(JsonParser p, JsonToken t) {
+        return switch (t) {
+            case VALUE_NUMBER_INT -> p.getIntValue();
+            case VALUE_NUMBER_FLOAT -> (int) Double.parseDouble(p.getString());
+            case VALUE_STRING -> {
+                try {
+                    yield Integer.parseInt(p.getString().trim());
+                } catch (NumberFormatException ex) {
+                    yield 0;
+                }
+            }
+            case START_OBJECT, START_ARRAY -> {
+                p.skipChildren();
+                yield 0;
+            }
+            default -> 0;
+        };
+    }
+
+    private static NodeLevel level(String s) {
+        if (s == null) return null;
+        return switch (s) {
+            case "METHOD" -> NodeLevel.METHOD;
+            case "CLASS" -> NodeLevel.CLASS;
+            case "INTERFACE" -> NodeLevel.INTERFACE;
+            case "PACKAGE" -> NodeLevel.PACKAGE;
+            default -> throw new IllegalArgumentException("Unknown node level: " + s);
+        };
+    }
+
+    private static EdgeType edgeType(String s) {
+        if (s == null) return null;
+        return switch (s) {
+            case "INVOCATION" -> EdgeType.INVOCATION;
+            case "IMPLEMENTATION" -> EdgeType.IMPLEMENTATION;
+            case "INHERITANCE" -> EdgeType.INHERITANCE;
+            default -> throw new IllegalArgumentException("Unknown edge type: " + s);
+        };
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected, JsonParser p) {
+        if (actual != expected)
+            throw new IllegalArgumentException("Malformed graph JSON: expected " + expected + " but found " + actual
+                    + (p.currentName() != null ? " at '" + p.currentName() + "'" : ""));
+    }
+}
@@ -0,0 +1,19 @@
+package com.belmonttech.graph.model.io;
+
+import com.belmonttech.graph.model.GraphSnapshot;
+
+/**
+ * Told about every load {@link DataLoader} performs, e.g. to keep load-time statistics per format. Called on the
+ * loading thread after the serializer returned or failed; implementations must be thread-safe and cheap.
+ */
+@FunctionalInterface
+public interface LoadObserver {
+
+    /**
+     * @param format   serializer key plus compression suffix, as in {@link DataLoader#formatOf}
+     * @param bytes    input size, or -1 for stream and channel input
+     * @param nanos    wall time of the load, parsing included
+     * @param snapshot the result, or null if the load failed
+     */
+    void loaded(String format, long bytes, long nanos, GraphSnapshot snapshot);
+}
@@ -0,0 +1,218 @@
+package com.belmonttech.graph.model.io;
+
+import com.belmonttech.graph.model.*;
+import com.belmonttech.graph.model.columnar.SnapshotColumns;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static com.belmonttech.graph.model.io.BinarySnapshotSerializer.*;
+
+/**
+ * {@link SnapshotColumns} read in place from a {@link BinarySnapshotSerializer} buffer. Only absolute reads are
+ * used, so one instance is safe to share between threads. Decoded strings are cached per dictionary entry; the
+ * cache is written racily, which is harmless because every thread decodes the same value. The name column
+ * accessors ({@link #displayName} ...) bypass the cache, so building the search index over every node leaves the
+ * dictionary on disk.
+ */
+final class MappedColumns implements SnapshotColumns {
+
+    private static final NodeLevel[] LEVELS = NodeLevel.values();
+    private static final EdgeType[] TYPES = EdgeType.values();
+
+    private final ByteBuffer data;
+    private final int nodeCount;
+    private final int edgeCount;
+    private final int hashCapacity;
+    private final int stringIndex;
+    private final int stringData;
+    private final int nodes;
+    private final int edges;
+    private final int[] sections = new int[SECTIONS];
+    private final String[] strings;
+
+    MappedColumns(ByteBuffer buffer) {
+        this.data = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+        if (data.limit() < HEADER_BYTES || data.getInt(0) != MAGIC)
+            throw new IllegalArgumentException("Not a binary graph snapshot");
+        if (data.getInt(4) != VERSION)
+            throw new IllegalArgumentException("Unsupported binary snapshot version: " + data.getInt(4));
+        this.nodeCount = data.getInt(8);
+        this.edgeCount = data.getInt(12);
+        this.strings = new String[data.getInt(16)];
+        this.hashCapacity = data.getInt(20);
+        for (int k = 0; k < SECTIONS; k++) sections[k] = data.getInt(24 + 4 * k);
+        if (sections[S_HASH] + 4L * hashCapacity > data.limit())
+            throw new IllegalArgumentException("Truncated binary snapshot");
+        this.stringIndex = sections[S_STRING_INDEX];
+        this.stringData = sections[S_STRING_DATA];
+        this.nodes = sections[S_NODES];
+        this.edges = sections[S_EDGES];
+    }
+
+    @Override
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    @Override
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public int ordinal(String nodeId) {
+        int slot = BinarySnapshotSerializer.slot(nodeId, hashCapacity);
+        int base = sections[S_HASH];
+        while (true) {
+            int entry = data.getInt(base + 4 * slot);
+            if (entry == 0) return -1;
+            if (nodeId.equals(nodeId(entry - 1))) return entry - 1;
+            slot = (slot + 1) & (hashCapacity - 1);
+        }
+    }
+
+    @Override
+    public String nodeId(int ordinal) {
+        return string(node(N_ID, ordinal));
+    }
+
+    @Override
+    public NodeLevel level(int ordinal) {
+        int v = node(N_LEVEL, ordinal);
+        return v < 0 ? null : LEVELS[v];
+    }
+
+    @Override
+    public String packageName(int ordinal) {
+        return string(node(N_PACKAGE, ordinal));
+    }
+
+    @Override
+    public int cost(int ordinal) {
+        return node(N_COST, ordinal);
+    }
+
+    @Override
+    public int complexity(int ordinal) {
+        return node(N_COMPLEXITY, ordinal);
+    }
+
+    @Override
+    public boolean hotspot(int ordinal) {
+        return (node(N_FLAGS, ordinal) & FLAG_HOTSPOT) != 0;
+    }
+
+    @Override
+    public String displayName(int ordinal) {
+        return peek(node(N_DISPLAY, ordinal));
+    }
+
+    @Override
+    public String className(int ordinal) {
+        return peek(node(N_CLASS, ordinal));
+    }
+
+    @Override
+    public String methodName(int ordinal) {
+        return peek(node(N_METHOD, ordinal));
+    }
+
+    @Override
+    public String signature(int ordinal) {
+        return peek(node(N_SIGNATURE, ordinal));
+    }
+
+    @Override
+    public GraphNode node(int o) {
+        return new GraphNode(nodeId(o), level(o), string(node(N_DISPLAY, o)), packageName(o),
+                string(node(N_CLASS, o)), string(node(N_METHOD, o)), string(node(N_SIGNATURE, o)), cost(o),
+                complexity(o), hotspot(o));
+    }
+
+    @Override
+    public int edgeSource(int edge) {
+        return edge(E_SOURCE, edge);
+    }
+
+    @Override
+    public int edgeTarget(int edge) {
+        return edge(E_TARGET, edge);
+    }
+
+    @Override
+    public EdgeType edgeType(int edge) {
+        int v = edge(E_TYPE, edge);
+        return v < 0 ? null : TYPES[v];
+    }
+
+    @Override
+    public int edgeWeight(int edge) {
+        return edge(E_WEIGHT, edge);
+    }
+
+    @Override
+    public GraphEdge edge(int e) {
+        return new GraphEdge(string(edge(E_ID, e)), string(edge(E_SOURCE_ID, e)), string(edge(E_TARGET_ID, e)),
+                edgeType(e), edgeWeight(e));
+    }
+
+    /** Copies the stored adjacency; a bulk copy of four int sections, no counting pass over the edges. */
+    @Override
+    public int[][] adjacency() {
+        return new int[][]{
+                ints(sections[S_OUT_OFFSETS], nodeCount + 1),
+                ints(sections[S_OUT_EDGES], (sections[S_IN_OFFSETS] - sections[S_OUT_EDGES]) / 4),
+                ints(sections[S_IN_OFFSETS], nodeCount + 1),
+                ints(sections[S_IN_EDGES], (sections[S_HASH] - sections[S_IN_EDGES]) / 4)};
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        long bytes = 16 + 4L * strings.length;
+        for (String s : strings) {
+            if (s != null) bytes += 40 + s.length();
+        }
+        return bytes;
+    }
+
+    private int node(int column, int ordinal) {
+        return data.getInt(nodes + 4 * (column * nodeCount + ordinal));
+    }
+
+    private int edge(int column, int edge) {
+        return data.getInt(edges + 4 * (column * edgeCount + edge));
+    }
+
+    private String string(int id) {
+        if (id < 0) return null;
+        String s = strings[id];
+        if (s == null) {
+            s = decode(id);
+            strings[id] = s;
+        }
+        return s;
+    }
+
+    /** The cached string if there is one, otherwise a decoded copy that is not cached. */
+    private String peek(int id) {
+        if (id < 0) return null;
+        String s = strings[id];
+        return s != null ? s : decode(id);
+    }
+
+    private String decode(int id) {
+        int start = data.getInt(stringIndex + 4 * id);
+        int end = data.getInt(stringIndex + 4 * (id + 1));
+        byte[] bytes = new byte[end - start];
+        data.get(stringData + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int[] ints(int offset, int count) {
+        int[] out = new int[count];
+        data.slice(offset, 4 * count).order(ByteOrder.BIG_ENDIAN).asIntBuffer().get(out);
+        return out;
+    }
+}
@@ -0,0 +1,133 @@
+package com.belmonttech.graph.model.io;
+
+import com.belmonttech.graph.model.*;
+import com.belmonttech.graph.model.progress.ProgressListener;
+import com.belmonttech.graph.model.progress.ProgressReporter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Writes a {@link GraphSnapshot} in the analyzer's TOON layout (see {@link ToonParser}), one class block at a
+ * time. Only METHOD nodes, their INVOCATION edges and class INHERITANCE edges are representable; an
+ * INVOCATION edge of weight {@code w} is written as {@code w} list entries, as the analyzer does.
+ */
+final class ToonEncoder {
+
+    private static final String INDENT_METHOD = "      ";
+    private static final String INDENT_FIELD = "        ";
+    private static final String INDENT_LIST_ITEM = "          - ";
+
+    private ToonEncoder() {
+    }
+
+    static void write(GraphSnapshot s, Writer w) throws IOException {
+        write(s, w, null);
+    }
+
+    /** {@code listener} (optional) receives the number of methods written. */
+    static void write(GraphSnapshot s, Writer w, ProgressListener listener) throws IOException {
+        Map<String, List<GraphNode>> methodsByClass = new LinkedHashMap<>();
+        int methods = 0;
+        for (GraphNode n : s.nodes().values()) {
+            if (n.level() == NodeLevel.METHOD && n.className() != null) {
+                methodsByClass.computeIfAbsent(n.className(), k -> new ArrayList<>()).add(n);
+                methods++;
+            }
+        }
+        ProgressReporter progress = new ProgressReporter("Writing", methods, listener);
+        // keyed by id rather than through an index: calls to unresolved methods must survive the round trip
+        Map<String, List<GraphEdge>> calls = new HashMap<>();
+        Map<String, List<GraphEdge>> calledBy = new HashMap<>();
+        Map<String, String> parents = new HashMap<>();
+        for (GraphEdge e : s.edges()) {
+            if (e.type() == EdgeType.INVOCATION) {
+                calls.computeIfAbsent(e.sourceId(), k -> new ArrayList<>()).add(e);
+                calledBy.computeIfAbsent(e.targetId(), k -> new ArrayList<>()).add(e);
+            } else if (e.type() == EdgeType.INHERITANCE) {
+                parents.putIfAbsent(e.sourceId(), e.targetId());
+            }
+        }
+
+        w.write("TOON\n");
+        w.write("version: 1\n");
+        w.write("\n");
+        for (Map.Entry<String, List<GraphNode>> e : methodsByClass.entrySet()) {
+            String cls = e.getKey();
+            GraphNode classNode = s.nodes().get(cls);
+            String parent = parents.get(cls);
+            w.write("File: " + (classNode != null && classNode.signature() != null ? classNode.signature() : "") + "\n");
+            w.write("Class: " + cls + "\n");
+            w.write("Parent: " + (parent == null ? "null" : parent.substring(parent.lastIndexOf('.') + 1)) + "\n");
+            w.write("Methods:\n");
+            for (GraphNode m : e.getValue()) {
+                writeMethod(m, calls.getOrDefault(m.id(), List.of()), calledBy.getOrDefault(m.id(), List.of()), w);
+            }
+            w.write("\n");
+            progress.step(e.getValue().size());
+        }
+        w.flush();
+        progress.finish();
+    }
+
+    private static void writeMethod(GraphNode n, List<GraphEdge> out, List<GraphEdge> in, Writer w)
+            throws IOException {
+        String signature = n.signature() != null ? n.signature() : "";
+        w.write(INDENT_METHOD + "- method: " + methodName(n) + "\n");
+        w.write(INDENT_FIELD + "visibility: " + visibility(signature) + "\n");
+        w.write(INDENT_FIELD + "signature: " + signature + "\n");
+        writeList(w, "annotations", List.of());
+        writeList(w, "throws", throwsTypes(signature));
+        w.write(INDENT_FIELD + "complexity: " + n.complexity() + "\n");
+        w.write(INDENT_FIELD + "cost: " + CostLevel.fromCode(n.cost()).label() + "\n");
+
+        List<String> calls = new ArrayList<>();
+        for (GraphEdge edge : out) repeat(calls, edge.targetId(), edge.weight());
+        List<String> calledBy = new ArrayList<>();
+        for (GraphEdge edge : in) repeat(calledBy, edge.sourceId(), edge.weight());
+        writeList(w, "calls", calls);
+        writeList(w, "calledBy", calledBy);
+        w.write("\n");
+    }
+
+    private static void writeList(Writer w, String name, List<String> values) throws IOException {
+        if (values.isEmpty()) {
+            w.write(INDENT_FIELD + name + ": []\n");
+            return;
+        }
+        w.write(INDENT_FIELD + name + ":\n");
+        for (String v : values) {
+            w.write(INDENT_LIST_ITEM + v + "\n");
+        }
+    }
+
+    private static String methodName(GraphNode n) {
+        if (n.methodName() != null) return n.methodName();
+        String id = n.id();
+        int hash = id.indexOf('#');
+        int slash = id.lastIndexOf('/');
+        return hash >= 0 && slash > hash ? id.substring(hash + 1, slash) : id;
+    }
+
+    private static String visibility(String signature) {
+        if (signature.startsWith("public ")) return "public";
+        if (signature.startsWith("protected ")) return "protected";
+        if (signature.startsWith("private ")) return "private";
+        return "package-private";
+    }
+
+    private static List<String> throwsTypes(String signature) {
+        int i = signature.lastIndexOf(" throws ");
+        if (i < 0 || i < signature.lastIndexOf(')')) return List.of();
+        List<String> out = new ArrayList<>();
+        for (String t : signature.substring(i + " throws ".length()).split(",")) {
+            if (!t.isBlank()) out.add(t.strip());
+        }
+        return out;
+    }
+
+    private static void repeat(List<String> out, String value, int times) {
+        for (int i = 0; i < Math.max(1, times); i++) out.add(value);
+    }
+}
@@ -0,0 +1,271 @@
+package com.belmonttech.graph.model.io;
+
+import com.belmonttech.graph.model.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Line-oriented reader for the TOON reports written by {@code JavaCostAnalyzer}:
+ *
+ * <pre>
+ * File: /src/com/acme/Foo.java
+ * Class: com.acme.Foo
+ * Parent: Base
+ * Methods:
+ *       - method: bar
+ *         signature: public int bar(String a, int b)
+ *         complexity: 3
+ *         cost: HIGH
+ *         calls:
+ *           - com.acme.Baz#qux/1
+ *         calledBy: []
+ * </pre>
+ *
+ * Every method becomes a METHOD node with id {@code <class>#<name>/<paramCount>} (the analyzer's call key), each
+ * class block a CLASS node (its {@code signature} carries the source file) and each package a PACKAGE node with
+ * id {@code pkg:<name>}. {@code calls} become weighted INVOCATION edges (repeated calls add weight) and
+ * {@code Parent} an INHERITANCE edge once the simple name can be resolved. {@code calledBy} is skipped: callers
+ * in the report already produced the same edge from their {@code calls} list, and the others (e.g. filtered out
+ * by {@code minComplexity}) have no node an edge could start from.
+ * <p>
+ * Only one line and one method are buffered at a time; memory grows with the graph, not with the text.
+ * <p>
+ * Class blocks are self-contained, so a report can be cut at {@code File:} lines and read by several parsers
+ * at once; {@link #mergeFrom} then folds them together before {@link #build()} resolves the cross-block parts
+ * (packages, parents).
+ */
+final class ToonParser {
+
+    private final String edgeIdPrefix;
+
+    private final Map<String, String> canonical = new HashMap<>();
+    private final Map<String, GraphNode> nodes = new LinkedHashMap<>();
+    private final List<GraphEdge> edges = new ArrayList<>();
+    private final Map<String, Aggregate> packages = new LinkedHashMap<>();
+    private final Map<String, List<String>> classesBySimpleName = new HashMap<>();
+    private final Map<String, String> parents = new LinkedHashMap<>();
+
+    // current class block
+    private String file;
+    private String className;
+    private String parent;
+    private Aggregate classAgg;
+    // current method
+    private String methodName;
+    private String signature;
+    private int complexity;
+    private String costLabel;
+    private final List<String> calls = new ArrayList<>();
+    private List<String> currentList;
+
+    ToonParser() {
+        this("e");
+    }
+
+    /** @param edgeIdPrefix keeps edge ids unique when several parsers read chunks of the same report */
+    ToonParser(String edgeIdPrefix) {
+        this.edgeIdPrefix = edgeIdPrefix;
+    }
+
+    void read(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line(line);
+        }
+        endClass();
+    }
+
+    /** Appends the results of a parser that read the following chunk of the same report. */
+    void mergeFrom(ToonParser other) {
+        endClass();
+        other.endClass();
+        nodes.putAll(other.nodes);
+        edges.addAll(other.edges);
+        other.packages.forEach((pkg, agg) -> packages.merge(pkg, agg, Aggregate::merge));
+        other.classesBySimpleName.forEach((name, classes) ->
+                classesBySimpleName.computeIfAbsent(name, k -> new ArrayList<>(classes.size())).addAll(classes));
+        parents.putAll(other.parents);
+    }
+
+    GraphSnapshot build() {
+        endClass();
+        for (Map.Entry<String, Aggregate> e : packages.entrySet()) {
+            String pkg = e.getKey();
+            Aggregate agg = e.getValue();
+            String id = canonical("pkg:" + pkg);
+            nodes.putIfAbsent(id, new GraphNode(id, NodeLevel.PACKAGE, pkg, pkg, null, null, null, agg.cost,
+                    agg.complexity, isHotspot(agg.cost)));
+        }
+        for (Map.Entry<String, String> e : parents.entrySet()) {
+            String parentId = resolveClass(e.getValue(), packageOf(e.getKey()));
+            if (parentId != null) addEdge(e.getKey(), parentId, EdgeType.INHERITANCE, 1);
+        }
+        return new GraphSnapshot(nodes, edges);
+    }
+
+    private void line(String raw) {
+        String t = raw.strip();
+        if (t.isEmpty()) return;
+        if (t.startsWith("- method:")) {
+            endMethod();
+            methodName = value(t, "- method:");
+        } else if (t.startsWith("- ")) {
+            if (currentList != null) currentList.add(canonical(t.substring(2).strip()));
+        } else if (t.startsWith("File:")) {
+            endClass();
+            file = value(t, "File:");
+        } else if (t.startsWith("Class:")) {
+            className = canonical(value(t, "Class:"));
+        } else if (t.startsWith("Parent:")) {
+            parent = value(t, "Parent:");
+        } else if (t.equals("Methods:")) {
+            classAgg = new Aggregate();
+        } else if (methodName != null) {
+            field(t);
+        }
+    }
+
+    private void field(String t) {
+        int colon = t.indexOf(':');
+        if (colon < 0) return;
+        String key = t.substring(0, colon);
+        String value = t.substring(colon + 1).strip();
+        currentList = null;
+        switch (key) {
+            case "signature" -> signature = value;
+            case "complexity" -> complexity = parseInt(value);
+            case "cost" -> costLabel = value;
+            case "calls" -> currentList = value.isEmpty() ? calls : null;
+            default -> {
+                // visibility, annotations, throws, calledBy: not part of the graph model; list items are skipped
+            }
+        }
+    }
+
+    private void endMethod() {
+        if (methodName == null || className == null) {
+            resetMethod();
+            return;
+        }
+        String id = canonical(className + "#" + methodName + "/" + paramCount(signature, methodName));
+        int cost = CostLevel.fromAny(costLabel).code();
+        String pkg = packageOf(className);
+        nodes.put(id, new GraphNode(id, NodeLevel.METHOD, simpleName(className) + "." + methodName, pkg, className,
+                canonical(methodName), signature, cost, complexity, isHotspot(cost)));
+        if (classAgg != null) classAgg.add(cost, complexity);
+
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String callee : calls) weights.merge(callee, 1, Integer::sum);
+        weights.forEach((callee, w) -> addEdge(id, callee, EdgeType.INVOCATION, w));
+        resetMethod();
+    }
+
+    private void endClass() {
+        endMethod();
+        if (className != null && classAgg != null) {
+            String pkg = packageOf(className);
+            nodes.put(className, new GraphNode(className, NodeLevel.CLASS, simpleName(className), pkg, className,
+                    null, file, classAgg.cost, classAgg.complexity, isHotspot(classAgg.cost)));
+            packages.computeIfAbsent(pkg, k -> new Aggregate()).add(classAgg.cost, classAgg.complexity);
+            classesBySimpleName.computeIfAbsent(simpleName(className), k -> new ArrayList<>(1)).add(className);
+            if (parent != null && !parent.isEmpty() && !"null".equals(parent)) parents.put(className, parent);
+        }
+        file = null;
+        className = null;
+        parent = null;
+        classAgg = null;
+    }
+
+    private void resetMethod() {
+        methodName = null;
+        signature = null;
+        complexity = 0;
+        costLabel = null;
+        calls.clear();
+        currentList = null;
+    }
+
+    private void addEdge(String source, String target, EdgeType type, int weight) {
+        edges.add(new GraphEdge(edgeIdPrefix + edges.size(), source, target, type, weight));
+    }
+
+    /** Resolves a simple parent name: unique match wins, otherwise a class in the child's package. */
+    private String resolveClass(String simple, String childPackage) {
+        List<String> candidates = classesBySimpleName.get(simpleName(simple));
+        if (candidates == null) return null;
+        if (candidates.size() == 1) return candidates.get(0);
+        for (String c : candidates) {
+            if (packageOf(c).equals(childPackage)) return c;
+        }
+        return null;
+    }
+
+    private String canonical(String s) {
+        String existing = canonical.putIfAbsent(s, s);
+        return existing != null ? existing : s;
+    }
+
+    private String packageOf(String fqName) {
+        int i = fqName.lastIndexOf('.');
+        return i < 0 ? "" : canonical(fqName.substring(0, i));
+    }
+
+    private static String simpleName(String fqName) {
+        return fqName.substring(fqName.lastIndexOf('.') + 1);
+    }
+
+    private static String value(String line, String key) {
+        return line.substring(key.length()).strip();
+    }
+
+    private static int parseInt(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private static boolean isHotspot(int cost) {
+        return cost >= CostLevel.HIGH.code();
+    }
+
+    /** Counts top-level parameters in {@code ... name(A a, Map<K, V> b) throws X}; nested commas are ignored. */
+    static int paramCount(String signature, String methodName) {
+        if (signature == null) return 0;
+        int open = signature.indexOf(methodName + "(");
+        open = open < 0 ? signature.indexOf('(') : open + methodName.length();
+        if (open < 0) return 0;
+        int depth = 0;
+        int count = 0;
+        boolean any = false;
+        for (int i = open + 1; i < signature.length(); i++) {
+            char c = signature.charAt(i);
+            if (c == '(' || c == '<' || c == '[') depth++;
+            else if (c == '>' || c == ']') depth--;
+            else if (c == ')') {
+                if (depth == 0) break;
+                depth--;
+            } else if (c == ',' && depth == 0) count++;
+            else if (!Character.isWhitespace(c)) any = true;
+        }
+        return any ? count + 1 : 0;
+    }
+
+    private static final class Aggregate {
+        int cost;
+        int complexity;
+
+        void add(int c, int cx) {
+            cost = Math.max(cost, c);
+            complexity += cx;
+        }
+
+        Aggregate merge(Aggregate other) {
+            add(other.cost, other.complexity);
+            return this;
+        }
+    }
+}
@@ -1,15 +1,101 @@
 package com.belmonttech.graph.model.io;
 
 import com.belmonttech.graph.model.*;
+import com.belmonttech.graph.model.progress.ProgressListener;
 
-public class ToonSerializer implements ISerializer {
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes the analyzer's TOON report format. Both directions stream: the reader consumes one line at
+ * a time and the writer emits one class block at a time, so neither ever holds the whole text in memory.
+ * Large reports can also be read in parallel: they split at {@code File:} lines, which start self-contained
+ * class blocks.
+ */
+public class ToonSerializer implements ChunkedSerializer<ToonParser> {
+
+    private static final int BUFFER = 1 << 16;
+    private static final byte[] FILE_MARKER = "\nFile:".getBytes(StandardCharsets.US_ASCII);
 
     @Override
     public GraphSnapshot deserialize(byte[] raw) throws Exception {
-        return new GraphSnapshot(java.util.Map.of(), java.util.List.of());
+        return deserialize(new ByteArrayInputStream(raw));
+    }
+
+    @Override
+    public GraphSnapshot deserialize(InputStream in) throws Exception {
+        ToonParser parser = new ToonParser();
+        parser.read(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER));
+        return parser.build();
+    }
+
+    @Override
+    public List<int[]> split(ByteBuffer data, int targetChunks) {
+        int size = data.limit();
+        List<int[]> ranges = new ArrayList<>(targetChunks);
+        int start = 0;
+        for (int i = 1; i < targetChunks && start < size; i++) {
+            int cut = nextBlock(data, Math.max(start, (int) ((long) size * i / targetChunks)));
+            if (cut >= size) break;
+            if (cut > start) {
+                ranges.add(new int[]{start, cut});
+                start = cut;
+            }
+        }
+        ranges.add(new int[]{start, size});
+        return ranges;
+    }
+
+    @Override
+    public ToonParser parseChunk(ByteBuffer chunk, int[] range, int chunkIndex) throws Exception {
+        ToonParser parser = new ToonParser(chunkIndex == 0 ? "e" : "e" + chunkIndex + ".");
+        parser.read(new BufferedReader(new InputStreamReader(new ByteBufferInputStream(chunk),
+                StandardCharsets.UTF_8), BUFFER));
+        return parser;
+    }
+
+    @Override
+    public GraphSnapshot merge(List<ToonParser> parts) {
+        ToonParser first = parts.get(0);
+        for (int i = 1; i < parts.size(); i++) first.mergeFrom(parts.get(i));
+        return first.build();
+    }
+
+    /** Offset of the first {@code File:} line at or after {@code from}, or the buffer limit. */
+    private static int nextBlock(ByteBuffer data, int from) {
+        int last = data.limit() - FILE_MARKER.length;
+        outer:
+        for (int i = Math.max(0, from - 1); i <= last; i++) {
+            for (int k = 0; k < FILE_MARKER.length; k++) {
+                if (data.get(i + k) != FILE_MARKER[k]) continue outer;
+            }
+            return i + 1;
+        }
+        return data.limit();
+    }
+
+    @Override
+    public void serialize(GraphSnapshot s, OutputStream out) throws Exception {
+        serialize(s, out, null);
+    }
+
+    @Override
+    public void serialize(GraphSnapshot s, OutputStream out, ProgressListener listener) throws Exception {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER);
+        ToonEncoder.write(s, w, listener);
     }
 
-    public static String encodeSnapshot(GraphSnapshot s){
-        return "(nodes []) (edges [])";
+    /** Convenience for small snapshots; large ones should go through {@link #serialize}. */
+    public static String encodeSnapshot(GraphSnapshot s) {
+        StringWriter sw = new StringWriter();
+        try {
+            ToonEncoder.write(s, sw);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return sw.toString();
     }
 }
@@ -0,0 +1,10 @@
+package com.belmonttech.graph.model.merge;
+
+import com.belmonttech.graph.model.GraphSnapshot;
+
+/**
+ * One input of a {@link SnapshotMerger} run: a separately analyzed snapshot and the namespace (usually the repo
+ * or service name) its own nodes are qualified with.
+ */
+public record MergeSource(String namespace, GraphSnapshot snapshot) {
+}
@@ -0,0 +1,27 @@
+package com.belmonttech.graph.model.merge;
+
+/**
+ * What a {@link SnapshotMerger} run produced.
+ *
+ * @param sources      number of input snapshots
+ * @param inputNodes   nodes over all inputs
+ * @param nodes        nodes in the merged snapshot
+ * @param sharedNodes  merged nodes kept under their original id (library nodes, deduplicated across inputs)
+ * @param inputEdges   edges over all inputs
+ * @param edges        edges in the merged snapshot
+ * @param crossLinks   edges whose unresolved endpoint was found in another input
+ * @param unresolved   edges that still have an endpoint outside the merged snapshot
+ * @param millis       wall-clock time of the merge
+ */
+public record MergeStats(
+        int sources,
+        int inputNodes,
+        int nodes,
+        int sharedNodes,
+        int inputEdges,
+        int edges,
+        int crossLinks,
+        int unresolved,
+        long millis
+) {
+}
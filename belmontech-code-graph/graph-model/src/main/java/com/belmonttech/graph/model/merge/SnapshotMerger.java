@@ -0,0 +1,181 @@
+package com.belmonttech.graph.model.merge;
+
+import com.belmonttech.graph.model.EdgeType;
+import com.belmonttech.graph.model.GraphEdge;
+import com.belmonttech.graph.model.GraphIo;
+import com.belmonttech.graph.model.GraphNode;
+import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.progress.ProgressListener;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Combines separately analyzed snapshots (one per repo or service) into one federated snapshot.
+ * <ul>
+ *   <li>A node owned by one input is renamed {@code <namespace>::<id>}, so equal ids from unrelated repos
+ *   cannot collide.</li>
+ *   <li>Shared nodes keep their id and appear once: nodes under one of {@link Options#sharedPackages}, and (with
+ *   {@link Options#dedupeCommon}) any id that more than one input defines, e.g. a library analyzed with each
+ *   service. The merged copy takes the first input's fields, the highest cost and complexity, and is a hotspot if
+ *   any copy was.</li>
+ *   <li>An edge endpoint missing from its own input (the analyzer's unresolved callee key) is looked up among the
+ *   other inputs and, if found, linked to that node: this is what connects cross-repo INVOCATION edges. Endpoints
+ *   found nowhere keep their original id.</li>
+ *   <li>Edge ids are qualified like node ids; edges between two shared nodes are kept once.</li>
+ * </ul>
+ * Id ownership, node renaming and edge resolution each run on parallel streams; output order is deterministic
+ * (inputs in the given order, each in its own order).
+ */
+public final class SnapshotMerger {
+
+    public static final String SEPARATOR = "::";
+
+    public record Options(Set<String> sharedPackages, boolean dedupeCommon) {
+        public static final Options DEFAULT = new Options(Set.of(), true);
+
+        public Options {
+            sharedPackages = sharedPackages == null ? Set.of() : Set.copyOf(sharedPackages);
+        }
+
+        boolean isSharedPackage(String pkg) {
+            if (pkg == null || sharedPackages.isEmpty()) return false;
+            for (String prefix : sharedPackages) {
+                if (pkg.startsWith(prefix)) return true;
+            }
+            return false;
+        }
+    }
+
+    public record Result(GraphSnapshot snapshot, MergeStats stats) {
+    }
+
+    private SnapshotMerger() {
+    }
+
+    public static Result merge(List<MergeSource> sources, Options options) {
+        long t0 = System.nanoTime();
+        Set<String> namespaces = new HashSet<>();
+        for (MergeSource s : sources) {
+            if (s.namespace() == null || s.namespace().isBlank() || !namespaces.add(s.namespace()))
+                throw new IllegalArgumentException("Merge sources need distinct namespaces: " + s.namespace());
+        }
+        int k = sources.size();
+
+        // id -> (number of inputs defining it << 32 | first input defining it)
+        Map<String, Long> owners = new ConcurrentHashMap<>();
+        IntStream.range(0, k).parallel().forEach(i ->
+                sources.get(i).snapshot().nodes().keySet().parallelStream()
+                        .forEach(id -> owners.merge(id, (1L << 32) | i, SnapshotMerger::combineOwners)));
+        Set<String> shared = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, k).parallel().forEach(i ->
+                sources.get(i).snapshot().nodes().values().parallelStream()
+                        .filter(n -> options.isSharedPackage(n.packageName())
+                                || options.dedupeCommon() && owners.get(n.id()) >>> 32 > 1)
+                        .forEach(n -> shared.add(n.id())));
+
+        List<List<GraphNode>> renamed = IntStream.range(0, k).parallel()
+                .mapToObj(i -> {
+                    String ns = sources.get(i).namespace();
+                    return sources.get(i).snapshot().nodes().values().parallelStream()
+                            .map(n -> shared.contains(n.id()) ? n : withId(n, qualify(ns, n.id())))
+                            .toList();
+                })
+                .toList();
+        int inputNodes = 0;
+        int capacity = 0;
+        for (List<GraphNode> part : renamed) capacity += part.size();
+        Map<String, GraphNode> nodes = new LinkedHashMap<>(Math.max(16, (int) (capacity / 0.75f) + 1));
+        for (List<GraphNode> part : renamed) {
+            inputNodes += part.size();
+            for (GraphNode n : part) nodes.merge(n.id(), n, SnapshotMerger::combineNodes);
+        }
+
+        LongAdder crossLinks = new LongAdder();
+        LongAdder unresolved = new LongAdder();
+        int inputEdges = 0;
+        List<GraphEdge> edges = new ArrayList<>();
+        Set<SharedEdge> sharedEdges = new HashSet<>();
+        for (int i = 0; i < k; i++) {
+            MergeSource source = sources.get(i);
+            Map<String, GraphNode> own = source.snapshot().nodes();
+            List<GraphEdge> in = source.snapshot().edges();
+            inputEdges += in.size();
+            List<GraphEdge> out = in.parallelStream()
+                    .map(e -> {
+                        String src = resolve(e.sourceId(), own, source.namespace(), sources, owners, shared);
+                        String tgt = resolve(e.targetId(), own, source.namespace(), sources, owners, shared);
+                        boolean crossed = src != null && isCrossLink(e.sourceId(), own, owners)
+                                || tgt != null && isCrossLink(e.targetId(), own, owners);
+                        if (crossed) crossLinks.increment();
+                        if (!nodes.containsKey(src) || !nodes.containsKey(tgt)) unresolved.increment();
+                        return new GraphEdge(qualify(source.namespace(), e.id()), src, tgt, e.type(), e.weight());
+                    })
+                    .toList();
+            for (GraphEdge e : out) {
+                // a library analyzed with several services contributes its internal edges once per service
+                if (shared.contains(e.sourceId()) && shared.contains(e.targetId())
+                        && !sharedEdges.add(new SharedEdge(e.sourceId(), e.targetId(), e.type()))) continue;
+                edges.add(e);
+            }
+        }
+
+        MergeStats stats = new MergeStats(k, inputNodes, nodes.size(), shared.size(), inputEdges, edges.size(),
+                crossLinks.intValue(), unresolved.intValue(), (System.nanoTime() - t0) / 1_000_000);
+        return new Result(new GraphSnapshot(nodes, edges), stats);
+    }
+
+    /**
+     * Merges and writes the result through {@link GraphIo#save}, whose serializers stream to the file (format and
+     * compression from its extension).
+     */
+    public static MergeStats mergeTo(Path file, GraphIo io, List<MergeSource> sources, Options options,
+                                     ProgressListener listener) throws Exception {
+        Result r = merge(sources, options);
+        io.save(file, r.snapshot(), listener);
+        return r.stats();
+    }
+
+    public static String qualify(String namespace, String id) {
+        return id == null ? null : namespace + SEPARATOR + id;
+    }
+
+    private static String resolve(String id, Map<String, GraphNode> own, String namespace, List<MergeSource> sources,
+                                  Map<String, Long> owners, Set<String> shared) {
+        if (id == null || shared.contains(id)) return id;
+        if (own.containsKey(id)) return qualify(namespace, id);
+        Long owner = owners.get(id);
+        if (owner == null) return id;
+        return qualify(sources.get((int) (long) owner).namespace(), id);
+    }
+
+    private static boolean isCrossLink(String id, Map<String, GraphNode> own, Map<String, Long> owners) {
+        return id != null && !own.containsKey(id) && owners.containsKey(id);
+    }
+
+    private static long combineOwners(long a, long b) {
+        long count = (a >>> 32) + (b >>> 32);
+        long first = Math.min(a & 0xFFFFFFFFL, b & 0xFFFFFFFFL);
+        return count << 32 | first;
+    }
+
+    private static GraphNode combineNodes(GraphNode a, GraphNode b) {
+        int cost = Math.max(a.cost(), b.cost());
+        int complexity = Math.max(a.complexity(), b.complexity());
+        boolean hotspot = a.hotspot() || b.hotspot();
+        if (cost == a.cost() && complexity == a.complexity() && hotspot == a.hotspot()) return a;
+        return new GraphNode(a.id(), a.level(), a.displayName(), a.packageName(), a.className(), a.methodName(),
+                a.signature(), cost, complexity, hotspot);
+    }
+
+    private static GraphNode withId(GraphNode n, String id) {
+        return new GraphNode(id, n.level(), n.displayName(), n.packageName(), n.className(), n.methodName(),
+                n.signature(), n.cost(), n.complexity(), n.hotspot());
+    }
+
+    private record SharedEdge(String source, String target, EdgeType type) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.belmonttech.graph.model.normalize;
+
+import com.belmonttech.graph.model.GraphEdge;
+import com.belmonttech.graph.model.GraphNode;
+import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.index.AdjacencyIndex;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Load-time clean-up of a snapshot's edges, run in parallel:
+ * <ul>
+ *   <li>parallel edges (same source, target and {@link com.belmonttech.graph.model.EdgeType}) are merged into
+ *   the first of them, whose weight becomes the sum (an unweighted edge counts as 1);</li>
+ *   <li>dangling edges (an endpoint is not in {@code nodes()}) are dropped, or kept and only counted;</li>
+ *   <li>self-loops are optionally removed.</li>
+ * </ul>
+ * Surviving edges keep their original relative order and ids. After a pass with {@code dropDangling}, every
+ * edge of the result resolves to two nodes, so consumers need no per-edge existence checks.
+ */
+public final class EdgeNormalizer {
+
+    private static final int DANGLING_SAMPLE = 10;
+    /** Sources with at most this many edges dedupe by linear scan instead of a hash map. */
+    private static final int SMALL_DEGREE = 8;
+
+    public record Options(boolean mergeParallel, boolean dropDangling, boolean removeSelfLoops) {
+        public static final Options DEFAULT = new Options(true, true, false);
+    }
+
+    public record Result(GraphSnapshot snapshot, NormalizationStats stats) {
+    }
+
+    private EdgeNormalizer() {
+    }
+
+    public static Result normalize(GraphSnapshot snapshot, Options options) {
+        long t0 = System.nanoTime();
+        Map<String, GraphNode> nodes = snapshot.nodes();
+        List<GraphEdge> edges = snapshot.edges();
+        int m = edges.size();
+        GraphEdge[] all = edges.toArray(new GraphEdge[0]);
+
+        Map<String, Integer> ordinals = new HashMap<>(Math.max(16, (int) (nodes.size() / 0.75f) + 1));
+        for (String id : nodes.keySet()) ordinals.put(id, ordinals.size());
+        int[] src = new int[m];
+        int[] tgt = new int[m];
+        IntStream.range(0, m).parallel().forEach(e -> {
+            src[e] = ordinal(ordinals, all[e] == null ? null : all[e].sourceId());
+            tgt[e] = ordinal(ordinals, all[e] == null ? null : all[e].targetId());
+        });
+
+        // representative[e] == e: edge survives; otherwise the index it was merged into, or -1 if removed
+        int[] representative = new int[m];
+        int[] weight = new int[m];
+        for (int e = 0; e < m; e++) {
+            representative[e] = all[e] == null ? -1 : e;
+            weight[e] = all[e] == null ? 0 : all[e].weight();
+        }
+        boolean[] merged = new boolean[m];
+        if (options.mergeParallel()) {
+            int[][] csr = AdjacencyIndex.csr(ordinals.size(), src, tgt);
+            int[] outOffsets = csr[0];
+            int[] outEdges = csr[1];
+            // each edge belongs to exactly one source bucket, so buckets can be processed independently
+            IntStream.range(0, ordinals.size()).parallel().forEach(s ->
+                    mergeBucket(all, tgt, outEdges, outOffsets[s], outOffsets[s + 1], representative, weight, merged));
+        }
+
+        int dangling = 0;
+        int selfLoops = 0;
+        int mergedCount = 0;
+        List<String> sample = new ArrayList<>();
+        for (int e = 0; e < m; e++) {
+            if (representative[e] < 0) continue;
+            if (representative[e] != e) {
+                mergedCount++;
+                continue;
+            }
+            if (src[e] < 0 || tgt[e] < 0) {
+                dangling++;
+                if (sample.size() < DANGLING_SAMPLE) sample.add(all[e].id());
+                if (options.dropDangling()) representative[e] = -1;
+            } else if (src[e] == tgt[e] && options.removeSelfLoops()) {
+                selfLoops++;
+                representative[e] = -1;
+            }
+        }
+
+        List<GraphEdge> out = IntStream.range(0, m).parallel()
+                .filter(e -> representative[e] == e)
+                .mapToObj(e -> merged[e] ? withWeight(all[e], weight[e]) : all[e])
+                .toList();
+        NormalizationStats stats = new NormalizationStats(m, out.size(), mergedCount, dangling, selfLoops,
+                List.copyOf(sample), (System.nanoTime() - t0) / 1_000_000);
+        return new Result(new GraphSnapshot(nodes, out), stats);
+    }
+
+    private static void mergeBucket(GraphEdge[] all, int[] tgt, int[] outEdges, int from, int to,
+                                    int[] representative, int[] weight, boolean[] merged) {
+        if (to - from < 2) return;
+        Map<Long, Integer> firstByKey = to - from > SMALL_DEGREE ? new HashMap<>() : null;
+        for (int k = from; k < to; k++) {
+            int e = outEdges[k];
+            int first = -1;
+            if (firstByKey != null) {
+                first = firstByKey.computeIfAbsent(key(tgt[e], all[e]), x -> e);
+            } else {
+                for (int j = from; j < k && first < 0; j++) {
+                    int f = outEdges[j];
+                    if (representative[f] == f && tgt[f] == tgt[e] && all[f].type() == all[e].type()) first = f;
+                }
+                if (first < 0) first = e;
+            }
+            if (first == e) continue;
+            if (!merged[first]) {
+                weight[first] = Math.max(1, weight[first]);
+                merged[first] = true;
+            }
+            weight[first] += Math.max(1, weight[e]);
+            representative[e] = first;
+        }
+    }
+
+    private static long key(int target, GraphEdge e) {
+        return ((long) target << 8) | (e.type() == null ? 0xFF : e.type().ordinal());
+    }
+
+    private static int ordinal(Map<String, Integer> ordinals, String id) {
+        Integer o = id == null ? null : ordinals.get(id);
+        return o == null ? -1 : o;
+    }
+
+    private static GraphEdge withWeight(GraphEdge e, int weight) {
+        return new GraphEdge(e.id(), e.sourceId(), e.targetId(), e.type(), weight);
+    }
+}
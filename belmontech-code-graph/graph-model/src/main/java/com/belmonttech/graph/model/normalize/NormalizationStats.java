@@ -0,0 +1,28 @@
+package com.belmonttech.graph.model.normalize;
+
+import java.util.List;
+
+/**
+ * What {@link EdgeNormalizer} did to a snapshot's edges.
+ *
+ * @param inputEdges       edges before normalization
+ * @param outputEdges      edges after normalization
+ * @param mergedEdges      parallel edges folded into an earlier edge with the same source, target and type
+ * @param danglingEdges    edges with an endpoint missing from {@code nodes()} (dropped unless kept by the options)
+ * @param selfLoops        edges from a node to itself that were removed
+ * @param danglingSample   ids of the first few dangling edges, for reporting
+ * @param millis           wall-clock time of the pass
+ */
+public record NormalizationStats(
+        int inputEdges,
+        int outputEdges,
+        int mergedEdges,
+        int danglingEdges,
+        int selfLoops,
+        List<String> danglingSample,
+        long millis
+) {
+    public boolean changed() {
+        return inputEdges != outputEdges || mergedEdges > 0;
+    }
+}
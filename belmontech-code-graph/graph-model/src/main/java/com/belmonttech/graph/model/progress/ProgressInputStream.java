@@ -0,0 +1,60 @@
+package com.belmonttech.graph.model.progress;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts bytes as a parser pulls them and reports them through a {@link ProgressReporter}, so any
+ * streaming deserializer gets byte-level progress for free.
+ */
+public class ProgressInputStream extends FilterInputStream {
+    private final ProgressReporter reporter;
+    private boolean finished;
+
+    public ProgressInputStream(InputStream in, String phase, long totalBytes, ProgressListener l) {
+        super(in);
+        this.reporter = new ProgressReporter(phase, totalBytes, l);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) reporter.step();
+        else finish();
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) reporter.step(n);
+        else if (n < 0) finish();
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        if (skipped > 0) reporter.step(skipped);
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        super.close();
+    }
+
+    /** The reporter is throttled, so the last bytes are only reported once the stream ends or is closed. */
+    private void finish() {
+        if (finished) return;
+        finished = true;
+        reporter.finish();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
@@ -1,16 +1,73 @@
 package com.belmonttech.graph.model.progress;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts work done in a phase and forwards it to a {@link ProgressListener}, throttled: the listener hears at
+ * most one update per {@code minInterval}, and (when the total is known) only when the whole percentage has
+ * moved since the last update. {@link #finish()} always reports the final count.
+ * <p>
+ * {@link #step(long)} is lock-free and may be called from any number of threads; the count is a
+ * {@link LongAdder} and a single CAS on the next report time picks which caller notifies the listener.
+ * The listener may therefore be called from any of the stepping threads, and must be thread-safe.
+ */
 public class ProgressReporter {
+    public static final long DEFAULT_INTERVAL_MILLIS = 100;
+
     private final ProgressListener l;
     private final String phase;
     private final long total;
-    private long current;
+    private final long intervalNanos;
+    private final LongAdder current = new LongAdder();
+    private final AtomicLong nextReport;
+    private final AtomicLong reported = new AtomicLong(-1);
 
     public ProgressReporter(String p,long t,ProgressListener l){
+        this(p, t, l, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    /** {@code minIntervalMillis} of 0 reports every step whose percentage differs from the last one. */
+    public ProgressReporter(String p, long t, ProgressListener l, long minIntervalMillis) {
         this.phase=p; this.total=t;
         this.l=l!=null?l:new NoOpProgressListener();
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(minIntervalMillis);
+        this.nextReport = new AtomicLong(System.nanoTime());
+    }
+
+    public void step(){ step(1); }
+
+    public void step(long n){
+        if (l instanceof NoOpProgressListener) return;
+        current.add(n);
+        long due = nextReport.get();
+        long now = System.nanoTime();
+        if (now - due < 0 || !nextReport.compareAndSet(due, now + intervalNanos)) return;
+        report(current.sum(), false);
     }
 
-    public void step(){ current++; l.onProgress(phase,current,total); }
-    public void step(long n){ current+=n; l.onProgress(phase,current,total); }
+    /** Reports the final count, bypassing the throttle. Call once the phase is complete. */
+    public void finish(){
+        if (l instanceof NoOpProgressListener) return;
+        report(current.sum(), true);
+    }
+
+    public long current(){ return current.sum(); }
+
+    public long total(){ return total; }
+
+    private void report(long value, boolean force) {
+        long last;
+        do {
+            last = reported.get();
+            if (value < last || value == last && !force) return;
+            if (!force && last >= 0 && total > 0 && percent(value) == percent(last)) return;
+        } while (!reported.compareAndSet(last, value));
+        l.onProgress(phase, value, total);
+    }
+
+    private long percent(long value) {
+        return value * 100 / total;
+    }
 }
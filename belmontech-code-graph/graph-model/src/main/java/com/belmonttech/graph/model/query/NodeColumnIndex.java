@@ -0,0 +1,229 @@
+package com.belmonttech.graph.model.query;
+
+import com.belmonttech.graph.model.EdgeType;
+import com.belmonttech.graph.model.GraphNode;
+import com.belmonttech.graph.model.NodeLevel;
+import com.belmonttech.graph.model.columnar.SnapshotColumns;
+import com.belmonttech.graph.model.index.AdjacencyIndex;
+
+import java.util.*;
+
+/**
+ * Per-snapshot indexes over the node columns that {@link NodePredicate}s are evaluated against, so a filter
+ * never scans the snapshot:
+ * <ul>
+ *   <li>a bitmap per level, per distinct cost value and for the hotspot flag</li>
+ *   <li>ordinals sorted by complexity, so a complexity range is two binary searches</li>
+ *   <li>ordinals sorted by package name, so a package prefix is a contiguous range</li>
+ * </ul>
+ * {@link NodePredicate.And} and {@link NodePredicate.Or} evaluate their terms in parallel on large snapshots
+ * and combine the bitmaps word by word. {@link #select} returns the top matches by cost or complexity by walking the same indexes in order,
+ * without sorting the match set.
+ */
+public final class NodeColumnIndex {
+
+    /** Node count from which the terms of AND/OR are evaluated in parallel. */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    public enum SortKey { COST, COMPLEXITY, ID }
+
+    private final AdjacencyIndex index;
+    private final int n;
+    private final BitSet[] levels;
+    private final TreeMap<Integer, BitSet> costs = new TreeMap<>();
+    private final BitSet hotspots;
+    private final int[] byComplexity;
+    private final int[] complexities;
+    private final int[] byPackage;
+    private final String[] packages;
+
+    private NodeColumnIndex(AdjacencyIndex index) {
+        this.index = index;
+        this.n = index.nodeCount();
+        SnapshotColumns columns = index.columns();
+        this.levels = new BitSet[NodeLevel.values().length];
+        for (int l = 0; l < levels.length; l++) levels[l] = new BitSet(n);
+        this.hotspots = new BitSet(n);
+        int[] complexity = new int[n];
+        String[] pkg = new String[n];
+        for (int o = 0; o < n; o++) {
+            GraphNode node = columns == null ? index.node(o) : null;
+            NodeLevel level = columns != null ? columns.level(o) : node.level();
+            if (level != null) levels[level.ordinal()].set(o);
+            costs.computeIfAbsent(columns != null ? columns.cost(o) : node.cost(), k -> new BitSet(n)).set(o);
+            if (columns != null ? columns.hotspot(o) : node.hotspot()) hotspots.set(o);
+            complexity[o] = columns != null ? columns.complexity(o) : node.complexity();
+            String p = columns != null ? columns.packageName(o) : node.packageName();
+            pkg[o] = p == null ? "" : p;
+        }
+
+        this.byComplexity = sortedOrdinals(Comparator.comparingInt(o -> complexity[o]));
+        this.complexities = new int[n];
+        for (int k = 0; k < n; k++) complexities[k] = complexity[byComplexity[k]];
+        this.byPackage = sortedOrdinals(Comparator.comparing(o -> pkg[o]));
+        this.packages = new String[n];
+        for (int k = 0; k < n; k++) packages[k] = pkg[byPackage[k]];
+    }
+
+    public static NodeColumnIndex build(AdjacencyIndex index) {
+        return new NodeColumnIndex(index);
+    }
+
+    public AdjacencyIndex index() {
+        return index;
+    }
+
+    /** Ordinals matching {@code predicate}; the caller owns the returned set. */
+    public BitSet evaluate(NodePredicate predicate) {
+        return switch (predicate) {
+            case NodePredicate.All a -> {
+                BitSet all = new BitSet(n);
+                all.set(0, n);
+                yield all;
+            }
+            case NodePredicate.Level l -> {
+                BitSet out = new BitSet(n);
+                for (NodeLevel level : l.levels()) out.or(levels[level.ordinal()]);
+                yield out;
+            }
+            case NodePredicate.CostRange c -> {
+                BitSet out = new BitSet(n);
+                int min = c.min() == null ? Integer.MIN_VALUE : c.min();
+                int max = c.max() == null ? Integer.MAX_VALUE : c.max();
+                if (min <= max) for (BitSet bits : costs.subMap(min, true, max, true).values()) out.or(bits);
+                yield out;
+            }
+            case NodePredicate.Hotspot h -> {
+                BitSet out = (BitSet) hotspots.clone();
+                if (!h.hotspot()) out.flip(0, n);
+                yield out;
+            }
+            case NodePredicate.ComplexityRange c -> {
+                int from = c.min() == null ? 0 : lowerBound(complexities, c.min());
+                int to = c.max() == null ? n : (c.max() == Integer.MAX_VALUE ? n : lowerBound(complexities, c.max() + 1));
+                BitSet out = new BitSet(n);
+                for (int k = from; k < to; k++) out.set(byComplexity[k]);
+                yield out;
+            }
+            case NodePredicate.PackagePrefix p -> packagePrefix(p.prefix());
+            case NodePredicate.And a -> combine(a.terms(), true);
+            case NodePredicate.Or o -> combine(o.terms(), false);
+        };
+    }
+
+    /**
+     * Up to {@code limit} ordinals of {@code matches}, ordered by {@code key}. Cost walks the cost bitmaps from
+     * the top, complexity the sorted ordinals; only {@code ID} sorts the matches.
+     */
+    public int[] select(BitSet matches, SortKey key, boolean descending, int limit) {
+        int size = Math.min(limit, matches.cardinality());
+        int[] out = new int[Math.max(0, size)];
+        int filled = 0;
+        switch (key) {
+            case COST -> {
+                NavigableMap<Integer, BitSet> order = descending ? costs.descendingMap() : costs;
+                for (BitSet bits : order.values()) {
+                    BitSet hit = (BitSet) bits.clone();
+                    hit.and(matches);
+                    for (int o = hit.nextSetBit(0); o >= 0 && filled < out.length; o = hit.nextSetBit(o + 1)) {
+                        out[filled++] = o;
+                    }
+                    if (filled == out.length) break;
+                }
+            }
+            case COMPLEXITY -> {
+                for (int k = 0; k < n && filled < out.length; k++) {
+                    int o = byComplexity[descending ? n - 1 - k : k];
+                    if (matches.get(o)) out[filled++] = o;
+                }
+            }
+            case ID -> {
+                Comparator<Integer> byId = Comparator.comparing(o -> index.node(o).id());
+                return matches.stream().boxed()
+                        .sorted(descending ? byId.reversed() : byId)
+                        .limit(out.length)
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Edges with both endpoints in {@code nodes}, of one of {@code types} (all if empty) and with at least
+     * {@code minWeight}.
+     */
+    public int[] edgesWithin(BitSet nodes, Set<EdgeType> types, int minWeight) {
+        SnapshotColumns columns = index.columns();
+        int[] out = new int[16];
+        int count = 0;
+        for (int u = nodes.nextSetBit(0); u >= 0; u = nodes.nextSetBit(u + 1)) {
+            for (int k = index.outStart(u); k < index.outEnd(u); k++) {
+                int e = index.outEdgeAt(k);
+                if (!nodes.get(index.target(e))) continue;
+                if (!types.isEmpty() && !types.contains(columns != null ? columns.edgeType(e) : index.edge(e).type())) continue;
+                if (minWeight > 0 && (columns != null ? columns.edgeWeight(e) : index.edge(e).weight()) < minWeight) continue;
+                if (count == out.length) out = Arrays.copyOf(out, count * 2);
+                out[count++] = e;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    public long estimatedBytes() {
+        return (long) (levels.length + costs.size() + 1) * (n / 8 + 32) + 16L * n + 64;
+    }
+
+    private BitSet combine(List<NodePredicate> terms, boolean and) {
+        if (terms.isEmpty()) return and ? evaluate(new NodePredicate.All()) : new BitSet(n);
+        List<BitSet> parts = terms.size() > 1 && n >= PARALLEL_THRESHOLD
+                ? terms.parallelStream().map(this::evaluate).toList()
+                : terms.stream().map(this::evaluate).toList();
+        BitSet out = parts.get(0);
+        for (int k = 1; k < parts.size(); k++) {
+            if (and) out.and(parts.get(k));
+            else out.or(parts.get(k));
+        }
+        return out;
+    }
+
+    private BitSet packagePrefix(String prefix) {
+        BitSet out = new BitSet(n);
+        String p = prefix == null ? "" : prefix;
+        // "com.acme0" sorts after "com.acme.db", so the range is scanned to its end and checked for a boundary
+        for (int k = lowerBound(packages, p); k < n && packages[k].startsWith(p); k++) {
+            String pkg = packages[k];
+            if (p.isEmpty() || pkg.length() == p.length() || pkg.charAt(p.length()) == '.') out.set(byPackage[k]);
+        }
+        return out;
+    }
+
+    private int[] sortedOrdinals(Comparator<Integer> order) {
+        Integer[] sorted = new Integer[n];
+        for (int o = 0; o < n; o++) sorted[o] = o;
+        Arrays.sort(sorted, order.thenComparingInt(o -> o));
+        int[] out = new int[n];
+        for (int k = 0; k < n; k++) out[k] = sorted[k];
+        return out;
+    }
+
+    private static int lowerBound(int[] sorted, int value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int lowerBound(String[] sorted, String value) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid].compareTo(value) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
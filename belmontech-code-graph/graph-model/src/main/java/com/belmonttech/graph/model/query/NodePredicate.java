@@ -0,0 +1,31 @@
+package com.belmonttech.graph.model.query;
+
+import com.belmonttech.graph.model.NodeLevel;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A filter over nodes, evaluated by {@link NodeColumnIndex} into the set of matching ordinals. Ranges are
+ * inclusive; a null bound is open.
+ */
+public sealed interface NodePredicate {
+
+    record Level(Set<NodeLevel> levels) implements NodePredicate {}
+
+    record CostRange(Integer min, Integer max) implements NodePredicate {}
+
+    record ComplexityRange(Integer min, Integer max) implements NodePredicate {}
+
+    record Hotspot(boolean hotspot) implements NodePredicate {}
+
+    /** Nodes of the package {@code prefix} or of a package nested in it ({@code com.acme} matches {@code com.acme.db}). */
+    record PackagePrefix(String prefix) implements NodePredicate {}
+
+    /** All nodes; the neutral element of {@link And}. */
+    record All() implements NodePredicate {}
+
+    record And(List<NodePredicate> terms) implements NodePredicate {}
+
+    record Or(List<NodePredicate> terms) implements NodePredicate {}
+}
@@ -0,0 +1,42 @@
+package com.belmonttech.graph.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small hand-built snapshots for the model tests. Method nodes follow the analyzer's conventions (id
+ * {@code <class>#<name>/<paramCount>}, display name {@code <SimpleClass>.<name>}, hotspot from HIGH cost up), so
+ * they survive a TOON round trip unchanged.
+ */
+public final class TestGraphs {
+
+    private TestGraphs() {
+    }
+
+    public static GraphNode method(String id, int cost) {
+        return method(id, cost, 1);
+    }
+
+    public static GraphNode method(String id, int cost, int complexity) {
+        String cls = id.substring(0, id.indexOf('#'));
+        String name = id.substring(id.indexOf('#') + 1, id.indexOf('/'));
+        int params = Integer.parseInt(id.substring(id.indexOf('/') + 1));
+        StringBuilder signature = new StringBuilder("public void ").append(name).append('(');
+        for (int p = 0; p < params; p++) signature.append(p == 0 ? "" : ", ").append("int p").append(p);
+        signature.append(')');
+        String pkg = cls.substring(0, cls.lastIndexOf('.'));
+        return new GraphNode(id, NodeLevel.METHOD, cls.substring(cls.lastIndexOf('.') + 1) + "." + name, pkg, cls,
+                name, signature.toString(), cost, complexity, cost >= CostLevel.HIGH.code());
+    }
+
+    public static GraphEdge call(String id, String source, String target, int weight) {
+        return new GraphEdge(id, source, target, EdgeType.INVOCATION, weight);
+    }
+
+    public static GraphSnapshot snapshot(List<GraphNode> nodes, List<GraphEdge> edges) {
+        Map<String, GraphNode> byId = new LinkedHashMap<>();
+        for (GraphNode n : nodes) byId.put(n.id(), n);
+        return new GraphSnapshot(byId, edges);
+    }
+}
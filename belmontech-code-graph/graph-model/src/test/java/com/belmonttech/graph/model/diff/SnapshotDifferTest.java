@@ -0,0 +1,52 @@
+package com.belmonttech.graph.model.diff;
+
+import com.belmonttech.graph.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.belmonttech.graph.model.TestGraphs.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotDifferTest {
+
+    private static final String F = "com.a.A#f/0", G = "com.a.A#g/0", H = "com.a.A#h/0", K = "com.a.A#k/0";
+
+    @Test
+    void reportsNodeAndEdgeChanges() {
+        GraphSnapshot base = snapshot(List.of(method(F, 1), method(G, 2), method(H, 1)),
+                List.of(call("e0", F, G, 1), call("e1", G, H, 1)));
+        GraphSnapshot target = snapshot(List.of(method(F, 1), method(G, 3), method(K, 0)),
+                List.of(call("x0", F, G, 5), call("x1", G, K, 1)));
+
+        SnapshotDiff d = SnapshotDiffer.diff(base, target);
+
+        assertEquals(List.of(method(K, 0)), d.addedNodes());
+        assertEquals(List.of(method(H, 1)), d.removedNodes());
+        assertEquals(1, d.changedNodes().size());
+        NodeChange change = d.changedNodes().get(0);
+        assertEquals(G, change.id());
+        assertEquals(1, change.costDelta());
+        assertTrue(change.isRegression());
+        // edges match by source, target and type: a new id or weight is not a change
+        assertEquals(List.of(call("x1", G, K, 1)), d.addedEdges());
+        assertEquals(List.of(call("e1", G, H, 1)), d.removedEdges());
+    }
+
+    @Test
+    void identicalSnapshotsDiffEmpty() {
+        GraphSnapshot s = snapshot(List.of(method(F, 1), method(G, 1)), List.of(call("e0", F, G, 1)));
+
+        assertTrue(SnapshotDiffer.diff(s, s).isEmpty());
+    }
+
+    @Test
+    void cheaperNodeIsNotARegression() {
+        GraphSnapshot base = snapshot(List.of(method(F, 3, 1)), List.of());
+        GraphSnapshot target = snapshot(List.of(method(F, 2, 9)), List.of());
+
+        NodeChange change = SnapshotDiffer.diff(base, target).changedNodes().get(0);
+        assertEquals(-1, change.costDelta());
+        assertFalse(change.isRegression());
+    }
+}
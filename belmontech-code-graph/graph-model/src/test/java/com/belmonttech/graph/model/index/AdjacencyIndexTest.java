@@ -0,0 +1,84 @@
+package com.belmonttech.graph.model.index;
+
+import com.belmonttech.graph.model.*;
+import com.belmonttech.graph.model.columnar.ColumnarSnapshot;
+import com.belmonttech.graph.model.io.BinarySnapshotSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.belmonttech.graph.model.TestGraphs.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdjacencyIndexTest {
+
+    static final String A = "com.a.A#a/0", B = "com.a.A#b/0", C = "com.a.A#c/0", D = "com.a.A#d/0",
+            E = "com.a.E#e/0", X = "com.ext.Lib#x/0";
+
+    /** a calls b and c, both call d, d calls out of the snapshot; c inherits from e. */
+    static GraphSnapshot diamond() {
+        return snapshot(List.of(method(A, 3), method(B, 2), method(C, 1), method(D, 2), method(E, 0)), List.of(
+                call("e0", A, B, 1),
+                call("e1", A, C, 1),
+                call("e2", B, D, 1),
+                call("e3", C, D, 1),
+                call("e4", D, X, 1),
+                new GraphEdge("e5", C, E, EdgeType.INHERITANCE, 1)));
+    }
+
+    /** The same snapshot indexed from records, from heap columns and from a .cgb image; all must answer alike. */
+    static List<AdjacencyIndex> indexes(GraphSnapshot s) {
+        return List.of(AdjacencyIndex.build(s), AdjacencyIndex.build(ColumnarSnapshot.encode(s)),
+                AdjacencyIndex.build(binary(s)));
+    }
+
+    private static GraphSnapshot binary(GraphSnapshot s) {
+        try {
+            BinarySnapshotSerializer serializer = new BinarySnapshotSerializer(null);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            serializer.serialize(s, out);
+            return serializer.deserialize(out.toByteArray());
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Test
+    void linksEdgesByOrdinal() {
+        for (AdjacencyIndex index : indexes(diamond())) {
+            int a = index.ordinal(A), d = index.ordinal(D);
+            assertEquals(5, index.nodeCount());
+            assertEquals(6, index.edgeCount());
+            assertEquals(List.of(0, 1), out(index, a));
+            assertEquals(List.of(2, 3), in(index, d));
+            assertEquals(A, index.node(a).id());
+            assertEquals("e3", index.edge(3).id());
+        }
+    }
+
+    @Test
+    void keepsDanglingEdgesUnlinked() {
+        for (AdjacencyIndex index : indexes(diamond())) {
+            int d = index.ordinal(D);
+            assertEquals(-1, index.ordinal(X));
+            assertEquals(d, index.source(4));
+            assertEquals(-1, index.target(4));
+            assertEquals(List.of(), out(index, d));
+            assertEquals(X, index.edge(4).targetId());
+        }
+    }
+
+    private static List<Integer> out(AdjacencyIndex index, int ordinal) {
+        List<Integer> edges = new ArrayList<>();
+        for (int k = index.outStart(ordinal); k < index.outEnd(ordinal); k++) edges.add(index.outEdgeAt(k));
+        return edges;
+    }
+
+    private static List<Integer> in(AdjacencyIndex index, int ordinal) {
+        List<Integer> edges = new ArrayList<>();
+        for (int k = index.inStart(ordinal); k < index.inEnd(ordinal); k++) edges.add(index.inEdgeAt(k));
+        return edges;
+    }
+}
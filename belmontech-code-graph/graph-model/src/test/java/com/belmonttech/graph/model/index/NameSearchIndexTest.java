@@ -0,0 +1,58 @@
+package com.belmonttech.graph.model.index;
+
+import com.belmonttech.graph.model.GraphSnapshot;
+import com.belmonttech.graph.model.NodeLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.belmonttech.graph.model.TestGraphs.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameSearchIndexTest {
+
+    private static final String CACHE = "com.acme.HashSetCache#get/1", PLACE = "com.acme.OrderService#placeOrder/1",
+            SAVE = "com.acme.OrderRepo#save/1";
+
+    private static GraphSnapshot names() {
+        return snapshot(List.of(method(CACHE, 2), method(PLACE, 4), method(SAVE, 1)), List.of());
+    }
+
+    @Test
+    void matchesPrefixesRankedByCost() {
+        for (AdjacencyIndex index : AdjacencyIndexTest.indexes(names())) {
+            NameSearchIndex search = NameSearchIndex.build(index);
+
+            NameSearchIndex.Page page = search.search("order", NameSearchIndex.Mode.PREFIX, null, 0, 10);
+            assertEquals(2, page.total());
+            assertEquals(List.of(PLACE, SAVE), ids(index, page));
+            assertEquals(List.of(SAVE), ids(index, search.search("order", NameSearchIndex.Mode.PREFIX, null, 1, 1)));
+        }
+    }
+
+    @Test
+    void matchesCamelCaseHumpsAndSubstrings() {
+        for (AdjacencyIndex index : AdjacencyIndexTest.indexes(names())) {
+            NameSearchIndex search = NameSearchIndex.build(index);
+
+            assertEquals(List.of(CACHE), ids(index, search.search("HSC", NameSearchIndex.Mode.CAMEL, null, 0, 10)));
+            assertEquals(List.of(CACHE), ids(index, search.search("setca", NameSearchIndex.Mode.SUBSTRING, null, 0, 10)));
+            assertEquals(0, search.search("setca", NameSearchIndex.Mode.PREFIX, null, 0, 10).total());
+        }
+    }
+
+    @Test
+    void filtersByLevel() {
+        for (AdjacencyIndex index : AdjacencyIndexTest.indexes(names())) {
+            NameSearchIndex search = NameSearchIndex.build(index);
+
+            assertEquals(0, search.search("order", NameSearchIndex.Mode.AUTO, NodeLevel.CLASS, 0, 10).total());
+            assertEquals(2, search.search("order", NameSearchIndex.Mode.AUTO, NodeLevel.METHOD, 0, 10).total());
+        }
+    }
+
+    private static List<String> ids(AdjacencyIndex index, NameSearchIndex.Page page) {
+        return Arrays.stream(page.ordinals()).mapToObj(o -> index.node(o).id()).toList();
+    }
+}
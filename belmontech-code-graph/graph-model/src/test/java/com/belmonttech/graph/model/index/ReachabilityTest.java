@@ -0,0 +1,60 @@
+package com.belmonttech.graph.model.index;
+
+import com.belmonttech.graph.model.EdgeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import static com.belmonttech.graph.model.index.AdjacencyIndexTest.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReachabilityTest {
+
+    @Test
+    void followsEdgesOfTheRequestedType() {
+        for (AdjacencyIndex index : indexes(diamond())) {
+            Reachability.Result all = Reachability.closure(index, index.ordinal(A), Reachability.Direction.CALLEES,
+                    null, 0, 0);
+            Reachability.Result calls = Reachability.closure(index, index.ordinal(A), Reachability.Direction.CALLEES,
+                    EdgeType.INVOCATION, 0, 0);
+
+            assertEquals(Set.of(A, B, C, D, E), ids(index, all));
+            assertEquals(Set.of(A, B, C, D), ids(index, calls));
+            assertEquals(3, calls.count());
+            assertEquals(2, calls.depth());
+            assertTrue(calls.complete());
+        }
+    }
+
+    @Test
+    void walksCallersBackwards() {
+        for (AdjacencyIndex index : indexes(diamond())) {
+            Reachability.Result r = Reachability.closure(index, index.ordinal(D), Reachability.Direction.CALLERS,
+                    EdgeType.INVOCATION, 0, 0);
+
+            assertEquals(Set.of(A, B, C, D), ids(index, r));
+        }
+    }
+
+    @Test
+    void stopsAtDepthAndCost() {
+        for (AdjacencyIndex index : indexes(diamond())) {
+            Reachability.Result shallow = Reachability.closure(index, index.ordinal(A),
+                    Reachability.Direction.CALLEES, EdgeType.INVOCATION, 1, 0);
+            // c (cost 1) is neither reported nor walked through; d is still reached through b
+            Reachability.Result costly = Reachability.closure(index, index.ordinal(A),
+                    Reachability.Direction.CALLEES, EdgeType.INVOCATION, 0, 2);
+
+            assertEquals(Set.of(A, B, C), ids(index, shallow));
+            assertFalse(shallow.complete());
+            assertEquals(Set.of(A, B, D), ids(index, costly));
+        }
+    }
+
+    private static Set<String> ids(AdjacencyIndex index, Reachability.Result r) {
+        Set<String> ids = new TreeSet<>();
+        r.reached().stream().forEach(o -> ids.add(index.node(o).id()));
+        return ids;
+    }
+}
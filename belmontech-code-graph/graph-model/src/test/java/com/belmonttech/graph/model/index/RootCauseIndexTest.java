@@ -0,0 +1,57 @@
+package com.belmonttech.graph.model.index;
+
+import com.belmonttech.graph.model.GraphSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.belmonttech.graph.model.TestGraphs.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RootCauseIndexTest {
+
+    private static final String F = "com.a.A#f/0", G = "com.a.A#g/0", G2 = "com.a.A#g2/0", DB = "com.a.Dao#load/0",
+            K = "com.a.A#k/0";
+
+    /** f reaches the DB call through g and g2 (equal length, g2 heavier); k is cheaper than f. */
+    private static GraphSnapshot expensive() {
+        return snapshot(List.of(method(F, 3), method(G, 3), method(G2, 3), method(DB, 3), method(K, 1)), List.of(
+                call("e0", F, G, 1),
+                call("e1", G, DB, 1),
+                call("e2", F, G2, 5),
+                call("e3", G2, DB, 1),
+                call("e4", F, K, 1)));
+    }
+
+    @Test
+    void pointsEveryNodeToItsNearestRootCause() {
+        for (AdjacencyIndex index : AdjacencyIndexTest.indexes(expensive())) {
+            RootCauseIndex r = RootCauseIndex.build(index);
+            int f = index.ordinal(F), db = index.ordinal(DB);
+
+            assertTrue(r.isRootCause(db));
+            assertTrue(r.isRootCause(index.ordinal(K)));
+            assertEquals(2, r.distance(f));
+            assertEquals(db, r.rootCause(f));
+            assertEquals(List.of(F, G2, DB), ids(index, r.path(f, true)));
+            assertEquals(3, r.path(f, false).length);
+        }
+    }
+
+    @Test
+    void findsShortestInvocationPath() {
+        for (AdjacencyIndex index : AdjacencyIndexTest.indexes(expensive())) {
+            RootCauseIndex r = RootCauseIndex.build(index);
+            int f = index.ordinal(F), db = index.ordinal(DB);
+
+            assertEquals(3, r.shortestPath(f, db, 5).length);
+            assertNull(r.shortestPath(db, f, 5));
+            assertNull(r.shortestPath(f, db, 1));
+        }
+    }
+
+    private static List<String> ids(AdjacencyIndex index, int[] path) {
+        return Arrays.stream(path).mapToObj(o -> index.node(o).id()).toList();
+    }
+}
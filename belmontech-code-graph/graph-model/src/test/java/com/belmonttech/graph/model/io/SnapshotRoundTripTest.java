@@ -0,0 +1,113 @@
+package com.belmonttech.graph.model.io;
+
+import com.belmonttech.graph.model.*;
+import com.belmonttech.graph.model.columnar.SnapshotColumns;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.belmonttech.graph.model.TestGraphs.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Every format must read back what was written, including edges whose target is not in the snapshot. */
+class SnapshotRoundTripTest {
+
+    private static final String EXTERNAL = "com.ext.Lib#x/0";
+
+    @TempDir
+    Path dir;
+
+    private final GraphIo io = new GraphIo();
+
+    private static GraphSnapshot sample() {
+        return snapshot(
+                List.of(method("com.a.A#f/0", 3, 4), method("com.a.A#g/1", 1), method("com.b.B#h/2", 0)),
+                List.of(call("e0", "com.a.A#f/0", "com.a.A#g/1", 2),
+                        call("e1", "com.a.A#g/1", "com.b.B#h/2", 1),
+                        call("e2", "com.a.A#f/0", EXTERNAL, 1)));
+    }
+
+    private GraphSnapshot roundTrip(String fileName, GraphSnapshot s) throws Exception {
+        Path file = dir.resolve(fileName);
+        io.save(file, s);
+        return io.load(file);
+    }
+
+    @Test
+    void jsonKeepsNodesAndEdges() throws Exception {
+        GraphSnapshot s = sample();
+        GraphSnapshot back = roundTrip("a.json", s);
+
+        assertEquals(s.nodes(), new LinkedHashMap<>(back.nodes()));
+        assertEquals(s.edges(), new ArrayList<>(back.edges()));
+    }
+
+    @Test
+    void compressedJsonKeepsNodesAndEdges() throws Exception {
+        GraphSnapshot s = sample();
+        GraphSnapshot back = roundTrip("a.json.gz", s);
+
+        assertEquals(s.nodes(), new LinkedHashMap<>(back.nodes()));
+        assertEquals(s.edges(), new ArrayList<>(back.edges()));
+    }
+
+    @Test
+    void binaryKeepsDanglingEdges() throws Exception {
+        GraphSnapshot s = sample();
+        GraphSnapshot back = roundTrip("a.cgb", s);
+
+        assertEquals(s.nodes(), new LinkedHashMap<>(back.nodes()));
+        assertEquals(s.edges(), new ArrayList<>(back.edges()));
+        SnapshotColumns columns = SnapshotColumns.of(back);
+        assertNotNull(columns);
+        assertEquals(-1, columns.edgeTarget(2));
+        assertEquals(EXTERNAL, columns.edge(2).targetId());
+    }
+
+    @Test
+    void binaryMergesParallelEdgesButKeepsDangling() throws Exception {
+        GraphSnapshot s = snapshot(new ArrayList<>(sample().nodes().values()), List.of(
+                call("e0", "com.a.A#f/0", "com.a.A#g/1", 2),
+                call("e1", "com.a.A#f/0", EXTERNAL, 1),
+                call("e2", "com.a.A#f/0", "com.a.A#g/1", 1)));
+        GraphSnapshot back = roundTrip("a.cgb", s);
+
+        assertEquals(List.of(call("e0", "com.a.A#f/0", "com.a.A#g/1", 3), call("e1", "com.a.A#f/0", EXTERNAL, 1)),
+                new ArrayList<>(back.edges()));
+    }
+
+    @Test
+    void binaryWithoutNormalizationWritesEdgesAsTheyAre() throws Exception {
+        GraphSnapshot s = snapshot(new ArrayList<>(sample().nodes().values()), List.of(
+                call("e0", "com.a.A#f/0", "com.a.A#g/1", 2),
+                call("e1", "com.a.A#f/0", "com.a.A#g/1", 1)));
+        BinarySnapshotSerializer serializer = new BinarySnapshotSerializer(null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.serialize(s, out);
+
+        assertEquals(s.edges(), new ArrayList<>(serializer.deserialize(out.toByteArray()).edges()));
+    }
+
+    @Test
+    void toonKeepsMethodsAndCalls() throws Exception {
+        GraphSnapshot s = sample();
+        GraphSnapshot back = roundTrip("a.toon", s);
+
+        Map<String, GraphNode> methods = new LinkedHashMap<>();
+        back.nodes().values().stream().filter(n -> n.level() == NodeLevel.METHOD).forEach(n -> methods.put(n.id(), n));
+        assertEquals(s.nodes(), methods);
+        // TOON has no edge ids; calls are compared by endpoints, type and weight
+        assertEquals(calls(s), calls(back));
+    }
+
+    private static Set<List<Object>> calls(GraphSnapshot s) {
+        Set<List<Object>> out = new HashSet<>();
+        for (GraphEdge e : s.edges()) {
+            if (e.type() == EdgeType.INVOCATION) out.add(List.of(e.sourceId(), e.targetId(), e.weight()));
+        }
+        return out;
+    }
+}
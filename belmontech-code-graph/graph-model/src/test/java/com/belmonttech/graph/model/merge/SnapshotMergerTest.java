@@ -0,0 +1,67 @@
+package com.belmonttech.graph.model.merge;
+
+import com.belmonttech.graph.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotMergerTest {
+
+    @TempDir
+    Path dir;
+
+    private static GraphNode method(String id, String pkg) {
+        String cls = id.substring(0, id.indexOf('#'));
+        String name = id.substring(id.indexOf('#') + 1, id.indexOf('/'));
+        return new GraphNode(id, NodeLevel.METHOD, name, pkg, cls, name, null, 1, 1, false);
+    }
+
+    /** Repo A calls into repo B, which A's analyzer could not resolve. */
+    private static GraphSnapshot repoA() {
+        return new GraphSnapshot(Map.of("a.A#f/0", method("a.A#f/0", "a")),
+                List.of(new GraphEdge("e1", "a.A#f/0", "b.B#g/0", EdgeType.INVOCATION, 1)));
+    }
+
+    private static GraphSnapshot repoB() {
+        return new GraphSnapshot(Map.of("b.B#g/0", method("b.B#g/0", "b")), List.of());
+    }
+
+    @Test
+    void linksUnresolvedCalleeToTheInputDefiningIt() {
+        SnapshotMerger.Result r = SnapshotMerger.merge(
+                List.of(new MergeSource("a", repoA()), new MergeSource("b", repoB())), SnapshotMerger.Options.DEFAULT);
+
+        assertEquals(1, r.stats().crossLinks());
+        assertEquals(0, r.stats().unresolved());
+        GraphEdge e = r.snapshot().edges().get(0);
+        assertEquals("a::a.A#f/0", e.sourceId());
+        assertEquals("b::b.B#g/0", e.targetId());
+    }
+
+    @Test
+    void binarySourceLinksLikeTheJsonItCameFrom() throws Exception {
+        GraphIo io = new GraphIo();
+        Path json = dir.resolve("a.json");
+        Path cgb = dir.resolve("a.cgb");
+        io.save(json, repoA());
+        io.save(cgb, io.load(json));
+
+        MergeStats fromJson = mergeWithB(io.load(json));
+        MergeStats fromCgb = mergeWithB(io.load(cgb));
+
+        assertEquals(1, fromJson.crossLinks());
+        assertEquals(fromJson.crossLinks(), fromCgb.crossLinks());
+        assertEquals(fromJson.edges(), fromCgb.edges());
+        assertEquals(fromJson.unresolved(), fromCgb.unresolved());
+    }
+
+    private static MergeStats mergeWithB(GraphSnapshot a) {
+        return SnapshotMerger.merge(List.of(new MergeSource("a", a), new MergeSource("b", repoB())),
+                SnapshotMerger.Options.DEFAULT).stats();
+    }
+}
@@ -0,0 +1,79 @@
+package com.belmonttech.graph.model.normalize;
+
+import com.belmonttech.graph.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.belmonttech.graph.model.TestGraphs.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeNormalizerTest {
+
+    private static final String F = "com.a.A#f/0", G = "com.a.A#g/0", X = "com.ext.Lib#x/0";
+
+    private static GraphSnapshot messy() {
+        return snapshot(List.of(method(F, 1), method(G, 1)), List.of(
+                call("e0", F, G, 2),
+                call("e1", F, X, 1),
+                call("e2", F, G, 0),
+                new GraphEdge("e3", F, G, EdgeType.INHERITANCE, 1),
+                call("e4", G, G, 1),
+                call("e5", F, G, 3)));
+    }
+
+    @Test
+    void mergesParallelEdgesIntoTheFirstAndDropsDangling() {
+        EdgeNormalizer.Result r = EdgeNormalizer.normalize(messy(), EdgeNormalizer.Options.DEFAULT);
+
+        // an unweighted edge counts as 1; other edge types are not parallel to INVOCATION
+        assertEquals(List.of(call("e0", F, G, 6), new GraphEdge("e3", F, G, EdgeType.INHERITANCE, 1), call("e4", G, G, 1)),
+                r.snapshot().edges());
+        NormalizationStats stats = r.stats();
+        assertEquals(6, stats.inputEdges());
+        assertEquals(3, stats.outputEdges());
+        assertEquals(2, stats.mergedEdges());
+        assertEquals(1, stats.danglingEdges());
+        assertEquals(List.of("e1"), stats.danglingSample());
+        assertTrue(stats.changed());
+    }
+
+    @Test
+    void keepsDanglingEdgesWhenAsked() {
+        EdgeNormalizer.Result r = EdgeNormalizer.normalize(messy(), new EdgeNormalizer.Options(true, false, false));
+
+        assertTrue(r.snapshot().edges().contains(call("e1", F, X, 1)));
+        assertEquals(1, r.stats().danglingEdges());
+        assertEquals(4, r.stats().outputEdges());
+    }
+
+    @Test
+    void removesSelfLoopsWhenAsked() {
+        EdgeNormalizer.Result r = EdgeNormalizer.normalize(messy(), new EdgeNormalizer.Options(false, true, true));
+
+        assertEquals(List.of("e0", "e2", "e3", "e5"), r.snapshot().edges().stream().map(GraphEdge::id).toList());
+        assertEquals(1, r.stats().selfLoops());
+        assertEquals(0, r.stats().mergedEdges());
+    }
+
+    @Test
+    void mergesWideFanOutLikeNarrow() {
+        // more than eight edges per source switches from a linear scan to a hash map
+        List<GraphNode> nodes = new ArrayList<>(List.of(method(F, 1)));
+        List<GraphEdge> edges = new ArrayList<>();
+        for (int t = 0; t < 12; t++) {
+            String target = "com.a.T#m" + t + "/0";
+            nodes.add(method(target, 1));
+            edges.add(call("a" + t, F, target, 1));
+            edges.add(call("b" + t, F, target, 2));
+        }
+        EdgeNormalizer.Result r = EdgeNormalizer.normalize(snapshot(nodes, edges), EdgeNormalizer.Options.DEFAULT);
+
+        assertEquals(12, r.snapshot().edges().size());
+        for (GraphEdge e : r.snapshot().edges()) {
+            assertTrue(e.id().startsWith("a"));
+            assertEquals(3, e.weight());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 rootProject.name = "belmontech-code-graph"
 
 include("graph-backend")
+include("graph-bench")
 include("graph-frontend")
 include("graph-model")